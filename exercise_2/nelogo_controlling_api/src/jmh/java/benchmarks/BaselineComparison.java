@@ -0,0 +1,118 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// compares two JMH json result files (-rf json) benchmark by benchmark:
+//   BaselineComparison [--threshold 0.1] baseline.json current.json
+// a change counts if it is larger than the threshold and than the sum of both 99.9% score errors;
+// exits with 1 if a benchmark got slower (all benchmarks are measured as time per operation)
+public final class BaselineComparison {
+
+    private static final double DEFAULT_THRESHOLD = 0.1;
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        double threshold = DEFAULT_THRESHOLD;
+        int first = 0;
+        if (args.length > 1 && args[0].equals("--threshold")) {
+            threshold = Double.parseDouble(args[1]);
+            first = 2;
+        }
+        if (args.length - first != 2) {
+            System.err.println("usage: BaselineComparison [--threshold 0.1] baseline.json current.json");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = read(args[first]);
+        Map<String, Score> current = read(args[first + 1]);
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %8s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, Score> entry : new TreeMap<>(current).entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14s %8s%n", entry.getKey(), "-", now, "new");
+                continue;
+            }
+            if (!before.unit.equals(now.unit)) {
+                System.out.printf("%-90s %14s %14s %8s%n", entry.getKey(), before, now, "unit?");
+                continue;
+            }
+            double change = now.score / before.score - 1;
+            boolean significant = Math.abs(now.score - before.score) > error(before) + error(now) &&
+                    Math.abs(change) > threshold;
+            String verdict = !significant ? "" : change > 0 ? "  SLOWER" : "  faster";
+            regressions += significant && change > 0 ? 1 : 0;
+            System.out.printf("%-90s %14s %14s %+7.1f%%%s%n", entry.getKey(), before, now, change * 100,
+                    verdict);
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-90s %14s %14s %8s%n", key, baseline.get(key), "-", "removed");
+            }
+        }
+        System.out.printf("%d of %d benchmarks slower by more than %.0f%%%n", regressions, current.size(),
+                threshold * 100);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    // benchmark name with its parameters -> primary score
+    private static Map<String, Score> read(String file) throws IOException {
+        Object json = Json.parse(new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8));
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (Object result : (List<?>) json) {
+            Map<?, ?> benchmark = (Map<?, ?>) result;
+            StringBuilder key = new StringBuilder(shortName((String) benchmark.get("benchmark")));
+            Map<?, ?> params = (Map<?, ?>) benchmark.get("params");
+            if (params != null) {
+                key.append(new TreeMap<>(params));
+            }
+            Map<?, ?> metric = (Map<?, ?>) benchmark.get("primaryMetric");
+            scores.put(key.toString(), new Score(number(metric.get("score")), number(metric.get("scoreError")),
+                    (String) metric.get("scoreUnit")));
+        }
+        return scores;
+    }
+
+    private static String shortName(String benchmark) {
+        return benchmark.startsWith("benchmarks.") ? benchmark.substring("benchmarks.".length()) : benchmark;
+    }
+
+    // JMH writes "NaN" as string if there were too few measurements for an error
+    private static double number(Object value) {
+        return value instanceof Double ? (Double) value : Double.NaN;
+    }
+
+    private static double error(Score score) {
+        return Double.isNaN(score.error) ? 0 : score.error;
+    }
+
+    private static final class Score {
+
+        private final double score;
+        private final double error;
+        private final String unit;
+
+        private Score(double score, double error, String unit) {
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3f %s", score, unit);
+        }
+
+    }
+
+}
@@ -0,0 +1,102 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Java side costs of every run: parameters of the Experiment, NetLogo commands to set them and the result row
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ControllerBenchmark {
+
+    private static final MethodHandle GET_PARAMETERS =
+            Targets.virtual("Experiment", "getParameters", Map.class);
+    private static final MethodHandle GET_OUTPUT_PARAMETERS =
+            Targets.virtual("Experiment", "getOutputParameters", Map.class);
+    private static final MethodHandle VALIDATE =
+            Targets.virtual("Experiment", "validate", List.class);
+    private static final MethodHandle SET_COMMAND =
+            Targets.statik("NetLogoBackend", "setCommand", String.class, String.class, Object.class);
+    private static final MethodHandle OUTPUT_WRITER =
+            Targets.constructor("OutputWriter", String.class, Boolean.class);
+    private static final MethodHandle WRITE_EXPERIMENT_WITH_RESULT =
+            Targets.virtual("OutputWriter", "writeExperimentWithResult", void.class, Targets.type("Experiment"),
+                    int.class);
+    private static final MethodHandle CLOSE =
+            Targets.virtual("OutputWriter", "close", void.class);
+
+    private Object experiment;
+    // NetLogo name and value of every parameter set before a run
+    private String[] names;
+    private Object[] values;
+
+    private File outputFile;
+    private Object outputWriter;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Throwable {
+        experiment = Targets.experiment("Shubert function", 35);
+        Map<String, Object> parameters = (Map<String, Object>) GET_OUTPUT_PARAMETERS.invoke(experiment);
+        names = parameters.keySet().toArray(new String[0]);
+        values = parameters.values().toArray();
+        outputFile = Files.createTempFile("benchmark_results", ".csv").toFile();
+        outputWriter = OUTPUT_WRITER.invoke(outputFile.getPath(), Boolean.TRUE);
+    }
+
+    @TearDown
+    public void tearDown() throws Throwable {
+        CLOSE.invoke(outputWriter);
+        Files.deleteIfExists(outputFile.toPath());
+    }
+
+    @Benchmark
+    public Object getParameters() throws Throwable {
+        return (Map<?, ?>) GET_PARAMETERS.invokeExact(experiment);
+    }
+
+    @Benchmark
+    public Object getOutputParameters() throws Throwable {
+        return (Map<?, ?>) GET_OUTPUT_PARAMETERS.invokeExact(experiment);
+    }
+
+    @Benchmark
+    public Object validate() throws Throwable {
+        return (List<?>) VALIDATE.invokeExact(experiment);
+    }
+
+    // all set commands of one run
+    @Benchmark
+    public void setCommands(Blackhole blackhole) throws Throwable {
+        for (int i = 0; i < names.length; i++) {
+            blackhole.consume((String) SET_COMMAND.invokeExact(names[i], values[i]));
+        }
+    }
+
+    // includes the flush after every row
+    @Benchmark
+    public void writeExperimentWithResult() throws Throwable {
+        WRITE_EXPERIMENT_WITH_RESULT.invoke(outputWriter, experiment, 1);
+    }
+
+}
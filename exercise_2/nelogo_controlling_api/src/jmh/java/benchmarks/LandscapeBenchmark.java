@@ -0,0 +1,91 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// landscape of a Setup: LandscapeBuilder (reference) against LandscapeGenerator with the scalar and the vector kernel
+// on the common ForkJoinPool, without constraint and with Constraint 10 (Penalty Method); the generated landscape is
+// checked against the reference before measuring, "vector" needs the vector profile and jdk.incubator.vector (see
+// pom.xml); the parallelism is the one of the common pool (-Djava.util.concurrent.ForkJoinPool.common.parallelism)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LandscapeBenchmark {
+
+    private static final Class<?> LANDSCAPE = Targets.type("Landscape");
+    private static final Class<?> LANDSCAPE_SPEC = Targets.type("LandscapeSpec");
+    private static final Class<?> LANDSCAPE_KERNEL = Targets.type("LandscapeKernel");
+
+    private static final MethodHandle SPEC = Targets.constructor("LandscapeSpec", String.class, boolean.class,
+            String.class, String.class, double.class, int.class, int.class, int.class, int.class);
+    private static final MethodHandle REFERENCE = Targets.statik("LandscapeBuilder", "build", LANDSCAPE,
+            LANDSCAPE_SPEC);
+    private static final MethodHandle GENERATOR = Targets.statik("LandscapeGenerator", "build", LANDSCAPE,
+            LANDSCAPE_SPEC, LANDSCAPE_KERNEL, ForkJoinPool.class);
+    private static final MethodHandle KERNEL = Targets.statik("LandscapeGenerator", "kernel", LANDSCAPE_KERNEL,
+            String.class);
+    private static final MethodHandle GET_VALUES = Targets.virtual("Landscape", "getValues", double[].class);
+    private static final MethodHandle GET_TRUE_BEST_INDEX = Targets.virtual("Landscape", "getTrueBestIndex",
+            int.class);
+
+    @Param({"Shubert function", "Booth's function", "Schwefel function"})
+    public String fitnessFunction;
+
+    @Param({"100", "512"})
+    public int worldRadius;
+
+    @Param({"reference", "scalar", "vector"})
+    public String builder;
+
+    // empty for no constraint
+    @Param({"", "Constraint 10"})
+    public String constraint;
+
+    private Object spec;
+    // build with the spec (and kernel) bound
+    private MethodHandle build;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        spec = SPEC.invoke(fitnessFunction, !constraint.isEmpty(), "Penalty Method", constraint, -0.15,
+                -worldRadius, worldRadius, -worldRadius, worldRadius);
+        if ("reference".equals(builder)) {
+            build = MethodHandles.insertArguments(REFERENCE, 0, spec);
+            return;
+        }
+        build = MethodHandles.insertArguments(GENERATOR, 0, spec, KERNEL.invoke(builder),
+                ForkJoinPool.commonPool());
+        Object expected = REFERENCE.invoke(spec);
+        Object actual = build.invoke();
+        if (!Arrays.equals((double[]) GET_VALUES.invoke(expected), (double[]) GET_VALUES.invoke(actual)) ||
+                (int) GET_TRUE_BEST_INDEX.invoke(expected) != (int) GET_TRUE_BEST_INDEX.invoke(actual)) {
+            throw new IllegalStateException(builder + " landscape of " + fitnessFunction + " differs from the " +
+                    "LandscapeBuilder one");
+        }
+    }
+
+    @Benchmark
+    public Object build() throws Throwable {
+        return build.invoke();
+    }
+
+}
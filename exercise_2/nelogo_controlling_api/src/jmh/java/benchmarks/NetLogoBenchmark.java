@@ -0,0 +1,150 @@
+package benchmarks;
+
+import org.nlogo.headless.HeadlessWorkspace;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.concurrent.TimeUnit;
+
+// NetLogo side costs of the sweep on a HeadlessWorkspace through NetLogoBackend (without snapshots): setup of a
+// Setup, restore of the world before every run (import-world), one iterate and a whole run of MAX_ITERATIONS_BY_RUN
+// iterations; for every fitness function, world size and setup path (landscape cache, lean or model setup, see
+// NetLogoBackend.setup)
+// the model is PSO_NL_Template.nlogo in the working directory or the file of -Dnetlogo.model
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class NetLogoBenchmark {
+
+    private static final int ITERATIONS_BY_RUN = 500;
+
+    private static final MethodHandle NETLOGO_BACKEND = Targets.constructor("NetLogoBackend",
+            Targets.type("org.nlogo.workspace.Controllable"), String.class, Targets.type("LandscapeCache"),
+            boolean.class, boolean.class);
+    private static final MethodHandle LANDSCAPE_CACHE = Targets.constructor("LandscapeCache", Path.class);
+    private static final MethodHandle RESIZE_WORLD = Targets.virtual("NetLogoBackend", "resizeWorld", void.class,
+            int.class, int.class, int.class, int.class);
+    private static final MethodHandle SET_PARAMETER = Targets.virtual("NetLogoBackend", "setParameter", void.class,
+            String.class, Object.class);
+    private static final MethodHandle SETUP = Targets.virtual("NetLogoBackend", "setup", void.class);
+    private static final MethodHandle REPEAT = Targets.virtual("NetLogoBackend", "repeat", void.class);
+    private static final MethodHandle RUN = Targets.virtual("NetLogoBackend", "run", void.class, int.class);
+    private static final MethodHandle GET_PARAMETERS = Targets.virtual("Experiment", "getParameters", Map.class);
+
+    @Param({"Shubert function", "Booth's function", "Schwefel function"})
+    public String fitnessFunction;
+
+    // world from -worldRadius to worldRadius, 100 for Shubert and Booth and 512 for Schwefel in the sweep
+    @Param({"100", "512"})
+    public int worldRadius;
+
+    @Param({"35"})
+    public int populationSize;
+
+    // LeanModel procedures, the difference of iterate by worldRadius is the cost of the visualisation
+    @Param({"false", "true"})
+    public boolean lean;
+
+    // setup from the patch values of a LandscapeCache, which takes precedence over the lean setup; the landscape is
+    // built in the trial setup, so setup measures loading it from memory into the patches
+    @Param({"false", "true"})
+    public boolean landscapeCache;
+
+    private HeadlessWorkspace workspace;
+    private File backupFile;
+    private Path cacheDirectory;
+    private Object backend;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        workspace = HeadlessWorkspace.newInstance();
+        workspace.open(Paths.get(System.getProperty("netlogo.model", "PSO_NL_Template.nlogo"))
+                .toAbsolutePath().toString(), true);
+        backupFile = Files.createTempFile("benchmark_backup", ".txt").toFile();
+        cacheDirectory = landscapeCache ? Files.createTempDirectory("benchmark_landscapes") : null;
+        backend = NETLOGO_BACKEND.invoke(workspace, backupFile.getAbsolutePath(),
+                landscapeCache ? LANDSCAPE_CACHE.invoke(cacheDirectory) : null, false, lean);
+        RESIZE_WORLD.invoke(backend, -worldRadius, worldRadius, -worldRadius, worldRadius);
+        // Setup parameters and the parameters of a run as ExperimentRunner sets them
+        SET_PARAMETER.invoke(backend, "fitness_function", fitnessFunction);
+        SET_PARAMETER.invoke(backend, "constraints", false);
+        SET_PARAMETER.invoke(backend, "population-size", populationSize);
+        Map<?, ?> parameters = (Map<?, ?>) GET_PARAMETERS.invoke(Targets.experiment(fitnessFunction,
+                populationSize));
+        for (Map.Entry<?, ?> parameter : parameters.entrySet()) {
+            SET_PARAMETER.invoke(backend, parameter.getKey(), parameter.getValue());
+        }
+        SETUP.invoke(backend);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        workspace.dispose();
+        Files.deleteIfExists(backupFile.toPath());
+        if (cacheDirectory != null) {
+            try (Stream<Path> files = Files.walk(cacheDirectory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    // world restored before every invocation, so every run starts from the state after setup
+    @State(Scope.Thread)
+    public static class Restored {
+
+        @Setup(Level.Invocation)
+        public void restore(NetLogoBenchmark benchmark) throws Throwable {
+            REPEAT.invoke(benchmark.backend);
+        }
+
+    }
+
+    // landscape (by the setup path), particles and export-world of the backup file
+    @Benchmark
+    public void setup() throws Throwable {
+        SETUP.invokeExact(backend);
+    }
+
+    // clear-all and import-world before every run
+    @Benchmark
+    public void repeat() throws Throwable {
+        REPEAT.invokeExact(backend);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void iterate(Restored restored) throws Throwable {
+        RUN.invokeExact(backend, 1);
+    }
+
+    // repeat 500 [ iterate ]
+    @Benchmark
+    public void run(Restored restored) throws Throwable {
+        RUN.invokeExact(backend, ITERATIONS_BY_RUN);
+    }
+
+}
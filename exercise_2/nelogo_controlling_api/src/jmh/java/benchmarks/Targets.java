@@ -0,0 +1,92 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+// JMH only accepts benchmarks in a named package, but the controller classes are in the default package which can
+// not be imported from there; they are looked up by name once and called through MethodHandles kept in static
+// final fields, which the JIT inlines like direct calls
+final class Targets {
+
+    private Targets() {
+    }
+
+    static Class<?> type(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("controller class " + className + " not on the classpath", e);
+        }
+    }
+
+    // instance method with the receiver as Object
+    static MethodHandle virtual(String className, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            Class<?> type = type(className);
+            MethodHandle handle = lookup(type).findVirtual(type, name, MethodType.methodType(returnType,
+                    parameterTypes));
+            return handle.asType(handle.type().changeParameterType(0, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("no method " + className + "." + name, e);
+        }
+    }
+
+    // static methods may be package private
+    static MethodHandle statik(String className, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            Class<?> type = type(className);
+            return lookup(type).findStatic(type, name, MethodType.methodType(returnType, parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("no method " + className + "." + name, e);
+        }
+    }
+
+    // constructor returning Object
+    static MethodHandle constructor(String className, Class<?>... parameterTypes) {
+        try {
+            Class<?> type = type(className);
+            MethodHandle handle = lookup(type).findConstructor(type, MethodType.methodType(void.class,
+                    parameterTypes));
+            return handle.asType(handle.type().changeReturnType(Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("no constructor of " + className, e);
+        }
+    }
+
+    // calls a setter of a Lombok data class, only meant for setting up benchmark state
+    static void set(Object target, String property, Class<?> type, Object value) {
+        String name = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        try {
+            virtual(target.getClass().getName(), name, void.class, type).invoke(target, value);
+        } catch (Throwable e) {
+            throw new IllegalStateException("could not set " + property, e);
+        }
+    }
+
+    // Experiment of a run like ExperimentRunner creates it, parameters not given keep the ParamConfig defaults
+    static Object experiment(String fitnessFunction, int populationSize) {
+        try {
+            Object experiment = constructor("Experiment").invoke();
+            set(experiment, "fitnessFunction", String.class, fitnessFunction);
+            set(experiment, "useConstraint", Boolean.class, false);
+            set(experiment, "constraintHandlingMethod", String.class, "");
+            set(experiment, "constraint", String.class, "");
+            set(experiment, "populationSize", Integer.class, populationSize);
+            set(experiment, "particleSpeedLimit", Integer.class, 10);
+            set(experiment, "particleInertia", Double.class, 0.5);
+            set(experiment, "personalConfidence", Double.class, 1.0);
+            set(experiment, "swarmConfidence", Double.class, 1.0);
+            set(experiment, "number", int.class, 10001);
+            return experiment;
+        } catch (Throwable e) {
+            throw new IllegalStateException("could not create an Experiment", e);
+        }
+    }
+
+    // the default package is in the unnamed module, which is open to every caller
+    private static MethodHandles.Lookup lookup(Class<?> type) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+    }
+
+}
@@ -0,0 +1,195 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+// sequential stopping of the replications (iterations) of every experiment configuration
+// a configuration (experiment number) is run at least minReplications and at most maxReplications times, in between
+// it is only run again while one of the 95% confidence intervals is wider (half width) than its target:
+// - Wilson score interval of the optimum_reached rate
+// - t interval of the mean fitness and of the mean iterations_to_opt
+// results are passed on to the wrapped ResultSink, the replications of every configuration are written by writeReport
+public class AdaptiveReplication implements ResultSink, RunFilter {
+
+    private static final double Z_95 = 1.959963984540054;
+    // two sided 95% quantiles of the t distribution for 1 to 30 degrees of freedom
+    private static final double[] T_95 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    public static final String STOP_RUNNING = "running";
+    public static final String STOP_CONVERGED = "converged";
+    public static final String STOP_MAX_REPLICATIONS = "max_replications";
+
+    // results of one configuration, means and sums of squared deviations by Welford
+    private static final class Replications {
+        private final String[] parameters;
+        private int count;
+        private int successes;
+        private double fitnessMean;
+        private double fitnessM2;
+        private double iterationsToOptMean;
+        private double iterationsToOptM2;
+
+        private Replications(String[] parameters) {
+            this.parameters = parameters;
+        }
+
+        private void add(double fitness, boolean optimumReached, int iterationsToOpt) {
+            count++;
+            successes += optimumReached ? 1 : 0;
+            double delta = fitness - fitnessMean;
+            fitnessMean += delta / count;
+            fitnessM2 += delta * (fitness - fitnessMean);
+            delta = iterationsToOpt - iterationsToOptMean;
+            iterationsToOptMean += delta / count;
+            iterationsToOptM2 += delta * (iterationsToOpt - iterationsToOptMean);
+        }
+    }
+
+    private final ResultSink resultSink;
+    private final int minReplications;
+    private final int maxReplications;
+    private final double successRateHalfWidth;
+    private final double fitnessHalfWidth;
+    private final double iterationsToOptHalfWidth;
+
+    // by experiment number, sorted for the report
+    private final Map<Integer, Replications> replications = new TreeMap<>();
+
+    public AdaptiveReplication(ResultSink resultSink, int minReplications, int maxReplications,
+                               double successRateHalfWidth, double fitnessHalfWidth,
+                               double iterationsToOptHalfWidth) {
+        if (minReplications < 2 || maxReplications < minReplications) {
+            throw new IllegalArgumentException("replications have to be 2 <= min <= max but were min " +
+                    minReplications + ", max " + maxReplications);
+        }
+        this.resultSink = resultSink;
+        this.minReplications = minReplications;
+        this.maxReplications = maxReplications;
+        this.successRateHalfWidth = successRateHalfWidth;
+        this.fitnessHalfWidth = fitnessHalfWidth;
+        this.iterationsToOptHalfWidth = iterationsToOptHalfWidth;
+    }
+
+    public int getMaxReplications() {
+        return maxReplications;
+    }
+
+    // adds the results of an existing results csv (e.g. of a resumed sweep) without writing them again
+    public synchronized void addResults(Path csv) throws IOException {
+        ResultCsv.forEachRow(csv, cells -> add(Integer.parseInt(cells[ColumnarResultWriter.NUMBER]),
+                ResultCsv.parameters(cells), Double.parseDouble(cells[ColumnarResultWriter.FITNESS]),
+                Boolean.parseBoolean(cells[ColumnarResultWriter.OPTIMUM_REACHED]),
+                Integer.parseInt(cells[ColumnarResultWriter.ITERATIONS_TO_OPT])));
+    }
+
+    @Override
+    public synchronized boolean shouldRun(int iteration, int experimentNumber) {
+        return STOP_RUNNING.equals(stopReason(replications.get(experimentNumber)));
+    }
+
+    @Override
+    public void writeExperimentWithResult(Experiment experiment, int iteration) throws IOException {
+        synchronized (this) {
+            add(experiment.getNumber(), ResultCsv.parameters(experiment), experiment.getFitness(),
+                    experiment.isOptimumReached(), experiment.getNumberOfIterationsUntilFitness());
+        }
+        resultSink.writeExperimentWithResult(experiment, iteration);
+    }
+
+    @Override
+    public void close() throws IOException {
+        resultSink.close();
+    }
+
+    // one row per configuration with the number of replications, the estimates and their confidence intervals
+    public synchronized void writeReport(Path file) throws IOException {
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder("number,");
+            for (int i = 0; i < ParameterSchema.size(); i++) {
+                line.append(ParameterSchema.outputName(i)).append(',');
+            }
+            line.append("replications,optimum_reached_rate,optimum_reached_ci,fitness_mean,fitness_ci,")
+                    .append("iterations_to_opt_mean,iterations_to_opt_ci,stop_reason\n");
+            writer.write(line.toString());
+            for (Map.Entry<Integer, Replications> entry : replications.entrySet()) {
+                Replications r = entry.getValue();
+                line.setLength(0);
+                line.append(entry.getKey()).append(',');
+                for (String parameter : r.parameters) {
+                    line.append(parameter).append(',');
+                }
+                line.append(r.count).append(',');
+                line.append((double) r.successes / r.count).append(',');
+                line.append(wilsonHalfWidth(r.successes, r.count)).append(',');
+                line.append(r.fitnessMean).append(',');
+                line.append(tHalfWidth(r.fitnessM2, r.count)).append(',');
+                line.append(r.iterationsToOptMean).append(',');
+                line.append(tHalfWidth(r.iterationsToOptM2, r.count)).append(',');
+                line.append(stopReason(r)).append('\n');
+                writer.write(line.toString());
+            }
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // number of configurations which are still running / stopped because of the intervals / stopped at the maximum
+    public synchronized int[] getStopCounts() {
+        int[] counts = new int[3];
+        for (Replications r : replications.values()) {
+            String reason = stopReason(r);
+            counts[STOP_RUNNING.equals(reason) ? 0 : STOP_CONVERGED.equals(reason) ? 1 : 2]++;
+        }
+        return counts;
+    }
+
+    private void add(int number, String[] parameters, double fitness, boolean optimumReached, int iterationsToOpt) {
+        replications.computeIfAbsent(number, n -> new Replications(parameters))
+                .add(fitness, optimumReached, iterationsToOpt);
+    }
+
+    private String stopReason(Replications r) {
+        if (r == null || r.count < minReplications) {
+            return STOP_RUNNING;
+        }
+        if (r.count >= maxReplications) {
+            return STOP_MAX_REPLICATIONS;
+        }
+        if (wilsonHalfWidth(r.successes, r.count) > successRateHalfWidth ||
+                tHalfWidth(r.fitnessM2, r.count) > fitnessHalfWidth ||
+                tHalfWidth(r.iterationsToOptM2, r.count) > iterationsToOptHalfWidth) {
+            return STOP_RUNNING;
+        }
+        return STOP_CONVERGED;
+    }
+
+    static double wilsonHalfWidth(int successes, int count) {
+        double p = (double) successes / count;
+        double z2 = Z_95 * Z_95;
+        return Z_95 / (1 + z2 / count) * Math.sqrt(p * (1 - p) / count + z2 / (4.0 * count * count));
+    }
+
+    static double tHalfWidth(double m2, int count) {
+        if (count < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return tQuantile(count - 1) * Math.sqrt(m2 / (count - 1) / count);
+    }
+
+    // beyond the table by the first Cornish-Fisher correction of the normal quantile
+    static double tQuantile(int degreesOfFreedom) {
+        if (degreesOfFreedom <= T_95.length) {
+            return T_95[degreesOfFreedom - 1];
+        }
+        return Z_95 * (1 + (Z_95 * Z_95 + 1) / (4.0 * degreesOfFreedom));
+    }
+
+}
@@ -0,0 +1,176 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// OutputWriter that writes result rows on a background thread
+// rows are handed over through a bounded queue, encoded into a reusable buffer and committed in batches:
+// a batch is written, flushed and synced to disk once it has batchRows rows or is batchMillis old
+// the file content is the same as written by OutputWriter
+public class AsyncOutputWriter extends OutputWriter {
+
+    private static final int QUEUE_CAPACITY = 4096;
+    // longest wait for a row, so close does not wait for a whole batch interval
+    private static final long MAX_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final class Row {
+        private final Experiment experiment;
+        private final int iteration;
+
+        private Row(Experiment experiment, int iteration) {
+            this.experiment = experiment;
+            this.iteration = iteration;
+        }
+    }
+
+    private final int batchRows;
+    private final long batchNanos;
+    private final BlockingQueue<Row> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final FileChannel syncChannel;
+    private final Thread writerThread;
+    private final Thread shutdownHook;
+
+    // reused for every batch
+    private final StringBuilder buffer = new StringBuilder();
+    private char[] chars = new char[0];
+
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    public AsyncOutputWriter(String filePath, int batchRows, long batchMillis) throws IOException {
+        this(filePath, batchRows, batchMillis, false);
+    }
+
+    public AsyncOutputWriter(String filePath, int batchRows, long batchMillis, boolean append) throws IOException {
+        this(filePath, batchRows, batchMillis, append, false);
+    }
+
+    public AsyncOutputWriter(String filePath, int batchRows, long batchMillis, boolean append,
+                             boolean withStopReason) throws IOException {
+        super(filePath, true, append, withStopReason);
+        if (batchRows < 1) {
+            throw new IllegalArgumentException("batchRows has to be at least 1 but was " + batchRows);
+        }
+        this.batchRows = batchRows;
+        this.batchNanos = TimeUnit.MILLISECONDS.toNanos(batchMillis);
+        this.syncChannel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+
+        writerThread = new Thread(this::writeLoop, "async-output-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        // commit what is queued if the JVM is terminated before close was called
+        shutdownHook = new Thread(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, "async-output-writer-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    // the experiment is copied, so it may be changed after this call
+    // the closed check and the enqueue hold the lock of close, so a row is either rejected or queued before the writer
+    // thread sees closed; a full queue is waited on in steps, so a failed writer thread cannot block the caller
+    @Override
+    public void writeExperimentWithResult(Experiment experiment, int iteration) throws IOException {
+        checkFailure();
+        final Row row = new Row(experiment.toBuilder().build(), iteration);
+        try {
+            synchronized (this) {
+                if (closed) {
+                    throw new IOException("output writer is closed");
+                }
+                while (!queue.offer(row, MAX_POLL_NANOS, TimeUnit.NANOSECONDS)) {
+                    checkFailure();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while queueing a result row", e);
+        }
+    }
+
+    // commits all queued rows and closes the file
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // already shutting down, close is called by the hook
+        }
+        syncChannel.close();
+        super.close();
+        checkFailure();
+    }
+
+    private void writeLoop() {
+        int pending = 0;
+        long batchStart = System.nanoTime();
+        try {
+            while (!closed || !queue.isEmpty()) {
+                long wait = pending == 0 ? batchNanos : batchStart + batchNanos - System.nanoTime();
+                Row row = queue.poll(Math.max(Math.min(wait, MAX_POLL_NANOS), 0), TimeUnit.NANOSECONDS);
+                if (row != null) {
+                    if (pending == 0) {
+                        batchStart = System.nanoTime();
+                    }
+                    appendExperimentWithResult(buffer, row.experiment, row.iteration);
+                    pending++;
+                }
+                if (pending >= batchRows || (pending > 0 && System.nanoTime() - batchStart >= batchNanos)) {
+                    commit();
+                    pending = 0;
+                }
+            }
+            commit();
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            failure = new IOException("output writer was interrupted", e);
+        } catch (RuntimeException e) {
+            // e.g. a row that can not be formatted, the writers and close fail with it instead of waiting for a queue
+            // nobody takes from
+            failure = new IOException("output writer failed", e);
+        } catch (Error e) {
+            failure = new IOException("output writer failed", e);
+            throw e;
+        }
+    }
+
+    private void commit() throws IOException {
+        if (buffer.length() == 0) {
+            return;
+        }
+        if (chars.length < buffer.length()) {
+            chars = new char[Math.max(buffer.length(), chars.length * 2)];
+        }
+        int length = buffer.length();
+        buffer.getChars(0, length, chars, 0);
+        buffer.setLength(0);
+        fileWriter.write(chars, 0, length);
+        fileWriter.flush();
+        syncChannel.force(false);
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+}
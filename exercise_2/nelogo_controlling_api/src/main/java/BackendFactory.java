@@ -0,0 +1,9 @@
+import java.io.IOException;
+
+// creates the SimulationBackend of a worker, workerNumber is unique within a ParallelRunner
+@FunctionalInterface
+public interface BackendFactory {
+
+    SimulationBackend create(int workerNumber) throws IOException;
+
+}
@@ -0,0 +1,222 @@
+// K independent swarms of PsoEngine on one shared read only landscape, advanced in lockstep (iteration i of every
+// swarm before iteration i + 1 of any); used for the runs of a Setup (parameter variants) or for replications
+// - particle state in one primitive array per turtle variable with the particles of a swarm next to each other,
+//   index = swarm * populationSize + particle; swarm globals and parameters in one array each, indexed by swarm
+// - every swarm has its own PsoRandom; the random numbers of an iteration are drawn in one PsoRandom.nextDoubles
+//   call before the particle loop like PsoEngine does, the particles are updated by SwarmUpdate like there
+// - every swarm has its own termination state, a stopped swarm is skipped by the following iterations
+// a swarm gives the same result as a PsoEngine with the same start state, random state and parameters
+public final class BatchPsoEngine {
+
+    private final Landscape landscape;
+    private final int populationSize;
+    private final int swarms;
+    private final int constraint;
+    private final boolean rejection;
+    private final ConstraintIndex constraintIndex;
+
+    // [swarm][particle]
+    private final double[] x;
+    private final double[] y;
+    private final double[] vx;
+    private final double[] vy;
+    private final double[] personalBestVal;
+    private final double[] personalBestX;
+    private final double[] personalBestY;
+
+    // [swarm]
+    private final PsoRandom[] randoms;
+    private final double[] particleSpeedLimit;
+    private final double[] particleInertia;
+    private final double[] personalConfidence;
+    private final double[] swarmConfidence;
+    private final double[] globalBestX;
+    private final double[] globalBestY;
+    private final double[] globalBestVal;
+    private final int[] iterations;
+    private final int[] iterationsToOpt;
+
+    // four random numbers per particle, in the order PsoEngine draws them
+    private final double[] uniforms;
+
+    // constraint and constraintIndex like PsoEngine
+    public BatchPsoEngine(Landscape landscape, int populationSize, int swarms, String constraint,
+                          String constraintHandlingMethod, ConstraintIndex constraintIndex) {
+        if (swarms < 1) {
+            throw new IllegalArgumentException("swarms has to be at least 1 but was " + swarms);
+        }
+        this.landscape = landscape;
+        this.populationSize = populationSize;
+        this.swarms = swarms;
+        this.constraint = Constraints.id(constraint);
+        this.rejection = ParamConfig.CONSTRAINT_HANDLING_REJECTION.equals(constraintHandlingMethod);
+        if (constraintIndex != null && !constraintIndex.matches(this.constraint, landscape)) {
+            throw new IllegalArgumentException("constraint index of constraint " + constraintIndex.getConstraint() +
+                    " does not match " + constraint + " on the world of the landscape");
+        }
+        this.constraintIndex = constraintIndex;
+        final int particles = swarms * populationSize;
+        x = new double[particles];
+        y = new double[particles];
+        vx = new double[particles];
+        vy = new double[particles];
+        personalBestVal = new double[particles];
+        personalBestX = new double[particles];
+        personalBestY = new double[particles];
+        randoms = new PsoRandom[swarms];
+        particleSpeedLimit = new double[swarms];
+        particleInertia = new double[swarms];
+        personalConfidence = new double[swarms];
+        swarmConfidence = new double[swarms];
+        globalBestX = new double[swarms];
+        globalBestY = new double[swarms];
+        globalBestVal = new double[swarms];
+        iterations = new int[swarms];
+        iterationsToOpt = new int[swarms];
+        uniforms = new double[4 * populationSize];
+    }
+
+    public int getSwarms() {
+        return swarms;
+    }
+
+    // start state of a swarm from a snapshot of a PsoEngine on the same landscape, random is used from then on
+    public void load(int swarm, WorldSnapshot snapshot, PsoRandom random) {
+        if (snapshot.getNumberOfTurtles() != populationSize) {
+            throw new IllegalArgumentException("snapshot has " + snapshot.getNumberOfTurtles() +
+                    " particles but the swarms have " + populationSize);
+        }
+        if (snapshot.getLandscape() != null && snapshot.getLandscape() != landscape) {
+            throw new IllegalArgumentException("snapshot was taken on a different landscape");
+        }
+        final int base = swarm * populationSize;
+        System.arraycopy(snapshot.getXcor(), 0, x, base, populationSize);
+        System.arraycopy(snapshot.getYcor(), 0, y, base, populationSize);
+        System.arraycopy(snapshot.getVx(), 0, vx, base, populationSize);
+        System.arraycopy(snapshot.getVy(), 0, vy, base, populationSize);
+        System.arraycopy(snapshot.getPersonalBestVal(), 0, personalBestVal, base, populationSize);
+        System.arraycopy(snapshot.getPersonalBestX(), 0, personalBestX, base, populationSize);
+        System.arraycopy(snapshot.getPersonalBestY(), 0, personalBestY, base, populationSize);
+        globalBestX[swarm] = snapshot.getGlobalBestX();
+        globalBestY[swarm] = snapshot.getGlobalBestY();
+        globalBestVal[swarm] = snapshot.getGlobalBestVal();
+        iterations[swarm] = (int) snapshot.getIterations();
+        iterationsToOpt[swarm] = (int) snapshot.getIterationsToOpt();
+        randoms[swarm] = random;
+    }
+
+    public void setParameters(int swarm, double particleSpeedLimit, double particleInertia,
+                              double personalConfidence, double swarmConfidence) {
+        this.particleSpeedLimit[swarm] = particleSpeedLimit;
+        this.particleInertia[swarm] = particleInertia;
+        this.personalConfidence[swarm] = personalConfidence;
+        this.swarmConfidence[swarm] = swarmConfidence;
+    }
+
+    // runs every swarm for at most maxIterations iterations and returns the StopCriterion reason of every swarm,
+    // the criteria are checked like JavaPsoBackend.run does
+    public String[] run(int maxIterations, StopCriterion stopCriterion) {
+        final String[] reasons = new String[swarms];
+        final int[] stagnant = new int[swarms];
+        int running = swarms;
+        for (int i = 1; i <= maxIterations && running > 0; i++) {
+            running -= step(i < maxIterations, stopCriterion, reasons, stagnant);
+        }
+        for (int swarm = 0; swarm < swarms; swarm++) {
+            if (reasons[swarm] == null) {
+                reasons[swarm] = StopCriterion.MAX_ITERATIONS;
+            }
+        }
+        return reasons;
+    }
+
+    // one iteration of every running swarm, returns the number of swarms that stopped; a method of its own, with
+    // the swarm loop compiled into run (on stack replacement) the iterations got several times slower on HotSpot 17
+    private int step(boolean checkStop, StopCriterion stopCriterion, String[] reasons, int[] stagnant) {
+        int stopped = 0;
+        for (int swarm = 0; swarm < swarms; swarm++) {
+            if (reasons[swarm] != null) {
+                continue;
+            }
+            double best = globalBestVal[swarm];
+            iterate(swarm);
+            stagnant[swarm] = globalBestVal[swarm] > best ? 0 : stagnant[swarm] + 1;
+            if (checkStop) {
+                reasons[swarm] = stopReason(swarm, stagnant[swarm], stopCriterion);
+                if (reasons[swarm] != null) {
+                    stopped++;
+                }
+            }
+        }
+        return stopped;
+    }
+
+    // result of the swarm like JavaPsoBackend.report
+    public void report(int swarm, Experiment experiment) {
+        experiment.setFitness(globalBestVal[swarm]);
+        experiment.setOptimum(landscape.getTrueBestValue());
+        experiment.setNumberOfIterations(iterations[swarm]);
+        experiment.setNumberOfIterationsUntilFitness(iterationsToOpt[swarm]);
+        if (experiment.getFitness() == experiment.getOptimum()) {
+            experiment.setOptimumReached(true);
+        }
+    }
+
+    public void iterate(int swarm) {
+        updateParticlePositions(swarm);
+        updatePersonalBest(swarm);
+        updateGlobalBest(swarm);
+        iterations[swarm]++;
+    }
+
+    private String stopReason(int swarm, int stagnant, StopCriterion stopCriterion) {
+        if (stopCriterion.isStopAtOptimum() && globalBestVal[swarm] == landscape.getTrueBestValue()) {
+            return StopCriterion.OPTIMUM;
+        }
+        if (stopCriterion.getSwarmRadius() > 0 && swarmRadius(swarm) <= stopCriterion.getSwarmRadius()) {
+            return StopCriterion.SWARM_RADIUS;
+        }
+        if (stopCriterion.getStagnationIterations() > 0 && stagnant >= stopCriterion.getStagnationIterations()) {
+            return StopCriterion.STAGNATION;
+        }
+        return null;
+    }
+
+    private double swarmRadius(int swarm) {
+        final int base = swarm * populationSize;
+        double max = 0;
+        for (int i = base; i < base + populationSize; i++) {
+            double dx = landscape.deltaX(x[i], globalBestX[swarm]);
+            double dy = landscape.deltaY(y[i], globalBestY[swarm]);
+            max = Math.max(max, dx * dx + dy * dy);
+        }
+        return Math.sqrt(max);
+    }
+
+    private void updateParticlePositions(int swarm) {
+        randoms[swarm].nextDoubles(uniforms, uniforms.length);
+        final int base = swarm * populationSize;
+        SwarmUpdate.updateParticlePositions(landscape, constraint, constraintIndex, rejection, x, y, vx, vy,
+                personalBestX, personalBestY, base, base + populationSize, uniforms, particleSpeedLimit[swarm],
+                particleInertia[swarm], personalConfidence[swarm], swarmConfidence[swarm], globalBestX[swarm],
+                globalBestY[swarm]);
+    }
+
+    private void updatePersonalBest(int swarm) {
+        final int base = swarm * populationSize;
+        SwarmUpdate.updatePersonalBest(landscape, x, y, personalBestVal, personalBestX, personalBestY, base,
+                base + populationSize);
+    }
+
+    private void updateGlobalBest(int swarm) {
+        final int base = swarm * populationSize;
+        final int best = SwarmUpdate.bestParticle(personalBestVal, base, base + populationSize);
+        if (globalBestVal[swarm] < personalBestVal[best]) {
+            globalBestVal[swarm] = personalBestVal[best];
+            globalBestX[swarm] = personalBestX[best];
+            globalBestY[swarm] = personalBestY[best];
+            iterationsToOpt[swarm] = iterations[swarm];
+        }
+    }
+
+}
@@ -0,0 +1,495 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// reads files of ColumnarResultWriter
+// only the footer is read on open, scans read (and decompress) the chunks of the selected columns only
+// a file without footer (the writer did not close it) is indexed from the headers of its complete blocks
+public class ColumnarResultReader implements AutoCloseable {
+
+    // called once per block of a scan
+    @FunctionalInterface
+    public interface BlockVisitor {
+        void visit(Block block) throws IOException;
+    }
+
+    // decoded values of the selected columns of one block, columns are addressed by their index in the scan
+    public static final class Block {
+        private final ColumnarResultWriter.ColumnType[] types;
+        private final int[][] ints;
+        private final double[][] doubles;
+        private final boolean[][] booleans;
+        private final String[][] dictionaries;
+        private int rowCount;
+
+        private Block(int[] columns, ColumnarResultWriter.ColumnType[] types, String[][] dictionaries) {
+            this.types = new ColumnarResultWriter.ColumnType[columns.length];
+            this.ints = new int[columns.length][];
+            this.doubles = new double[columns.length][];
+            this.booleans = new boolean[columns.length][];
+            this.dictionaries = new String[columns.length][];
+            for (int i = 0; i < columns.length; i++) {
+                this.types[i] = types[columns[i]];
+                this.dictionaries[i] = dictionaries[columns[i]];
+                switch (this.types[i]) {
+                    case DOUBLE:
+                        doubles[i] = new double[0];
+                        break;
+                    case BOOLEAN:
+                        booleans[i] = new boolean[0];
+                        break;
+                    default:
+                        ints[i] = new int[0];
+                        break;
+                }
+            }
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public int getInt(int column, int row) {
+            return ints[column][row];
+        }
+
+        public double getDouble(int column, int row) {
+            return doubles[column][row];
+        }
+
+        public boolean getBoolean(int column, int row) {
+            return booleans[column][row];
+        }
+
+        // value of a STRING column
+        public String getString(int column, int row) {
+            return dictionaries[column][ints[column][row]];
+        }
+
+        // dictionary code of a STRING column, the same value has the same code in the whole file
+        public int getCode(int column, int row) {
+            return ints[column][row];
+        }
+
+        // any column as text like in the csv
+        public String getText(int column, int row) {
+            switch (types[column]) {
+                case DOUBLE:
+                    return String.valueOf(doubles[column][row]);
+                case BOOLEAN:
+                    return String.valueOf(booleans[column][row]);
+                case STRING:
+                    return getString(column, row);
+                default:
+                    return String.valueOf(ints[column][row]);
+            }
+        }
+    }
+
+    private final FileChannel channel;
+    private final String[] columnNames;
+    private final ColumnarResultWriter.ColumnType[] columnTypes;
+    private final String[][] dictionaries;
+    private final boolean compressed;
+    private final int[] blockRowCounts;
+    private final long[][] offsets;
+    private final int[][] storedLengths;
+    private final int[][] rawLengths;
+    private final long rowCount;
+    // false if the file has no footer and only its complete blocks were read
+    private final boolean complete;
+
+    private final Inflater inflater = new Inflater();
+    private ByteBuffer stored = ByteBuffer.allocate(0);
+    private ByteBuffer raw = ByteBuffer.allocate(0);
+
+    // columns, dictionaries and block positions, from the footer or from the block headers
+    private static final class Index {
+        private String[] columnNames;
+        private ColumnarResultWriter.ColumnType[] columnTypes;
+        private String[][] dictionaries;
+        private boolean compressed;
+        private final List<Integer> blockRowCounts = new ArrayList<>();
+        private final List<long[]> offsets = new ArrayList<>();
+        private final List<int[]> storedLengths = new ArrayList<>();
+        private final List<int[]> rawLengths = new ArrayList<>();
+        private boolean complete = true;
+    }
+
+    public ColumnarResultReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            Index index = readIndex(file);
+            columnNames = index.columnNames;
+            columnTypes = index.columnTypes;
+            dictionaries = index.dictionaries;
+            compressed = index.compressed;
+            complete = index.complete;
+            int blocks = index.blockRowCounts.size();
+            blockRowCounts = new int[blocks];
+            offsets = index.offsets.toArray(new long[blocks][]);
+            storedLengths = index.storedLengths.toArray(new int[blocks][]);
+            rawLengths = index.rawLengths.toArray(new int[blocks][]);
+            long rows = 0;
+            for (int block = 0; block < blocks; block++) {
+                blockRowCounts[block] = index.blockRowCounts.get(block);
+                rows += blockRowCounts[block];
+            }
+            rowCount = rows;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // the footer of a closed file, otherwise the complete blocks
+    private Index readIndex(Path file) throws IOException {
+        long size = channel.size();
+        if (size < 8) {
+            throw new IOException("not a columnar result file: " + file);
+        }
+        ByteBuffer header = read(0, 8);
+        if (header.getInt() != ColumnarResultWriter.MAGIC) {
+            throw new IOException("not a columnar result file: " + file);
+        }
+        int version = header.getInt();
+        if (version != ColumnarResultWriter.VERSION) {
+            throw new IOException("columnar result file " + file + " has version " + version + ", expected " +
+                    ColumnarResultWriter.VERSION);
+        }
+
+        boolean hasFooter = false;
+        long footerOffset = 0;
+        int footerLength = 0;
+        if (size >= 8 + ColumnarResultWriter.TRAILER_SIZE) {
+            ByteBuffer trailer = read(size - ColumnarResultWriter.TRAILER_SIZE, ColumnarResultWriter.TRAILER_SIZE);
+            footerOffset = trailer.getLong();
+            footerLength = trailer.getInt();
+            hasFooter = trailer.getInt() == ColumnarResultWriter.MAGIC
+                    && footerOffset + footerLength + ColumnarResultWriter.TRAILER_SIZE == size;
+        }
+        if (hasFooter) {
+            return readFooter(read(footerOffset, footerLength));
+        }
+        return scanBlocks(size);
+    }
+
+    private static Index readFooter(ByteBuffer footer) {
+        Index index = readColumns(footer, true);
+        index.compressed = footer.getInt() != 0;
+        int blocks = footer.getInt();
+        int columns = index.columnNames.length;
+        for (int block = 0; block < blocks; block++) {
+            index.blockRowCounts.add(footer.getInt());
+            long[] blockOffsets = new long[columns];
+            int[] blockStoredLengths = new int[columns];
+            int[] blockRawLengths = new int[columns];
+            for (int column = 0; column < columns; column++) {
+                blockOffsets[column] = footer.getLong();
+                blockStoredLengths[column] = footer.getInt();
+                blockRawLengths[column] = footer.getInt();
+            }
+            index.offsets.add(blockOffsets);
+            index.storedLengths.add(blockStoredLengths);
+            index.rawLengths.add(blockRawLengths);
+        }
+        return index;
+    }
+
+    // reads the blocks after the header up to the first incomplete one
+    private Index scanBlocks(long size) throws IOException {
+        int headerLength = read(8, 4).getInt();
+        ByteBuffer header = read(12, headerLength - 12);
+        boolean compressedChunks = header.getInt() != 0;
+        Index index = readColumns(header, false);
+        index.compressed = compressedChunks;
+        index.complete = false;
+        int columns = index.columnNames.length;
+        List<List<String>> dictionaries = new ArrayList<>();
+        for (int column = 0; column < columns; column++) {
+            dictionaries.add(new ArrayList<>());
+        }
+
+        long position = headerLength;
+        while (position + 8 <= size) {
+            ByteBuffer start = read(position, 8);
+            if (start.getInt() != ColumnarResultWriter.BLOCK_MAGIC) {
+                break;
+            }
+            int blockHeaderLength = start.getInt();
+            if (position + blockHeaderLength > size) {
+                break;
+            }
+            ByteBuffer blockHeader = read(position + 8, blockHeaderLength - 8);
+            int rows = blockHeader.getInt();
+            long[] blockOffsets = new long[columns];
+            int[] blockStoredLengths = new int[columns];
+            int[] blockRawLengths = new int[columns];
+            long offset = position + blockHeaderLength;
+            for (int column = 0; column < columns; column++) {
+                blockOffsets[column] = offset;
+                blockStoredLengths[column] = blockHeader.getInt();
+                blockRawLengths[column] = blockHeader.getInt();
+                offset += blockStoredLengths[column];
+            }
+            if (offset > size) {
+                break;
+            }
+            for (int column = 0; column < columns; column++) {
+                if (index.columnTypes[column] == ColumnarResultWriter.ColumnType.STRING) {
+                    int added = blockHeader.getInt();
+                    for (int i = 0; i < added; i++) {
+                        dictionaries.get(column).add(getString(blockHeader));
+                    }
+                }
+            }
+            index.blockRowCounts.add(rows);
+            index.offsets.add(blockOffsets);
+            index.storedLengths.add(blockStoredLengths);
+            index.rawLengths.add(blockRawLengths);
+            position = offset;
+        }
+        for (int column = 0; column < columns; column++) {
+            if (index.columnTypes[column] == ColumnarResultWriter.ColumnType.STRING) {
+                index.dictionaries[column] = dictionaries.get(column).toArray(new String[0]);
+            }
+        }
+        return index;
+    }
+
+    // column count, per column: type, name and with dictionaries the dictionary of STRING columns
+    private static Index readColumns(ByteBuffer buffer, boolean withDictionaries) {
+        Index index = new Index();
+        int columns = buffer.getInt();
+        index.columnNames = new String[columns];
+        index.columnTypes = new ColumnarResultWriter.ColumnType[columns];
+        index.dictionaries = new String[columns][];
+        for (int column = 0; column < columns; column++) {
+            index.columnTypes[column] = ColumnarResultWriter.ColumnType.values()[buffer.getInt()];
+            index.columnNames[column] = getString(buffer);
+            if (withDictionaries && index.columnTypes[column] == ColumnarResultWriter.ColumnType.STRING) {
+                index.dictionaries[column] = new String[buffer.getInt()];
+                for (int i = 0; i < index.dictionaries[column].length; i++) {
+                    index.dictionaries[column][i] = getString(buffer);
+                }
+            }
+        }
+        return index;
+    }
+
+    public String[] getColumnNames() {
+        return columnNames.clone();
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    // false if the writer did not close the file, then only its complete blocks are read
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public int getBlockCount() {
+        return blockRowCounts.length;
+    }
+
+    public int columnIndex(String name) {
+        for (int column = 0; column < columnNames.length; column++) {
+            if (columnNames[column].equals(name)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("no column " + name + " in " + Arrays.toString(columnNames));
+    }
+
+    // distinct values of a STRING column, index is the dictionary code
+    public String[] getDictionary(String name) {
+        String[] dictionary = dictionaries[columnIndex(name)];
+        if (dictionary == null) {
+            throw new IllegalArgumentException("column " + name + " is not dictionary encoded");
+        }
+        return dictionary.clone();
+    }
+
+    // visits all blocks with the given columns decoded, the Block is reused for every block
+    public void scan(BlockVisitor visitor, String... columnNames) throws IOException {
+        int[] columns = new int[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            columns[i] = columnIndex(columnNames[i]);
+        }
+        Block block = new Block(columns, columnTypes, dictionaries);
+        for (int b = 0; b < blockRowCounts.length; b++) {
+            block.rowCount = blockRowCounts[b];
+            for (int i = 0; i < columns.length; i++) {
+                decode(block, i, loadChunk(b, columns[i]));
+            }
+            visitor.visit(block);
+        }
+    }
+
+    public int[] readInts(String name) throws IOException {
+        int[] values = new int[checkedRowCount()];
+        int[] row = {0};
+        scan(block -> {
+            for (int i = 0; i < block.getRowCount(); i++) {
+                values[row[0]++] = block.getInt(0, i);
+            }
+        }, name);
+        return values;
+    }
+
+    public double[] readDoubles(String name) throws IOException {
+        double[] values = new double[checkedRowCount()];
+        int[] row = {0};
+        scan(block -> {
+            for (int i = 0; i < block.getRowCount(); i++) {
+                values[row[0]++] = block.getDouble(0, i);
+            }
+        }, name);
+        return values;
+    }
+
+    public boolean[] readBooleans(String name) throws IOException {
+        boolean[] values = new boolean[checkedRowCount()];
+        int[] row = {0};
+        scan(block -> {
+            for (int i = 0; i < block.getRowCount(); i++) {
+                values[row[0]++] = block.getBoolean(0, i);
+            }
+        }, name);
+        return values;
+    }
+
+    public String[] readStrings(String name) throws IOException {
+        String[] values = new String[checkedRowCount()];
+        int[] row = {0};
+        scan(block -> {
+            for (int i = 0; i < block.getRowCount(); i++) {
+                values[row[0]++] = block.getString(0, i);
+            }
+        }, name);
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+
+    private int checkedRowCount() {
+        if (rowCount > Integer.MAX_VALUE) {
+            throw new IllegalStateException("too many rows to read into an array: " + rowCount);
+        }
+        return (int) rowCount;
+    }
+
+    private ByteBuffer loadChunk(int block, int column) throws IOException {
+        int storedLength = storedLengths[block][column];
+        int rawLength = rawLengths[block][column];
+        stored = fill(stored, offsets[block][column], storedLength);
+        if (!compressed) {
+            return stored;
+        }
+        if (raw.capacity() < rawLength) {
+            raw = ByteBuffer.allocate(Math.max(rawLength, raw.capacity() * 2));
+        }
+        inflater.reset();
+        inflater.setInput(stored.array(), 0, storedLength);
+        try {
+            int length = 0;
+            while (length < rawLength) {
+                int inflated = inflater.inflate(raw.array(), length, rawLength - length);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("truncated chunk of column " + columnNames[column] + " in block " + block);
+                }
+                length += inflated;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("corrupt chunk of column " + columnNames[column] + " in block " + block, e);
+        }
+        raw.clear();
+        raw.limit(rawLength);
+        raw.order(ByteOrder.LITTLE_ENDIAN);
+        return raw;
+    }
+
+    private static void decode(Block block, int i, ByteBuffer chunk) {
+        int rows = block.rowCount;
+        switch (block.types[i]) {
+            case DOUBLE:
+                if (block.doubles[i].length < rows) {
+                    block.doubles[i] = new double[rows];
+                }
+                chunk.asDoubleBuffer().get(block.doubles[i], 0, rows);
+                break;
+            case BOOLEAN:
+                if (block.booleans[i].length < rows) {
+                    block.booleans[i] = new boolean[rows];
+                }
+                for (int row = 0; row < rows; row++) {
+                    block.booleans[i][row] = (chunk.get(row >> 3) & (1 << (row & 7))) != 0;
+                }
+                break;
+            case STRING:
+                if (block.ints[i].length < rows) {
+                    block.ints[i] = new int[rows];
+                }
+                int width = chunk.get();
+                for (int row = 0; row < rows; row++) {
+                    if (width == 1) {
+                        block.ints[i][row] = chunk.get() & 0xff;
+                    } else if (width == 2) {
+                        block.ints[i][row] = chunk.getShort() & 0xffff;
+                    } else {
+                        block.ints[i][row] = chunk.getInt();
+                    }
+                }
+                break;
+            default:
+                if (block.ints[i].length < rows) {
+                    block.ints[i] = new int[rows];
+                }
+                chunk.asIntBuffer().get(block.ints[i], 0, rows);
+                break;
+        }
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        return fill(ByteBuffer.allocate(length), position, length);
+    }
+
+    // reads length bytes at position into buffer (or a larger replacement), ready to be read little endian
+    private ByteBuffer fill(ByteBuffer buffer, long position, int length) throws IOException {
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(Math.max(length, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        buffer.limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("unexpected end of columnar result file");
+            }
+        }
+        buffer.flip();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
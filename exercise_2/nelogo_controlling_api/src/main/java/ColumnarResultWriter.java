@@ -0,0 +1,422 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+// writes results in a compact, column oriented binary format with the same columns as the csv of OutputWriter
+// rows are collected in blocks of blockRows rows, every block stores one chunk per column:
+// - INT / DOUBLE columns as little endian primitives, BOOLEAN columns as bit set
+// - STRING columns (all parameters) as codes into a dictionary of the column, 1, 2 or 4 bytes per code
+// chunks are optionally deflate compressed, the dictionaries and the position of every chunk are in the footer
+// file layout: header, blocks, footer, footer offset (long), footer length (int), magic
+// - header: magic, version, header length, compressed flag, column count, per column: type, name
+// - block: block magic, block header length, rows, per column: stored length, raw length; per STRING column: the
+//   dictionary values added by the block; then the chunks of all columns
+// every block is flushed when it is complete, a file without footer (the writer was killed) is read by scanning its
+// complete blocks
+// read with ColumnarResultReader
+public class ColumnarResultWriter implements ResultSink {
+
+    static final int MAGIC = 0x50534f52; // "PSOR"
+    static final int BLOCK_MAGIC = 0x50534f42; // "PSOB"
+    static final int VERSION = 2;
+    static final int TRAILER_SIZE = 8 + 4 + 4;
+    public static final String FILE_EXTENSION = ".psor";
+    public static final int DEFAULT_BLOCK_ROWS = 4096;
+
+    enum ColumnType {
+        INT, DOUBLE, BOOLEAN, STRING
+    }
+
+    // columns of the result file, same names and order as the csv header of OutputWriter
+    static final String[] COLUMN_NAMES;
+    static final ColumnType[] COLUMN_TYPES;
+    static final int NUMBER = 0;
+    static final int ITERATION = 1;
+    static final int FIRST_PARAMETER = 2;
+    static final int FITNESS = FIRST_PARAMETER + ParameterSchema.size();
+    static final int OPTIMUM = FITNESS + 1;
+    static final int ITERATIONS = FITNESS + 2;
+    static final int OPTIMUM_REACHED = FITNESS + 3;
+    static final int ITERATIONS_TO_OPT = FITNESS + 4;
+
+    static {
+        int columns = ITERATIONS_TO_OPT + 1;
+        COLUMN_NAMES = new String[columns];
+        COLUMN_TYPES = new ColumnType[columns];
+        COLUMN_NAMES[NUMBER] = "number";
+        COLUMN_TYPES[NUMBER] = ColumnType.INT;
+        COLUMN_NAMES[ITERATION] = "iteration";
+        COLUMN_TYPES[ITERATION] = ColumnType.INT;
+        for (int i = 0; i < ParameterSchema.size(); i++) {
+            COLUMN_NAMES[FIRST_PARAMETER + i] = ParameterSchema.outputName(i);
+            COLUMN_TYPES[FIRST_PARAMETER + i] = ColumnType.STRING;
+        }
+        COLUMN_NAMES[FITNESS] = "fitness";
+        COLUMN_TYPES[FITNESS] = ColumnType.DOUBLE;
+        COLUMN_NAMES[OPTIMUM] = "optimum";
+        COLUMN_TYPES[OPTIMUM] = ColumnType.DOUBLE;
+        COLUMN_NAMES[ITERATIONS] = "iterations";
+        COLUMN_TYPES[ITERATIONS] = ColumnType.INT;
+        COLUMN_NAMES[OPTIMUM_REACHED] = "optimum_reached";
+        COLUMN_TYPES[OPTIMUM_REACHED] = ColumnType.BOOLEAN;
+        COLUMN_NAMES[ITERATIONS_TO_OPT] = "iterations_to_opt";
+        COLUMN_TYPES[ITERATIONS_TO_OPT] = ColumnType.INT;
+    }
+
+    private final OutputStream outputStream;
+    private final int blockRows;
+    private final boolean compress;
+    private final Deflater deflater;
+
+    // values of the current block, by column; STRING columns hold dictionary codes in ints
+    private final int[][] ints = new int[COLUMN_NAMES.length][];
+    private final double[][] doubles = new double[COLUMN_NAMES.length][];
+    private final boolean[][] booleans = new boolean[COLUMN_NAMES.length][];
+    private final List<Map<String, Integer>> codes = new ArrayList<>();
+    private final List<List<String>> dictionaries = new ArrayList<>();
+    private int rows;
+
+    // footer index: rows and per column offset, stored and raw length of every block
+    private final List<Integer> blockRowCounts = new ArrayList<>();
+    private final List<long[]> blockOffsets = new ArrayList<>();
+    private final List<int[]> blockStoredLengths = new ArrayList<>();
+    private final List<int[]> blockRawLengths = new ArrayList<>();
+    // dictionary values already written with a block, by column
+    private final int[] writtenDictionarySizes = new int[COLUMN_NAMES.length];
+    private long position;
+
+    private ByteBuffer chunk = ByteBuffer.allocate(0);
+    // stored chunks of the current block, written after the block header
+    private ByteBuffer blockData = ByteBuffer.allocate(0);
+    private byte[] compressed = new byte[0];
+    private boolean closed;
+
+    public ColumnarResultWriter(Path file, int blockRows, boolean compress) throws IOException {
+        if (blockRows < 1) {
+            throw new IllegalArgumentException("blockRows has to be at least 1 but was " + blockRows);
+        }
+        this.outputStream = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+        this.blockRows = blockRows;
+        this.compress = compress;
+        this.deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        for (int column = 0; column < COLUMN_NAMES.length; column++) {
+            switch (COLUMN_TYPES[column]) {
+                case DOUBLE:
+                    doubles[column] = new double[blockRows];
+                    break;
+                case BOOLEAN:
+                    booleans[column] = new boolean[blockRows];
+                    break;
+                default:
+                    ints[column] = new int[blockRows];
+                    break;
+            }
+            codes.add(COLUMN_TYPES[column] == ColumnType.STRING ? new HashMap<>() : null);
+            dictionaries.add(COLUMN_TYPES[column] == ColumnType.STRING ? new ArrayList<>() : null);
+        }
+        ByteBuffer header = ByteBuffer.allocate(1 << 10).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        // header length, set below
+        header.putInt(0);
+        header = putInt(header, compress ? 1 : 0);
+        header = putColumns(header, false);
+        header.putInt(8, header.position());
+        write(header.array(), header.position());
+    }
+
+    @Override
+    public synchronized void writeExperimentWithResult(Experiment experiment, int iteration) throws IOException {
+        ints[NUMBER][rows] = experiment.getNumber();
+        ints[ITERATION][rows] = iteration;
+        for (int i = 0; i < ParameterSchema.size(); i++) {
+            ints[FIRST_PARAMETER + i][rows] = code(FIRST_PARAMETER + i,
+                    String.valueOf(experiment.getParameterValue(i)));
+        }
+        doubles[FITNESS][rows] = experiment.getFitness();
+        doubles[OPTIMUM][rows] = experiment.getOptimum();
+        ints[ITERATIONS][rows] = experiment.getNumberOfIterations();
+        booleans[OPTIMUM_REACHED][rows] = experiment.isOptimumReached();
+        ints[ITERATIONS_TO_OPT][rows] = experiment.getNumberOfIterationsUntilFitness();
+        endRow();
+    }
+
+    // writes a row given as the cells of a results csv line (same columns as COLUMN_NAMES)
+    public synchronized void writeCsvRow(String[] cells) throws IOException {
+        if (cells.length != COLUMN_NAMES.length) {
+            throw new IllegalArgumentException("expected " + COLUMN_NAMES.length + " columns but got " + cells.length);
+        }
+        for (int column = 0; column < COLUMN_NAMES.length; column++) {
+            switch (COLUMN_TYPES[column]) {
+                case INT:
+                    ints[column][rows] = Integer.parseInt(cells[column]);
+                    break;
+                case DOUBLE:
+                    doubles[column][rows] = Double.parseDouble(cells[column]);
+                    break;
+                case BOOLEAN:
+                    booleans[column][rows] = Boolean.parseBoolean(cells[column]);
+                    break;
+                default:
+                    ints[column][rows] = code(column, cells[column]);
+                    break;
+            }
+        }
+        endRow();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (rows > 0) {
+                writeBlock();
+            }
+            writeFooter();
+            outputStream.flush();
+        } finally {
+            outputStream.close();
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    private int code(int column, String value) {
+        Integer code = codes.get(column).get(value);
+        if (code == null) {
+            code = dictionaries.get(column).size();
+            dictionaries.get(column).add(value);
+            codes.get(column).put(value, code);
+        }
+        return code;
+    }
+
+    private void endRow() throws IOException {
+        if (closed) {
+            throw new IOException("result writer is closed");
+        }
+        rows++;
+        if (rows == blockRows) {
+            writeBlock();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        long[] offsets = new long[COLUMN_NAMES.length];
+        int[] storedLengths = new int[COLUMN_NAMES.length];
+        int[] rawLengths = new int[COLUMN_NAMES.length];
+        blockData.clear();
+        for (int column = 0; column < COLUMN_NAMES.length; column++) {
+            encodeChunk(column);
+            offsets[column] = blockData.position();
+            rawLengths[column] = chunk.position();
+            if (compress) {
+                storedLengths[column] = deflate(chunk.array(), chunk.position());
+                blockData = ensure(blockData, storedLengths[column]);
+                blockData.put(compressed, 0, storedLengths[column]);
+            } else {
+                storedLengths[column] = rawLengths[column];
+                blockData = ensure(blockData, rawLengths[column]);
+                blockData.put(chunk.array(), 0, rawLengths[column]);
+            }
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(8 + 4 + COLUMN_NAMES.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(BLOCK_MAGIC);
+        // block header length, set below
+        header.putInt(0);
+        header.putInt(rows);
+        for (int column = 0; column < COLUMN_NAMES.length; column++) {
+            header.putInt(storedLengths[column]);
+            header.putInt(rawLengths[column]);
+        }
+        for (int column = 0; column < COLUMN_NAMES.length; column++) {
+            if (COLUMN_TYPES[column] == ColumnType.STRING) {
+                List<String> dictionary = dictionaries.get(column);
+                header = putInt(header, dictionary.size() - writtenDictionarySizes[column]);
+                for (String value : dictionary.subList(writtenDictionarySizes[column], dictionary.size())) {
+                    header = putString(header, value);
+                }
+                writtenDictionarySizes[column] = dictionary.size();
+            }
+        }
+        header.putInt(4, header.position());
+        write(header.array(), header.position());
+        for (int column = 0; column < COLUMN_NAMES.length; column++) {
+            offsets[column] += position;
+        }
+        write(blockData.array(), blockData.position());
+        outputStream.flush();
+
+        blockRowCounts.add(rows);
+        blockOffsets.add(offsets);
+        blockStoredLengths.add(storedLengths);
+        blockRawLengths.add(rawLengths);
+        rows = 0;
+    }
+
+    private void encodeChunk(int column) {
+        switch (COLUMN_TYPES[column]) {
+            case INT:
+                ensureChunk(rows * Integer.BYTES);
+                for (int row = 0; row < rows; row++) {
+                    chunk.putInt(ints[column][row]);
+                }
+                break;
+            case DOUBLE:
+                ensureChunk(rows * Double.BYTES);
+                for (int row = 0; row < rows; row++) {
+                    chunk.putDouble(doubles[column][row]);
+                }
+                break;
+            case BOOLEAN:
+                ensureChunk((rows + 7) / 8);
+                for (int row = 0; row < rows; row += 8) {
+                    int bits = 0;
+                    for (int bit = 0; bit < 8 && row + bit < rows; bit++) {
+                        bits |= booleans[column][row + bit] ? 1 << bit : 0;
+                    }
+                    chunk.put((byte) bits);
+                }
+                break;
+            default:
+                int width = codeWidth(dictionaries.get(column).size());
+                ensureChunk(1 + rows * width);
+                chunk.put((byte) width);
+                for (int row = 0; row < rows; row++) {
+                    int code = ints[column][row];
+                    if (width == 1) {
+                        chunk.put((byte) code);
+                    } else if (width == 2) {
+                        chunk.putShort((short) code);
+                    } else {
+                        chunk.putInt(code);
+                    }
+                }
+                break;
+        }
+    }
+
+    // bytes per dictionary code, codes are read unsigned
+    static int codeWidth(int dictionarySize) {
+        if (dictionarySize <= 1 << 8) {
+            return 1;
+        }
+        return dictionarySize <= 1 << 16 ? 2 : 4;
+    }
+
+    private void ensureChunk(int size) {
+        if (chunk.capacity() < size) {
+            chunk = ByteBuffer.allocate(Math.max(size, chunk.capacity() * 2));
+        }
+        chunk.clear();
+        chunk.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private int deflate(byte[] data, int length) {
+        if (compressed.length < length + 64) {
+            compressed = new byte[length + 64 + length / 8];
+        }
+        deflater.reset();
+        deflater.setInput(data, 0, length);
+        deflater.finish();
+        int size = 0;
+        while (!deflater.finished()) {
+            if (size == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            size += deflater.deflate(compressed, size, compressed.length - size);
+        }
+        return size;
+    }
+
+    // column count, per column: type, name, dictionary (STRING only); compressed flag;
+    // block count, per block: rows and per column offset, stored length, raw length
+    private void writeFooter() throws IOException {
+        ByteBuffer footer = ByteBuffer.allocate(1 << 12).order(ByteOrder.LITTLE_ENDIAN);
+        footer = putColumns(footer, true);
+        footer = putInt(footer, compress ? 1 : 0);
+        footer = putInt(footer, blockRowCounts.size());
+        for (int block = 0; block < blockRowCounts.size(); block++) {
+            footer = putInt(footer, blockRowCounts.get(block));
+            for (int column = 0; column < COLUMN_NAMES.length; column++) {
+                footer = ensure(footer, 16);
+                footer.putLong(blockOffsets.get(block)[column]);
+                footer.putInt(blockStoredLengths.get(block)[column]);
+                footer.putInt(blockRawLengths.get(block)[column]);
+            }
+        }
+        long footerOffset = position;
+        int footerLength = footer.position();
+        write(footer.array(), footerLength);
+
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        trailer.putLong(footerOffset);
+        trailer.putInt(footerLength);
+        trailer.putInt(MAGIC);
+        write(trailer.array(), TRAILER_SIZE);
+    }
+
+    // column count, per column: type, name and with dictionaries the dictionary of STRING columns
+    private ByteBuffer putColumns(ByteBuffer buffer, boolean withDictionaries) {
+        buffer = putInt(buffer, COLUMN_NAMES.length);
+        for (int column = 0; column < COLUMN_NAMES.length; column++) {
+            buffer = putInt(buffer, COLUMN_TYPES[column].ordinal());
+            buffer = putString(buffer, COLUMN_NAMES[column]);
+            if (withDictionaries && COLUMN_TYPES[column] == ColumnType.STRING) {
+                List<String> dictionary = dictionaries.get(column);
+                buffer = putInt(buffer, dictionary.size());
+                for (String value : dictionary) {
+                    buffer = putString(buffer, value);
+                }
+            }
+        }
+        return buffer;
+    }
+
+    private static ByteBuffer putInt(ByteBuffer buffer, int value) {
+        buffer = ensure(buffer, Integer.BYTES);
+        buffer.putInt(value);
+        return buffer;
+    }
+
+    private static ByteBuffer putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer = putInt(buffer, bytes.length);
+        buffer = ensure(buffer, bytes.length);
+        buffer.put(bytes);
+        return buffer;
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int size) {
+        if (buffer.remaining() >= size) {
+            return buffer;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + size))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    private void write(byte[] data, int length) throws IOException {
+        outputStream.write(data, 0, length);
+        position += length;
+    }
+
+}
@@ -0,0 +1,160 @@
+import org.nlogo.agent.World;
+import org.nlogo.api.AgentException;
+import org.nlogo.api.JobOwner;
+import org.nlogo.core.LogoList;
+import org.nlogo.headless.HeadlessWorkspace;
+import org.nlogo.nvm.Procedure;
+import org.nlogo.workspace.Controllable;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// compiles every NetLogo command and reporter source only once
+// - commands and reporters are cached by their source and rerun as compiled procedures
+// - "set <global> <value>" is run by writing the (bound) value into the observer variable directly
+// - several reporters can be run as one compiled list reporter
+// - "random-seed <seed>" is run by seeding the main random generator of the world directly
+// sources built from changing values would fill the cache, so only the MAX_PROCEDURES most recently used commands and
+// reporters are kept
+// without a HeadlessWorkspace every call is passed on to Controllable.command / report
+public class CompiledCommandCache {
+
+    static final int MAX_PROCEDURES = 256;
+
+    private final Controllable app;
+    private final HeadlessWorkspace workspace;
+    private final JobOwner owner;
+
+    private final Map<String, Procedure> commands = lruMap(MAX_PROCEDURES);
+    private final Map<String, Procedure> reporters = lruMap(MAX_PROCEDURES);
+    // observer variable index by global name, -1 if the name is not an observer variable
+    private final Map<String, Integer> globals = new HashMap<>();
+    // source of the list reporter by reporter array, so it is only built once per array
+    private final Map<String[], String> listSources = new IdentityHashMap<>();
+
+    // lookups of compiled commands and reporters
+    private long hits;
+    private long misses;
+
+    public CompiledCommandCache(Controllable app) {
+        this.app = app;
+        this.workspace = app instanceof HeadlessWorkspace ? (HeadlessWorkspace) app : null;
+        this.owner = workspace != null ? workspace.defaultOwner() : null;
+    }
+
+    public void command(String source) {
+        if (workspace == null) {
+            misses++;
+            app.command(source);
+            return;
+        }
+        Procedure procedure = commands.get(source);
+        if (procedure == null) {
+            misses++;
+            procedure = workspace.compileCommands(source);
+            commands.put(source, procedure);
+        } else {
+            hits++;
+        }
+        workspace.runCompiledCommands(owner, procedure);
+    }
+
+    public Object report(String source) {
+        if (workspace == null) {
+            misses++;
+            return app.report(source);
+        }
+        Procedure procedure = reporters.get(source);
+        if (procedure == null) {
+            misses++;
+            procedure = workspace.compileReporter(source);
+            reporters.put(source, procedure);
+        } else {
+            hits++;
+        }
+        return workspace.runCompiledReporter(owner, procedure);
+    }
+
+    // runs all reporters with one compiled (list ...) reporter, pass the same array to avoid building the source
+    public Object[] reportAll(String... sources) {
+        Object[] values = new Object[sources.length];
+        if (workspace == null) {
+            for (int i = 0; i < sources.length; i++) {
+                values[i] = report(sources[i]);
+            }
+            return values;
+        }
+        String source = listSources.computeIfAbsent(sources, s -> "(list " + String.join(" ", wrapAll(s)) + ")");
+        LogoList list = (LogoList) report(source);
+        for (int i = 0; i < sources.length; i++) {
+            values[i] = list.get(i);
+        }
+        return values;
+    }
+
+    // same as command("random-seed " + seed) without compiling anything
+    public void randomSeed(long seed) {
+        if (workspace == null) {
+            command("random-seed " + seed);
+            return;
+        }
+        // random-seed only accepts the int range
+        if (seed < Integer.MIN_VALUE || seed > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("random seed " + seed + " is not in the int range");
+        }
+        workspace.world().mainRNG().setSeed(seed);
+    }
+
+    // same as command(NetLogoBackend.setCommand(name, value)) without compiling anything
+    public void setGlobal(String name, Object value) {
+        if (workspace == null) {
+            command(NetLogoBackend.setCommand(name, value));
+            return;
+        }
+        final World world = workspace.world();
+        // not counted as hits or misses, nothing is compiled
+        final int index = globals.computeIfAbsent(name, n -> world.observerOwnsIndexOf(n.toUpperCase()));
+        if (index < 0) {
+            command(NetLogoBackend.setCommand(name, value));
+            return;
+        }
+        try {
+            // NetLogo numbers are always doubles
+            world.observer().setVariable(index, value instanceof Number ? ((Number) value).doubleValue() : value);
+        } catch (AgentException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRate() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    private static <K, V> Map<K, V> lruMap(int maxSize) {
+        return new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    private static String[] wrapAll(String[] sources) {
+        String[] wrapped = new String[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            wrapped[i] = "(" + sources[i] + ")";
+        }
+        return wrapped;
+    }
+
+}
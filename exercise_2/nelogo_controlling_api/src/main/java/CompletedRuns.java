@@ -0,0 +1,179 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// keys of the runs (iteration, experiment number) that are already in a results file, used to resume a sweep
+// the experiment number contains the Setup number and the ExperimentDefinition number (see ExperimentRunner)
+// keys are kept in an open addressing hash set of longs, so hundreds of thousands of runs are indexed quickly
+public final class CompletedRuns implements RunFilter {
+
+    public static final CompletedRuns NONE = new CompletedRuns(0);
+
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+
+    private long[] keys;
+    private boolean containsZero;
+    private int size;
+
+    private CompletedRuns(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+    }
+
+    // indexes the result rows of a csv written by OutputWriter; a partial last line (e.g. of a killed run) is cut
+    // off, so the file can be appended to afterwards; a missing or empty file has no completed runs
+    // only the first two columns of every row are parsed
+    public static CompletedRuns fromCsv(Path file) throws IOException {
+        return fromCsv(file, false);
+    }
+
+    // withStopReason: the file has to have the stop_reason and iterations_executed columns of early exit runs
+    public static CompletedRuns fromCsv(Path file, boolean withStopReason) throws IOException {
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            return new CompletedRuns(0);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // rough guess of the number of rows to size the table once
+            CompletedRuns completedRuns = new CompletedRuns((int) Math.min(channel.size() / 100, 1 << 26));
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            long position = 0;
+            long lineStart = 0;
+            boolean header = true;
+            StringBuilder headerLine = new StringBuilder();
+            // parser state of the current line: column 0 = number, 1 = iteration, 2 = rest of the line
+            int column = 0;
+            int number = 0;
+            int iteration = 0;
+            while (channel.read(buffer, position) > 0) {
+                buffer.flip();
+                int limit = buffer.limit();
+                byte[] bytes = buffer.array();
+                for (int i = 0; i < limit; i++) {
+                    byte b = bytes[i];
+                    if (b == '\n') {
+                        if (header) {
+                            checkHeader(file, headerLine.toString(), withStopReason);
+                            header = false;
+                        } else if (column == 2) {
+                            completedRuns.add(key(iteration, number));
+                        } else if (position + i > lineStart) {
+                            throw new IOException("invalid result row at byte " + lineStart + " of " + file);
+                        }
+                        lineStart = position + i + 1;
+                        column = 0;
+                        number = 0;
+                        iteration = 0;
+                    } else if (header) {
+                        headerLine.append((char) b);
+                    } else if (column < 2) {
+                        if (b == ',') {
+                            column++;
+                        } else if (b >= '0' && b <= '9') {
+                            if (column == 0) {
+                                number = number * 10 + (b - '0');
+                            } else {
+                                iteration = iteration * 10 + (b - '0');
+                            }
+                        } else if (b != '\r') {
+                            throw new IOException("invalid result row at byte " + lineStart + " of " + file);
+                        }
+                    }
+                }
+                position += limit;
+                buffer.clear();
+            }
+            if (header) {
+                // killed while writing the heading, start the file again
+                channel.truncate(0);
+                return completedRuns;
+            }
+            if (lineStart < channel.size()) {
+                System.out.printf("Removing partial last line of %s (%d bytes)%n", file, channel.size() - lineStart);
+                channel.truncate(lineStart);
+            }
+            return completedRuns;
+        }
+    }
+
+    public static long key(int iteration, int experimentNumber) {
+        return ((long) iteration << 32) | (experimentNumber & 0xffffffffL);
+    }
+
+    public boolean contains(int iteration, int experimentNumber) {
+        return contains(key(iteration, experimentNumber));
+    }
+
+    // runs that are not completed yet
+    @Override
+    public boolean shouldRun(int iteration, int experimentNumber) {
+        return size == 0 || !contains(iteration, experimentNumber);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private boolean contains(long key) {
+        if (key == 0) {
+            return containsZero;
+        }
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void add(long key) {
+        if (key == 0) {
+            size += containsZero ? 0 : 1;
+            containsZero = true;
+            return;
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        size++;
+        if (size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    private void grow() {
+        long[] old = keys;
+        keys = new long[old.length * 2];
+        int mask = keys.length - 1;
+        for (long key : old) {
+            if (key != 0) {
+                int slot = hash(key) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        return (int) PsoRandom.mix64(key);
+    }
+
+    private static void checkHeader(Path file, String header, boolean withStopReason) throws IOException {
+        String expected = OutputWriter.headingWithResult(withStopReason);
+        if (!header.equals(expected.substring(0, expected.length() - 1))) {
+            throw new IOException("results file " + file + " has a different header: " + header);
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// statistics of all replications of one configuration (experiment number), see StreamingAggregator
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConfigurationSummary {
+
+    private int number;
+    private String[] parameters;
+    private int replications;
+    private int successes;
+
+    private double fitnessMean;
+    private double fitnessStandardDeviation;
+    private double fitnessMin;
+    private double fitnessMax;
+    // estimates of the quantiles StreamingAggregator.QUANTILES
+    private double[] fitnessQuantiles;
+
+    private double iterationsToOptMean;
+    private double iterationsToOptStandardDeviation;
+    private double iterationsToOptMin;
+    private double iterationsToOptMax;
+    private double[] iterationsToOptQuantiles;
+
+    public double getSuccessRate() {
+        return replications == 0 ? Double.NaN : (double) successes / replications;
+    }
+
+}
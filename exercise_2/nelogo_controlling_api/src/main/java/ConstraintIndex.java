@@ -0,0 +1,219 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// Constraints.violates of one constraint (ParamConfig.CONSTRAINTS) rasterised for one world size
+// - one cell per patch, a cell is the square [pxcor - 0.5, pxcor + 0.5) x [pycor - 0.5, pycor + 0.5); the world is
+//   extended by PARTICLE_SPEED_LIMIT_MAX cells on every side for the unwrapped positions of the rejection check
+// - a cell is inside (every point violates), outside (none does) or on an edge of the region; the cell of a point is
+//   looked up in two packed bitmaps, only for edge cells and points outside the raster the exact test is used
+// - cells are classified on a square extended by MARGIN so rounding of the coordinates can not change the result
+public final class ConstraintIndex {
+
+    private static final int MAGIC = 0x50534f43; // "PSOC"
+    private static final int VERSION = 1;
+
+    private static final int PADDING = ParamConfig.PARTICLE_SPEED_LIMIT_MAX;
+    private static final double MARGIN = 1e-6;
+    // margin of the tan argument of Constraint 10 (radians)
+    private static final double ANGLE_MARGIN = 1e-9;
+
+    private final int constraint;
+    private final int minPxcor;
+    private final int maxPxcor;
+    private final int minPycor;
+    private final int maxPycor;
+    // lower left corner of the raster
+    private final double originX;
+    private final double originY;
+    private final int columns;
+    private final int rows;
+    private final long[] violating;
+    private final long[] edge;
+
+    private ConstraintIndex(int constraint, int minPxcor, int maxPxcor, int minPycor, int maxPycor, long[] violating,
+                            long[] edge) {
+        this.constraint = constraint;
+        this.minPxcor = minPxcor;
+        this.maxPxcor = maxPxcor;
+        this.minPycor = minPycor;
+        this.maxPycor = maxPycor;
+        this.originX = minPxcor - 0.5 - PADDING;
+        this.originY = minPycor - 0.5 - PADDING;
+        this.columns = maxPxcor - minPxcor + 1 + 2 * PADDING;
+        this.rows = maxPycor - minPycor + 1 + 2 * PADDING;
+        int words = (columns * rows + 63) >>> 6;
+        this.violating = violating != null ? violating : new long[words];
+        this.edge = edge != null ? edge : new long[words];
+        if (this.violating.length != words || this.edge.length != words) {
+            throw new IllegalArgumentException("expected " + words + " words per bitmap");
+        }
+    }
+
+    // Constraint 10 divides by max-x and max-y
+    public static boolean supports(int constraint, int maxPxcor, int maxPycor) {
+        switch (constraint) {
+            case Constraints.CONSTRAINT_3:
+            case Constraints.CONSTRAINT_5:
+                return true;
+            case Constraints.CONSTRAINT_10:
+                return maxPxcor > 0 && maxPycor > 0;
+            default:
+                return false;
+        }
+    }
+
+    public static ConstraintIndex build(int constraint, Landscape landscape) {
+        return build(constraint, landscape.getMinPxcor(), landscape.getMaxPxcor(), landscape.getMinPycor(),
+                landscape.getMaxPycor());
+    }
+
+    public static ConstraintIndex build(int constraint, int minPxcor, int maxPxcor, int minPycor, int maxPycor) {
+        if (!supports(constraint, maxPxcor, maxPycor)) {
+            throw new IllegalArgumentException("no index for constraint " + constraint);
+        }
+        ConstraintIndex index = new ConstraintIndex(constraint, minPxcor, maxPxcor, minPycor, maxPycor, null, null);
+        for (int row = 0; row < index.rows; row++) {
+            double yLow = index.originY + row - MARGIN;
+            double yHigh = index.originY + row + 1 + MARGIN;
+            for (int column = 0; column < index.columns; column++) {
+                double xLow = index.originX + column - MARGIN;
+                double xHigh = index.originX + column + 1 + MARGIN;
+                int bit = row * index.columns + column;
+                if (index.crossesEdge(xLow, xHigh, yLow, yHigh)) {
+                    index.edge[bit >>> 6] |= 1L << bit;
+                } else if (Constraints.violates(constraint, (xLow + xHigh) / 2, (yLow + yHigh) / 2, maxPxcor,
+                        maxPycor)) {
+                    index.violating[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+        return index;
+    }
+
+    public boolean violates(double x, double y) {
+        double column = x - originX;
+        double row = y - originY;
+        // false for NaN too
+        if (column >= 0 && row >= 0 && column < columns && row < rows) {
+            int bit = (int) row * columns + (int) column;
+            if ((edge[bit >>> 6] & (1L << bit)) == 0) {
+                return (violating[bit >>> 6] & (1L << bit)) != 0;
+            }
+        }
+        return Constraints.violates(constraint, x, y, maxPxcor, maxPycor);
+    }
+
+    // whether the border of the region of the constraint may pass through the rectangle
+    private boolean crossesEdge(double xLow, double xHigh, double yLow, double yHigh) {
+        switch (constraint) {
+            case Constraints.CONSTRAINT_3: {
+                // (x > y + 20) or (x < y - 20)
+                double low = xLow - yHigh;
+                double high = xHigh - yLow;
+                return (low <= 20 && high >= 20) || (low <= -20 && high >= -20);
+            }
+            case Constraints.CONSTRAINT_5: {
+                // x > y
+                return xLow - yHigh <= 0 && xHigh - yLow >= 0;
+            }
+            case Constraints.CONSTRAINT_10: {
+                // tan of 2 * (x / max-x) * (y / max-y) radians < 1, the product is extreme at the corners
+                double[] corners = new double[]{xLow * yLow, xLow * yHigh, xHigh * yLow, xHigh * yHigh};
+                double low = Double.POSITIVE_INFINITY;
+                double high = Double.NEGATIVE_INFINITY;
+                for (double corner : corners) {
+                    double angle = 2 * corner / ((double) maxPxcor * maxPycor);
+                    low = Math.min(low, angle);
+                    high = Math.max(high, angle);
+                }
+                // the result changes at pi / 4 (tan = 1) and pi / 2 (tan jumps to minus infinity) modulo pi
+                return containsModPi(low, high, Math.PI / 4) || containsModPi(low, high, Math.PI / 2);
+            }
+            default:
+                return true;
+        }
+    }
+
+    private static boolean containsModPi(double low, double high, double angle) {
+        double first = angle + Math.ceil((low - ANGLE_MARGIN - angle) / Math.PI) * Math.PI;
+        return first <= high + ANGLE_MARGIN;
+    }
+
+    public int getConstraint() {
+        return constraint;
+    }
+
+    public boolean matches(int constraint, Landscape landscape) {
+        return this.constraint == constraint && minPxcor == landscape.getMinPxcor() &&
+                maxPxcor == landscape.getMaxPxcor() && minPycor == landscape.getMinPycor() &&
+                maxPycor == landscape.getMaxPycor();
+    }
+
+    public int getEdgeCells() {
+        return count(edge);
+    }
+
+    public int getViolatingCells() {
+        return count(violating);
+    }
+
+    private static int count(long[] bitmap) {
+        int count = 0;
+        for (long word : bitmap) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // written to a temporary file first, so concurrent readers never see a partial file
+    public void write(Path file) throws IOException {
+        Path temporaryFile = Files.createTempFile(file.toAbsolutePath().getParent(), "constraint", ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temporaryFile)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(constraint);
+            output.writeInt(minPxcor);
+            output.writeInt(maxPxcor);
+            output.writeInt(minPycor);
+            output.writeInt(maxPycor);
+            output.writeInt(PADDING);
+            output.writeInt(violating.length);
+            for (int i = 0; i < violating.length; i++) {
+                output.writeLong(violating[i]);
+                output.writeLong(edge[i]);
+            }
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static ConstraintIndex read(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("not a constraint index file: " + file);
+            }
+            int constraint = input.readInt();
+            int minPxcor = input.readInt();
+            int maxPxcor = input.readInt();
+            int minPycor = input.readInt();
+            int maxPycor = input.readInt();
+            if (input.readInt() != PADDING) {
+                throw new IOException("constraint index file " + file + " has a different padding");
+            }
+            long[] violating = new long[input.readInt()];
+            long[] edge = new long[violating.length];
+            for (int i = 0; i < violating.length; i++) {
+                violating[i] = input.readLong();
+                edge[i] = input.readLong();
+            }
+            return new ConstraintIndex(constraint, minPxcor, maxPxcor, minPycor, maxPycor, violating, edge);
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+// Java versions of the constraints (violates x y) of PSO_NL_Template.nlogo
+// the constraint name is resolved to an id once so violates does not compare strings
+public final class Constraints {
+
+    public static final int NONE = 0;
+    public static final int CONSTRAINT_3 = 3;
+    public static final int CONSTRAINT_5 = 5;
+    public static final int CONSTRAINT_8 = 8;
+    public static final int CONSTRAINT_9 = 9;
+    public static final int CONSTRAINT_10 = 10;
+    public static final int EXAMPLE = 11;
+
+    private Constraints() {
+    }
+
+    // constraints of the model that are not listed here never report a violation
+    public static int id(String constraint) {
+        if (constraint == null) {
+            return NONE;
+        }
+        switch (constraint) {
+            case ParamConfig.CONSTRAINT_3:
+                return CONSTRAINT_3;
+            case ParamConfig.CONSTRAINT_5:
+                return CONSTRAINT_5;
+            case "Constraint 8":
+                return CONSTRAINT_8;
+            case "Constraint 9":
+                return CONSTRAINT_9;
+            case ParamConfig.CONSTRAINT_10:
+                return CONSTRAINT_10;
+            case "Example":
+                return EXAMPLE;
+            default:
+                return NONE;
+        }
+    }
+
+    // maxX and maxY are the max-x and max-y globals of the model (max pxcor / pycor)
+    public static boolean violates(int constraint, double x, double y, double maxX, double maxY) {
+        switch (constraint) {
+            case CONSTRAINT_3:
+                return (x > y + 20) || (x < y - 20);
+            case CONSTRAINT_5:
+                return x > y;
+            case CONSTRAINT_8:
+                return FitnessFunctions.sin(8 * x) < FitnessFunctions.sin(8 * y);
+            case CONSTRAINT_9:
+                return FitnessFunctions.sin(x) * FitnessFunctions.sin(y) < 0.2;
+            case CONSTRAINT_10:
+                return FitnessFunctions.tan((x / maxX) * (y / maxY) * 2 * 180 / Math.PI) < 1;
+            case EXAMPLE:
+                return x * x > y * y;
+            default:
+                return false;
+        }
+    }
+
+}
@@ -0,0 +1,287 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// hands out WorkUnits to Worker processes over TCP and writes all their results with one ResultSink
+// - a unit is leased to one connection; the lease is renewed by every result of the unit and expires after
+//   leaseMillis without progress, then the unit is handed out again
+// - units of a closed connection (dead worker) are handed out again immediately
+// - results are buffered per unit and only written when the unit is done, the first completion of a unit wins
+// - a unit is sent with the experiment numbers the runFilter accepts, so workers skip e.g. the completed runs of a
+//   resumed sweep
+public class Coordinator {
+
+    private static final byte PENDING = 0;
+    private static final byte LEASED = 1;
+    private static final byte COMPLETED = 2;
+
+    private final int port;
+    private final List<WorkUnit> workUnits;
+    private final List<ExperimentDefinition> experiments;
+    // replications of the sweep, sent to every worker for its log
+    private final int numberOfIterations;
+    private final ResultSink resultSink;
+    private final RunFilter runFilter;
+    private final long leaseNanos;
+    private final StopCriterion stopCriterion;
+
+    private final Object lock = new Object();
+    private final Deque<Integer> pending = new ArrayDeque<>();
+    private final byte[] states;
+    private final int[] leaseOwners;
+    private final long[] leaseDeadlines;
+    private int completed;
+    private int reassigned;
+    private int connections;
+
+    private volatile IOException failure;
+
+    // runs the runFilter rejects (e.g. completed runs of a resumed sweep) are not run and not written again
+    public Coordinator(int port, List<WorkUnit> workUnits, List<ExperimentDefinition> experiments,
+                       int numberOfIterations, ResultSink resultSink, RunFilter runFilter, long leaseMillis) {
+        this(port, workUnits, experiments, numberOfIterations, resultSink, runFilter, leaseMillis,
+                StopCriterion.NONE);
+    }
+
+    // stopCriterion is sent to every worker
+    public Coordinator(int port, List<WorkUnit> workUnits, List<ExperimentDefinition> experiments,
+                       int numberOfIterations, ResultSink resultSink, RunFilter runFilter, long leaseMillis,
+                       StopCriterion stopCriterion) {
+        this.stopCriterion = stopCriterion;
+        this.port = port;
+        this.workUnits = workUnits;
+        this.experiments = experiments;
+        this.numberOfIterations = numberOfIterations;
+        this.resultSink = resultSink;
+        this.runFilter = runFilter;
+        this.leaseNanos = TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+        this.states = new byte[workUnits.size()];
+        this.leaseOwners = new int[workUnits.size()];
+        this.leaseDeadlines = new long[workUnits.size()];
+        Arrays.fill(leaseOwners, -1);
+        for (int unit = 0; unit < workUnits.size(); unit++) {
+            pending.add(unit);
+        }
+    }
+
+    // serves workers until all units are done
+    public void run() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket()) {
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(new InetSocketAddress(port));
+            System.out.printf("Coordinator listening on port %d for %d work units%n", serverSocket.getLocalPort(),
+                    workUnits.size());
+            Thread acceptor = new Thread(() -> accept(serverSocket), "coordinator-accept");
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            synchronized (lock) {
+                while (completed < workUnits.size() && failure == null) {
+                    try {
+                        lock.wait(TimeUnit.NANOSECONDS.toMillis(leaseNanos) / 4 + 1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("interrupted while waiting for workers", e);
+                    }
+                    requeueExpiredLeases();
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        System.out.printf("Coordinator: %d work units done by %d worker connections, %d handed out again%n",
+                completed, connections, reassigned);
+    }
+
+    private void accept(ServerSocket serverSocket) {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                final int connection;
+                synchronized (lock) {
+                    connection = connections++;
+                }
+                Thread handler = new Thread(() -> serve(socket, connection), "coordinator-worker-" + connection);
+                handler.setDaemon(true);
+                handler.start();
+            } catch (SocketException e) {
+                // server socket closed after the last unit
+                return;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void serve(Socket socket, int connection) {
+        final String worker = socket.getRemoteSocketAddress().toString();
+        // results of the current unit
+        final List<Experiment> experiments = new ArrayList<>();
+        final List<Integer> iterations = new ArrayList<>();
+        try (Socket s = socket;
+             DataInputStream input = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+            WorkProtocol.readHello(input);
+            WorkProtocol.writeHello(output);
+            WorkProtocol.writeStopCriterion(output, stopCriterion);
+            output.writeInt(numberOfIterations);
+            output.flush();
+            System.out.printf("Worker %d connected from %s%n", connection, worker);
+            while (true) {
+                byte type = input.readByte();
+                switch (type) {
+                    case WorkProtocol.REQUEST:
+                        experiments.clear();
+                        iterations.clear();
+                        respond(output, connection);
+                        break;
+                    case WorkProtocol.RESULT:
+                        iterations.add(input.readInt());
+                        experiments.add(WorkProtocol.readExperiment(input));
+                        renewLeases(connection);
+                        break;
+                    case WorkProtocol.DONE:
+                        complete(input.readInt(), connection, experiments, iterations);
+                        experiments.clear();
+                        iterations.clear();
+                        break;
+                    default:
+                        throw new IOException("unexpected message type " + type + " from worker " + worker);
+                }
+            }
+        } catch (EOFException | SocketException e) {
+            System.out.printf("Worker %d (%s) disconnected%n", connection, worker);
+        } catch (IOException e) {
+            System.out.printf("Worker %d (%s) failed: %s%n", connection, worker, e);
+        } finally {
+            releaseLeases(connection);
+        }
+    }
+
+    private void respond(DataOutputStream output, int connection) throws IOException {
+        int unit = -1;
+        boolean done;
+        synchronized (lock) {
+            requeueExpiredLeases();
+            while (!pending.isEmpty() && unit < 0) {
+                int candidate = pending.poll();
+                if (states[candidate] == PENDING) {
+                    unit = candidate;
+                }
+            }
+            if (unit >= 0) {
+                states[unit] = LEASED;
+                leaseOwners[unit] = connection;
+                leaseDeadlines[unit] = System.nanoTime() + leaseNanos;
+            }
+            done = completed == workUnits.size();
+        }
+        if (unit >= 0) {
+            WorkUnit workUnit = workUnits.get(unit);
+            int[] toRun = new int[experiments.size()];
+            int count = 0;
+            for (ExperimentDefinition experiment : experiments) {
+                int number = ExperimentRunner.experimentNumber(workUnit.getSetup(), experiment);
+                if (runFilter.shouldRun(workUnit.getIteration(), number)) {
+                    toRun[count++] = number;
+                }
+            }
+            output.writeByte(WorkProtocol.UNIT);
+            output.writeInt(unit);
+            output.writeInt(workUnit.getIteration());
+            output.writeInt(workUnit.getSetup().getNumber());
+            output.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                output.writeInt(toRun[i]);
+            }
+        } else {
+            output.writeByte(done ? WorkProtocol.NONE : WorkProtocol.WAIT);
+        }
+        output.flush();
+    }
+
+    private void complete(int unit, int connection, List<Experiment> experiments, List<Integer> iterations)
+            throws IOException {
+        synchronized (lock) {
+            if (unit < 0 || unit >= states.length) {
+                throw new IOException("worker " + connection + " completed unknown unit " + unit);
+            }
+            if (states[unit] == COMPLETED) {
+                // handed out again and completed by another worker before
+                return;
+            }
+            states[unit] = COMPLETED;
+            leaseOwners[unit] = -1;
+        }
+        try {
+            for (int i = 0; i < experiments.size(); i++) {
+                if (runFilter.shouldRun(iterations.get(i), experiments.get(i).getNumber())) {
+                    resultSink.writeExperimentWithResult(experiments.get(i), iterations.get(i));
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+        // only counted when written, so run does not return before the results of the last unit are written
+        synchronized (lock) {
+            completed++;
+            lock.notifyAll();
+        }
+    }
+
+    private void renewLeases(int connection) {
+        synchronized (lock) {
+            long deadline = System.nanoTime() + leaseNanos;
+            for (int unit = 0; unit < states.length; unit++) {
+                if (states[unit] == LEASED && leaseOwners[unit] == connection) {
+                    leaseDeadlines[unit] = deadline;
+                }
+            }
+        }
+    }
+
+    private void releaseLeases(int connection) {
+        synchronized (lock) {
+            for (int unit = 0; unit < states.length; unit++) {
+                if (states[unit] == LEASED && leaseOwners[unit] == connection) {
+                    requeue(unit);
+                }
+            }
+            lock.notifyAll();
+        }
+    }
+
+    // call with lock held
+    private void requeueExpiredLeases() {
+        long now = System.nanoTime();
+        for (int unit = 0; unit < states.length; unit++) {
+            if (states[unit] == LEASED && now - leaseDeadlines[unit] > 0) {
+                System.out.printf("Lease of work unit %d (worker %d) expired%n", unit, leaseOwners[unit]);
+                requeue(unit);
+            }
+        }
+    }
+
+    // call with lock held, units which are handed out again are run first
+    private void requeue(int unit) {
+        states[unit] = PENDING;
+        leaseOwners[unit] = -1;
+        pending.addFirst(unit);
+        reassigned++;
+    }
+
+}
@@ -9,7 +9,7 @@ import java.util.*;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Experiment {
 
     // parameters
@@ -35,6 +35,9 @@ public class Experiment {
     private int numberOfIterations;
     private boolean optimumReached;
     private int numberOfIterationsUntilFitness;
+    // only set if runs can end early (StopCriterion), numberOfIterations is MAX_ITERATIONS_BY_RUN then
+    private String stopReason;
+    private int numberOfIterationsExecuted;
 
     // other
     private int number; // number of experiment
@@ -47,26 +50,21 @@ public class Experiment {
         return createParams(false);
     }
 
-    // creates a sorted Map for all parameters with the mapped parameter values
+    // value of the parameter with the given ParameterSchema index, defaults of ParamConfig are used if not set
+    public Object getParameterValue(int index) {
+        return ParameterSchema.value(this, index);
+    }
+
+    // creates a Map for all parameters with the mapped parameter values
     // defaults as configured in ParamConfig are used if not set in Experiment
     private Map<String, Object> createParams(boolean ignoreParameters) {
         Map<String, Object> parameters = new HashMap<>();
-        Arrays.stream(getClass().getDeclaredFields()).forEach(field -> {
-            if (ignoreParameters && field.isAnnotationPresent(IgnoreAsParam.class)) {
-                return;
-            }
-            String fieldName = field.getName();
-            if (ParamConfig.NETLOGO_MAPPING.containsKey(fieldName)) {
-                try {
-                    if (field.get(this) == null) {
-                        field.set(this, ParamConfig.DEFAULTS.get(fieldName));
-                    }
-                    parameters.put(ParamConfig.NETLOGO_MAPPING.get(field.getName()), field.get(this));
-                } catch (IllegalArgumentException | IllegalAccessException ex) {
-                    ex.printStackTrace();
-                }
+        for (int i = 0; i < ParameterSchema.size(); i++) {
+            if (ignoreParameters && ParameterSchema.isIgnoredAsParam(i)) {
+                continue;
             }
-        });
+            parameters.put(ParameterSchema.netLogoName(i), getParameterValue(i));
+        }
         return parameters;
     }
 
@@ -87,13 +85,7 @@ public class Experiment {
         }
 
         // check numeric values
-        Arrays.stream(getClass().getDeclaredFields()).forEach(field -> {
-            try {
-                constraintViolations.addAll(ParamConfig.checkMinMaxConstraint(field.getName(), field.get(this)));
-            } catch (IllegalArgumentException | IllegalAccessException ex) {
-                ex.printStackTrace();
-            }
-        });
+        ParameterSchema.validate(this, constraintViolations);
         return constraintViolations;
     }
 
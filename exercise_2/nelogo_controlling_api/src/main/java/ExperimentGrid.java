@@ -0,0 +1,157 @@
+import java.util.AbstractList;
+import java.util.List;
+
+// Cartesian product of the Setup and ExperimentDefinition dimensions without building the objects up front
+// numbers are mixed radix positions in the grid (same order and numbering as ExperimentSetup.createSetups /
+// createExperiments did), so every Setup and ExperimentDefinition is created on access from its number alone
+// - setups: population, fitness function, constraint variant; variant 0 is without constraint, the others are
+//   constraint handling method, constraint and constraintR
+// - experiments: particle speed limit, particle inertia, personal confidence (swarm confidence = 2 - personal)
+// a shard i/n contains every n-th Setup starting at i, the numbers stay the same in every shard
+public final class ExperimentGrid {
+
+    public static final ExperimentGrid DEFAULT = new ExperimentGrid(
+            new int[]{5, 10, 35, 80},
+            ParamConfig.FITNESS_FUNCTIONS,
+            ParamConfig.CONSTRAINT_HANDLING_OPTIONS,
+            ParamConfig.CONSTRAINTS,
+            new double[]{-1.0, -1.5, -2.0},
+            new int[]{2, 10, 19},
+            new double[]{0.1, 0.5, 0.9},
+            new double[]{0.5, 1.0, 1.5});
+
+    private final int[] populations;
+    private final List<String> fitnessFunctions;
+    private final List<String> constraintHandlingMethods;
+    private final List<String> constraints;
+    private final double[] constraintRs;
+    private final int[] particleSpeedLimits;
+    private final double[] particleInertias;
+    private final double[] personalConfidences;
+
+    private final int constraintVariants;
+
+    public ExperimentGrid(int[] populations, List<String> fitnessFunctions, List<String> constraintHandlingMethods,
+                          List<String> constraints, double[] constraintRs, int[] particleSpeedLimits,
+                          double[] particleInertias, double[] personalConfidences) {
+        this.populations = populations.clone();
+        this.fitnessFunctions = List.copyOf(fitnessFunctions);
+        this.constraintHandlingMethods = List.copyOf(constraintHandlingMethods);
+        this.constraints = List.copyOf(constraints);
+        this.constraintRs = constraintRs.clone();
+        this.particleSpeedLimits = particleSpeedLimits.clone();
+        this.particleInertias = particleInertias.clone();
+        this.personalConfidences = personalConfidences.clone();
+        this.constraintVariants = 1 + constraintHandlingMethods.size() * constraints.size() * constraintRs.length;
+    }
+
+    public int getNumberOfSetups() {
+        return populations.length * fitnessFunctions.size() * constraintVariants;
+    }
+
+    public int getNumberOfExperiments() {
+        return particleSpeedLimits.length * particleInertias.length * personalConfidences.length;
+    }
+
+    // number from 1 to getNumberOfSetups()
+    public Setup setup(int number) {
+        checkNumber(number, getNumberOfSetups());
+        int position = number - 1;
+        final int variant = position % constraintVariants;
+        position /= constraintVariants;
+        final String fitnessFunction = fitnessFunctions.get(position % fitnessFunctions.size());
+        final int population = populations[position / fitnessFunctions.size()];
+        if (variant == 0) {
+            return Setup.builder()
+                    .fitnessFunction(fitnessFunction)
+                    .populationSize(population)
+                    .useConstraint(false)
+                    .number(number)
+                    .build();
+        }
+        int constrained = variant - 1;
+        final double constraintR = constraintRs[constrained % constraintRs.length];
+        constrained /= constraintRs.length;
+        final String constraint = constraints.get(constrained % constraints.size());
+        final String constraintHandlingMethod = constraintHandlingMethods.get(constrained / constraints.size());
+        return Setup.builder()
+                .fitnessFunction(fitnessFunction)
+                .populationSize(population)
+                .useConstraint(true)
+                .constraintHandlingMethod(constraintHandlingMethod)
+                .constraint(constraint)
+                .number(number)
+                .constraintR(constraintR)
+                .build();
+    }
+
+    // number from 1 to getNumberOfExperiments()
+    public ExperimentDefinition experiment(int number) {
+        checkNumber(number, getNumberOfExperiments());
+        int position = number - 1;
+        final double personalConfidence = personalConfidences[position % personalConfidences.length];
+        position /= personalConfidences.length;
+        final double particleInertia = particleInertias[position % particleInertias.length];
+        final int particleSpeedLimit = particleSpeedLimits[position / particleInertias.length];
+        return ExperimentDefinition.builder()
+                .particleSpeedLimit(particleSpeedLimit)
+                .particleInertia(particleInertia)
+                .personalConfidence(personalConfidence)
+                .swarmConfidence(2 - personalConfidence)
+                .number(number)
+                .build();
+    }
+
+    public List<Setup> setups() {
+        return setups(0, 1);
+    }
+
+    // Setups with number - 1 = shardIndex (mod shardCount), created on access
+    public List<Setup> setups(int shardIndex, int shardCount) {
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("shard has to be i/n with 0 <= i < n but was " + shardIndex + "/" +
+                    shardCount);
+        }
+        final int size = (getNumberOfSetups() - shardIndex + shardCount - 1) / shardCount;
+        return new AbstractList<Setup>() {
+            @Override
+            public Setup get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("index " + index + " of " + size + " setups");
+                }
+                return setup(shardIndex + index * shardCount + 1);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // all ExperimentDefinitions, created on access
+    public List<ExperimentDefinition> experiments() {
+        final int size = getNumberOfExperiments();
+        return new AbstractList<ExperimentDefinition>() {
+            @Override
+            public ExperimentDefinition get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("index " + index + " of " + size + " experiments");
+                }
+                return experiment(index + 1);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static void checkNumber(int number, int count) {
+        if (number < 1 || number > count) {
+            throw new IllegalArgumentException("number has to be between 1 and " + count + " but was " + number);
+        }
+    }
+
+}
@@ -0,0 +1,323 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// runs all ExperimentDefinitions of a Setup on one SimulationBackend
+public class ExperimentRunner {
+
+    private final SimulationBackend backend;
+    // runs which are skipped, e.g. completed runs of a resumed sweep
+    private final RunFilter runFilter;
+    // runs always have MAX_ITERATIONS_BY_RUN iterations with StopCriterion.NONE
+    private final StopCriterion stopCriterion;
+    // runs of a Setup given to SimulationBackend.runBatch together, 1 to run them one after the other
+    private final int swarmsByBatch;
+    // results of earlier runs, only new keys are simulated; null to simulate every run
+    private final ResultCache resultCache;
+    // backend seeded with runSeed before every setup, otherwise the runs use the random numbers of the backend
+    private final boolean seedRuns;
+
+    // world and landscape of the last setup on the backend, null before the first one
+    private LandscapeSpec lastLandscape;
+    private int resizes;
+    private int resizesAvoided;
+    private int landscapeBuilds;
+    private int landscapeBuildsAvoided;
+
+    public ExperimentRunner(SimulationBackend backend) {
+        this(backend, RunFilter.ALL);
+    }
+
+    public ExperimentRunner(SimulationBackend backend, RunFilter runFilter) {
+        this(backend, runFilter, StopCriterion.NONE);
+    }
+
+    public ExperimentRunner(SimulationBackend backend, RunFilter runFilter, StopCriterion stopCriterion) {
+        this(backend, runFilter, stopCriterion, 1);
+    }
+
+    public ExperimentRunner(SimulationBackend backend, RunFilter runFilter, StopCriterion stopCriterion,
+                            int swarmsByBatch) {
+        this(backend, runFilter, stopCriterion, swarmsByBatch, null);
+    }
+
+    // the runs of a result cache are always seeded
+    public ExperimentRunner(SimulationBackend backend, RunFilter runFilter, StopCriterion stopCriterion,
+                            int swarmsByBatch, ResultCache resultCache) {
+        this(backend, runFilter, stopCriterion, swarmsByBatch, resultCache, resultCache != null);
+    }
+
+    public ExperimentRunner(SimulationBackend backend, RunFilter runFilter, StopCriterion stopCriterion,
+                            int swarmsByBatch, ResultCache resultCache, boolean seedRuns) {
+        if (swarmsByBatch < 1) {
+            throw new IllegalArgumentException("swarmsByBatch has to be at least 1 but was " + swarmsByBatch);
+        }
+        this.backend = backend;
+        this.runFilter = runFilter;
+        this.stopCriterion = stopCriterion;
+        this.swarmsByBatch = swarmsByBatch;
+        if (resultCache != null && !seedRuns) {
+            throw new IllegalArgumentException("the runs of a result cache have to be seeded");
+        }
+        this.resultCache = resultCache;
+        this.seedRuns = seedRuns;
+    }
+
+    // unique number of an ExperimentDefinition in a Setup, written as "number" to the results
+    public static int experimentNumber(Setup setup, ExperimentDefinition experimentDefinition) {
+        return experimentDefinition.getNumber() + (setup.getNumber() * 10000);
+    }
+
+    // number of the ExperimentDefinition of an experiment number of the Setup, see experimentNumber
+    public static int definitionNumber(Setup setup, int experimentNumber) {
+        return experimentNumber - setup.getNumber() * 10000;
+    }
+
+    // seed of the runs of a Setup in an iteration, derived from the landscape, the population size and the iteration
+    // instead of the Setup number, so it is the same in every sweep and grid; the runs of all ExperimentDefinitions
+    // start from the same particles (see SimulationBackend.repeat), so they share it
+    public static long runSeed(Setup setup, int iteration) {
+        final String key = RunScheduler.landscapeSpec(setup) + "|" + setup.getPopulationSize() + "|" + iteration;
+        return (int) ResultCache.hash(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // iteration of numberOfIterations replications, both are only logged
+    public void runSetup(Setup setup, List<ExperimentDefinition> experiments, int iteration, int numberOfIterations,
+                         int numberOfSetups, ResultSink outputWriter) throws IOException {
+        runSetup(setup, experiments, iteration, numberOfIterations, numberOfSetups, outputWriter,
+                Main.MAX_ITERATIONS_BY_RUN);
+    }
+
+    // runs of at most maxIterations iterations instead of Main.MAX_ITERATIONS_BY_RUN (e.g. ParameterSearch budgets)
+    public void runSetup(Setup setup, List<ExperimentDefinition> experiments, int iteration, int numberOfIterations,
+                         int numberOfSetups, ResultSink outputWriter, int maxIterations) throws IOException {
+        if (!runFilter.anyToRun(iteration, setup, experiments)) {
+            System.out.printf("### Skipping setup %d in iteration %d%n", setup.getNumber(), iteration);
+            return;
+        }
+        final LandscapeSpec landscape = RunScheduler.landscapeSpec(setup);
+        final long seed = runSeed(setup, iteration);
+        // runs of the cache are written first, the world is only set up if there are others
+        final List<Experiment> toRun = new ArrayList<>();
+        final List<String> keys = new ArrayList<>();
+        int cached = 0;
+        for (ExperimentDefinition experimentDefinition : experiments) {
+            if (!runFilter.shouldRun(iteration, experimentNumber(setup, experimentDefinition))) {
+                continue;
+            }
+            final Experiment experiment = experiment(setup, experimentDefinition);
+            final String key = resultCache != null ?
+                    resultCache.key(experiment, landscape, seed, maxIterations, stopCriterion) : null;
+            if (key != null && resultCache.get(key, experiment)) {
+                finish(setup, experiment, experiment.getStopReason(), iteration, numberOfIterations,
+                        experiments.size(), numberOfSetups, outputWriter, maxIterations);
+                cached++;
+                continue;
+            }
+            toRun.add(experiment);
+            keys.add(key);
+        }
+        if (cached > 0) {
+            System.out.printf("### %d runs of setup %d in iteration %d from the result cache%n", cached,
+                    setup.getNumber(), iteration);
+        }
+        if (toRun.isEmpty()) {
+            return;
+        }
+        // resize-world clears the world, so it is only sent if the size changes (see RunScheduler)
+        final boolean sameWorld = lastLandscape != null && lastLandscape.getMinPxcor() == landscape.getMinPxcor() &&
+                lastLandscape.getMaxPxcor() == landscape.getMaxPxcor() &&
+                lastLandscape.getMinPycor() == landscape.getMinPycor() &&
+                lastLandscape.getMaxPycor() == landscape.getMaxPycor();
+        final boolean sameLandscape = sameWorld && lastLandscape.equals(landscape);
+        RunPhaseEvent event = RunPhaseEvent.start(RunPhaseEvent.RESIZE_WORLD, setup, 0, iteration);
+        if (sameWorld) {
+            resizesAvoided++;
+        } else {
+            backend.resizeWorld(landscape.getMinPxcor(), landscape.getMaxPxcor(), landscape.getMinPycor(),
+                    landscape.getMaxPycor());
+            resizes++;
+        }
+        RunPhaseEvent.end(event);
+        event = RunPhaseEvent.start(RunPhaseEvent.SET_PARAMETERS, setup, 0, iteration);
+        backend.setParameter(ParamConfig.NETLOGO_MAPPING.get("fitnessFunction"), setup.getFitnessFunction());
+        backend.setParameter(ParamConfig.NETLOGO_MAPPING.get("useConstraint"), setup.getUseConstraint());
+        if (setup.getUseConstraint()) {
+            backend.setParameter(ParamConfig.NETLOGO_MAPPING.get("constraintHandlingMethod"),
+                    setup.getConstraintHandlingMethod());
+            backend.setParameter(ParamConfig.NETLOGO_MAPPING.get("constraint"), setup.getConstraint());
+            backend.setParameter(ParamConfig.NETLOGO_MAPPING.get("constraintR"), setup.getConstraintR());
+
+        }
+        backend.setParameter(ParamConfig.NETLOGO_MAPPING.get("populationSize"), setup.getPopulationSize());
+        RunPhaseEvent.end(event);
+
+        event = RunPhaseEvent.start(RunPhaseEvent.SETUP, setup, 0, iteration);
+        // new particles for every replication, the landscape is only built if it changed
+        lastLandscape = null;
+        if (seedRuns) {
+            backend.seed(seed);
+        }
+        if (sameLandscape) {
+            backend.setupAgents();
+            landscapeBuildsAvoided++;
+        } else {
+            backend.setup();
+            landscapeBuilds++;
+        }
+        lastLandscape = landscape;
+        RunPhaseEvent.end(event);
+        System.out.printf("### Running setup: %s%n", setup);
+
+        long restoreNanos = 0;
+        int runs = 0;
+        final List<Experiment> batch = new ArrayList<>();
+        final List<String> batchKeys = new ArrayList<>();
+        for (int i = 0; i < toRun.size(); i++) {
+            final Experiment experiment = toRun.get(i);
+            if (swarmsByBatch > 1) {
+                batch.add(experiment);
+                batchKeys.add(keys.get(i));
+                if (batch.size() == swarmsByBatch) {
+                    runBatch(setup, batch, batchKeys, iteration, numberOfIterations, experiments.size(),
+                            numberOfSetups, outputWriter, maxIterations);
+                    batch.clear();
+                    batchKeys.clear();
+                }
+                continue;
+            }
+            final int definition = definitionNumber(setup, experiment.getNumber());
+            event = RunPhaseEvent.start(RunPhaseEvent.REPEAT, setup, definition, iteration);
+            final long restoreStart = System.nanoTime();
+            backend.repeat();
+            restoreNanos += System.nanoTime() - restoreStart;
+            RunPhaseEvent.end(event);
+            runs++;
+            System.out.printf("%s: Start Experiment %d/%d, setup %d/%d, iteration %d/%d%n",
+                    LocalDateTime.now().format(Main.DATE_TIME_FORMATTER), experiment.getNumber(),
+                    experiments.size(), setup.getNumber(), numberOfSetups, iteration, numberOfIterations);
+            event = RunPhaseEvent.start(RunPhaseEvent.SET_PARAMETERS, setup, definition, iteration);
+            for (int parameter : ParameterSchema.parameterIndices()) {
+                backend.setParameter(ParameterSchema.netLogoName(parameter), experiment.getParameterValue(parameter));
+            }
+            RunPhaseEvent.end(event);
+            event = RunPhaseEvent.start(RunPhaseEvent.RUN, setup, definition, iteration);
+            final String stopReason;
+            if (stopCriterion.isEnabled()) {
+                stopReason = backend.run(maxIterations, stopCriterion);
+            } else {
+                backend.run(maxIterations);
+                stopReason = null;
+            }
+            RunPhaseEvent.end(event);
+            event = RunPhaseEvent.start(RunPhaseEvent.REPORT, setup, definition, iteration);
+            backend.report(experiment);
+            RunPhaseEvent.end(event);
+            if (keys.get(i) != null) {
+                resultCache.put(keys.get(i), experiment, stopReason);
+            }
+            finish(setup, experiment, stopReason, iteration, numberOfIterations, experiments.size(), numberOfSetups,
+                    outputWriter, maxIterations);
+        }
+        if (!batch.isEmpty()) {
+            runBatch(setup, batch, batchKeys, iteration, numberOfIterations, experiments.size(), numberOfSetups,
+                    outputWriter, maxIterations);
+        }
+        if (runs > 0) {
+            System.out.printf("### Restored world of setup %d %d times, %.3f ms on average%n", setup.getNumber(),
+                    runs, restoreNanos / 1e6 / runs);
+        }
+        if (!backend.getStatistics().isEmpty()) {
+            System.out.printf("### %s%n", backend.getStatistics());
+        }
+    }
+
+    private static Experiment experiment(Setup setup, ExperimentDefinition experimentDefinition) {
+        return Experiment.builder()
+                .fitnessFunction(setup.getFitnessFunction())
+                .useConstraint(setup.getUseConstraint())
+                .constraintHandlingMethod(setup.getUseConstraint() ? setup.getConstraintHandlingMethod() : "")
+                .constraint(setup.getUseConstraint() ? setup.getConstraint() : "")
+                .constraintR(setup.getConstraintR())
+                .populationSize(setup.getPopulationSize())
+                .particleInertia(experimentDefinition.getParticleInertia())
+                .personalConfidence(experimentDefinition.getPersonalConfidence())
+                .swarmConfidence(experimentDefinition.getSwarmConfidence())
+                .particleSpeedLimit(experimentDefinition.getParticleSpeedLimit())
+                .number(experimentNumber(setup, experimentDefinition))
+                .build();
+    }
+
+    // keys of the result cache by run, null entries without cache
+    private void runBatch(Setup setup, List<Experiment> batch, List<String> keys, int iteration,
+                          int numberOfIterations, int numberOfExperiments, int numberOfSetups,
+                          ResultSink outputWriter, int maxIterations) throws IOException {
+        System.out.printf("%s: Start Experiments %d-%d as %d swarms, setup %d/%d, iteration %d/%d%n",
+                LocalDateTime.now().format(Main.DATE_TIME_FORMATTER), batch.get(0).getNumber(),
+                batch.get(batch.size() - 1).getNumber(), batch.size(), setup.getNumber(), numberOfSetups, iteration,
+                numberOfIterations);
+        final RunPhaseEvent event = RunPhaseEvent.start(RunPhaseEvent.RUN, setup, 0, iteration);
+        final String[] stopReasons = backend.runBatch(batch, maxIterations, stopCriterion);
+        RunPhaseEvent.end(event);
+        for (int i = 0; i < batch.size(); i++) {
+            // like the runs one after the other, whatever the backend reports
+            final String stopReason = stopCriterion.isEnabled() ? stopReasons[i] : null;
+            if (keys.get(i) != null) {
+                resultCache.put(keys.get(i), batch.get(i), stopReason);
+            }
+            finish(setup, batch.get(i), stopReason, iteration, numberOfIterations, numberOfExperiments,
+                    numberOfSetups, outputWriter, maxIterations);
+        }
+    }
+
+    // stopReason is null without StopCriterion
+    private void finish(Setup setup, Experiment experiment, String stopReason, int iteration, int numberOfIterations,
+                        int numberOfExperiments, int numberOfSetups, ResultSink outputWriter, int maxIterations)
+            throws IOException {
+        if (stopReason != null) {
+            // iterations stays the length of a full run, so it can be compared with runs without early exit
+            experiment.setStopReason(stopReason);
+            experiment.setNumberOfIterationsExecuted(experiment.getNumberOfIterations());
+            experiment.setNumberOfIterations(maxIterations);
+        }
+        System.out.printf(
+                "%s: Finished Experiment %d/%d, setup %d/%d, iteration %d/%d: Optimum of '%f' was %s " +
+                        "after %d iterations%n",
+                LocalDateTime.now().format(Main.DATE_TIME_FORMATTER), experiment.getNumber(),
+                numberOfExperiments, setup.getNumber(), numberOfSetups, iteration, numberOfIterations,
+                experiment.getOptimum(),
+                experiment.isOptimumReached() ? "reached" :
+                        "NOT reached, best value was '" + experiment.getFitness() + "'",
+                experiment.getNumberOfIterationsUntilFitness());
+        final RunPhaseEvent event = RunPhaseEvent.start(RunPhaseEvent.WRITE, setup,
+                definitionNumber(setup, experiment.getNumber()), iteration);
+        outputWriter.writeExperimentWithResult(experiment, iteration);
+        RunPhaseEvent.end(event);
+    }
+
+    public int getResizes() {
+        return resizes;
+    }
+
+    public int getResizesAvoided() {
+        return resizesAvoided;
+    }
+
+    public int getLandscapeBuilds() {
+        return landscapeBuilds;
+    }
+
+    public int getLandscapeBuildsAvoided() {
+        return landscapeBuildsAvoided;
+    }
+
+    // totals of several runners
+    public static void printWorldReuse(int resizes, int resizesAvoided, int landscapeBuilds,
+                                       int landscapeBuildsAvoided) {
+        System.out.printf("World reuse: %d world resizes (%d avoided), %d landscape builds (%d avoided)%n",
+                resizes, resizesAvoided, landscapeBuilds, landscapeBuildsAvoided);
+    }
+
+}
@@ -214,42 +214,9 @@ public final class ExperimentSetup {
         outputWriter.close();
     }
 
+    // created on access by ExperimentGrid.DEFAULT
     public static List<Setup> createSetups() {
-        int[] populations = new int[]{5, 10, 35, 80};
-        List<Setup> setups = new ArrayList<>();
-
-
-        double[] constraintRs = new double[]{
-                -1.0, -1.5, -2.0
-        };
-
-        int counter = 0;
-        for (int population : populations) {
-            for (String fitnessFunction : ParamConfig.FITNESS_FUNCTIONS) {
-                setups.add(Setup.builder()
-                        .fitnessFunction(fitnessFunction)
-                        .populationSize(population)
-                        .useConstraint(false)
-                        .number(++counter)
-                        .build());
-                for (String constraintHandlingMethod : ParamConfig.CONSTRAINT_HANDLING_OPTIONS) {
-                    for (String constraint : ParamConfig.CONSTRAINTS) {
-                        for (double constraintR : constraintRs) {
-                            setups.add(Setup.builder()
-                                    .fitnessFunction(fitnessFunction)
-                                    .populationSize(population)
-                                    .useConstraint(true)
-                                    .constraintHandlingMethod(constraintHandlingMethod)
-                                    .constraint(constraint)
-                                    .number(++counter)
-                                    .constraintR(constraintR)
-                                    .build());
-                        }
-                    }
-                }
-            }
-        }
-
+        List<Setup> setups = ExperimentGrid.DEFAULT.setups();
         System.out.printf("Created %d setups%n", setups.size());
         return setups;
     }
@@ -290,45 +257,10 @@ public final class ExperimentSetup {
         return experiments;
     }
 
+    // created on access by ExperimentGrid.DEFAULT
     public static List<ExperimentDefinition> createExperiments() {
-        List<ExperimentDefinition> experiments = new ArrayList<>();
-
-        int[] particleSpeedLimits = new int[]{
-                2, 10, 19
-        };
-
-        double[] particleInertias = new double[]{
-                0.1, 0.5, 0.9
-        };
-
-        double[] personalConfidences = new double[]{
-                //                0.25, 0.5, 0.75, 1.0, 1.25, 1.5, 1.75
-                0.5, 1.0, 1.5
-        };
-
-        double[] swarmConfidences = new double[]{
-                //                0.25, 0.5, 0.75, 1.0, 1.25, 1.5, 1.75
-                0.5, 1.0, 1.5
-        };
-
-        int counter = 0;
-        for (int particleSpeedLimit : particleSpeedLimits) {
-            for (double particleInertia : particleInertias) {
-                for (double personalConfidence : personalConfidences) {
-                    experiments.add(ExperimentDefinition.builder()
-                            .particleSpeedLimit(particleSpeedLimit)
-                            .particleInertia(particleInertia)
-                            .personalConfidence(personalConfidence)
-                            .swarmConfidence(2 - personalConfidence)
-                            .number(++counter)
-                            .build());
-                }
-            }
-        }
-
+        List<ExperimentDefinition> experiments = ExperimentGrid.DEFAULT.experiments();
         System.out.printf("Created %d experiments%n", experiments.size());
-
-
         return experiments;
     }
 }
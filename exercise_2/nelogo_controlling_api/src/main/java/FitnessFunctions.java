@@ -0,0 +1,68 @@
+// Java versions of the fitness functions of PSO_NL_Template.nlogo
+// NetLogo trigonometry works in degrees and uses StrictMath, so do these functions
+public final class FitnessFunctions {
+
+    private static final double SCHWEFEL_A = 418.9829;
+
+    private FitnessFunctions() {
+    }
+
+    public static double evaluate(String fitnessFunction, double x, double y) {
+        switch (fitnessFunction) {
+            case ParamConfig.FITNESS_FUNCTION_SUBERT:
+                return shubert(x, y);
+            case ParamConfig.FITNESS_FUNCTION_BOOTH:
+                return booth(x, y);
+            case ParamConfig.FITNESS_FUNCTION_SCHWEFEL:
+                return schwefel(x, y);
+            default:
+                throw new IllegalArgumentException("fitnessFunction value " + fitnessFunction +
+                        " not allowed use one of :" + ParamConfig.FITNESS_FUNCTIONS);
+        }
+    }
+
+    public static double shubert(double x, double y) {
+        return shubertTerm(x) * shubertTerm(y);
+    }
+
+    // one factor of the Shubert function, the function is separable in x and y
+    public static double shubertTerm(double x) {
+        double t = 0;
+        for (int i = 1; i < 5; i++) {
+            t = t + i * cos((i + 1) * x + i);
+        }
+        return t;
+    }
+
+    // NetLogo uses StrictMath.pow, which is exact for an exponent of 2
+    public static double booth(double x, double y) {
+        double a = x + 2 * y - 7;
+        double b = 2 * x + y - 5;
+        return -1 * (a * a + b * b);
+    }
+
+    public static double schwefel(double x, double y) {
+        double s = 0;
+        s = s + schwefelTerm(x);
+        s = s + schwefelTerm(y);
+        return s + (SCHWEFEL_A * 2);
+    }
+
+    // one summand of the Schwefel function, the function is separable in x and y
+    public static double schwefelTerm(double x) {
+        return -1 * x * sin(StrictMath.sqrt(Math.abs(x)));
+    }
+
+    static double sin(double degrees) {
+        return StrictMath.sin(StrictMath.toRadians(degrees));
+    }
+
+    static double cos(double degrees) {
+        return StrictMath.cos(StrictMath.toRadians(degrees));
+    }
+
+    static double tan(double degrees) {
+        return StrictMath.tan(StrictMath.toRadians(degrees));
+    }
+
+}
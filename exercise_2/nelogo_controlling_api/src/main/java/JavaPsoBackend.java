@@ -0,0 +1,221 @@
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// runs the experiments on PsoEngine instead of the NetLogo model
+// the parameters are kept like the NetLogo globals, so the same commands can be sent to both backends
+public class JavaPsoBackend implements SimulationBackend {
+
+    private final PsoRandom random;
+    // null to build every landscape
+    private final LandscapeCache landscapeCache;
+
+    private int minPxcor = -100;
+    private int maxPxcor = 100;
+    private int minPycor = -100;
+    private int maxPycor = 100;
+
+    // NetLogo globals, see ParamConfig.NETLOGO_MAPPING
+    private String fitnessFunction = ParamConfig.FITNESS_FUNCTION_SUBERT;
+    private boolean useConstraint = false;
+    private String constraintHandlingMethod = ParamConfig.CONSTRAINT_HANDLING_REJECTION;
+    private String constraint = ParamConfig.CONSTRAINT_3;
+    private int populationSize = ParamConfig.POPULATION_SIZE_DEFAULT;
+    private double particleSpeedLimit = ParamConfig.PARTICLE_SPEED_LIMIT_DEFAULT;
+    private double personalConfidence = ParamConfig.PERSONAL_CONFIDENCE_DEFAULT;
+    private double swarmConfidence = ParamConfig.SWARM_CONFIDENCE_DEFAULT;
+    private double particleInertia = ParamConfig.PARTICLE_INERTIA_DEFAULT;
+    private double constraintR = ParamConfig.CONSTRAINT_R_DEFAULT;
+
+    private Landscape landscape;
+    // index of the constraint on the landscape, null without constraint or for constraints without index
+    private ConstraintIndex constraintIndex;
+    private PsoEngine engine;
+    // state after setup, restored by repeat like import-world "backup.txt"
+    private WorldSnapshot snapshot;
+
+    public JavaPsoBackend() {
+        this(ThreadLocalRandom.current().nextLong(), null);
+    }
+
+    public JavaPsoBackend(long seed, LandscapeCache landscapeCache) {
+        this.random = new PsoRandom(seed);
+        this.landscapeCache = landscapeCache;
+    }
+
+    @Override
+    public void resizeWorld(int minPxcor, int maxPxcor, int minPycor, int maxPycor) {
+        this.minPxcor = minPxcor;
+        this.maxPxcor = maxPxcor;
+        this.minPycor = minPycor;
+        this.maxPycor = maxPycor;
+        landscape = null;
+        constraintIndex = null;
+        engine = null;
+        snapshot = null;
+    }
+
+    @Override
+    public void setParameter(String name, Object value) {
+        switch (name) {
+            case "fitness_function":
+                fitnessFunction = (String) value;
+                break;
+            case "constraints":
+                useConstraint = (Boolean) value;
+                break;
+            case "constraint_handling_method":
+                constraintHandlingMethod = (String) value;
+                break;
+            case "Constraint":
+                constraint = (String) value;
+                break;
+            case "population-size":
+                populationSize = ((Number) value).intValue();
+                break;
+            case "particle-speed-limit":
+                particleSpeedLimit = ((Number) value).doubleValue();
+                break;
+            case "personal-confidence":
+                personalConfidence = ((Number) value).doubleValue();
+                break;
+            case "swarm-confidence":
+                swarmConfidence = ((Number) value).doubleValue();
+                break;
+            case "particle-inertia":
+                particleInertia = ((Number) value).doubleValue();
+                break;
+            case "constraint_r":
+                constraintR = ((Number) value).doubleValue();
+                break;
+            default:
+                throw new IllegalArgumentException("unknown parameter " + name);
+        }
+    }
+
+    @Override
+    public void seed(long seed) {
+        random.copyFrom(new PsoRandom(seed));
+    }
+
+    @Override
+    public void setup() {
+        LandscapeSpec spec = getLandscapeSpec();
+        landscape = landscapeCache != null ? landscapeCache.get(spec) : LandscapeGenerator.build(spec);
+        constraintIndex = getConstraintIndex();
+        engine = new PsoEngine(landscape, random, populationSize, useConstraint ? constraint : null,
+                constraintHandlingMethod, constraintIndex);
+        engine.initialize();
+        snapshot = engine.snapshot();
+    }
+
+    @Override
+    public void setupAgents() {
+        if (landscape == null) {
+            setup();
+            return;
+        }
+        engine = new PsoEngine(landscape, random, populationSize, useConstraint ? constraint : null,
+                constraintHandlingMethod, constraintIndex);
+        engine.initialize();
+        snapshot = engine.snapshot();
+    }
+
+    private ConstraintIndex getConstraintIndex() {
+        int id = useConstraint ? Constraints.id(constraint) : Constraints.NONE;
+        if (!ConstraintIndex.supports(id, landscape.getMaxPxcor(), landscape.getMaxPycor())) {
+            return null;
+        }
+        return landscapeCache != null ? landscapeCache.getConstraintIndex(id, landscape) :
+                ConstraintIndex.build(id, landscape);
+    }
+
+    @Override
+    public void repeat() {
+        engine.restore(snapshot);
+    }
+
+    @Override
+    public void run(int iterations) {
+        engine.setParameters(particleSpeedLimit, particleInertia, personalConfidence, swarmConfidence);
+        for (int i = 0; i < iterations; i++) {
+            engine.iterate();
+        }
+    }
+
+    @Override
+    public String run(int maxIterations, StopCriterion stopCriterion) {
+        engine.setParameters(particleSpeedLimit, particleInertia, personalConfidence, swarmConfidence);
+        int stagnant = 0;
+        for (int i = 1; i <= maxIterations; i++) {
+            double best = engine.getGlobalBestVal();
+            engine.iterate();
+            stagnant = engine.getGlobalBestVal() > best ? 0 : stagnant + 1;
+            // a run which used all iterations always ends with MAX_ITERATIONS, like in NetLogoBackend
+            if (i == maxIterations) {
+                break;
+            }
+            if (stopCriterion.isStopAtOptimum() && engine.isOptimumReached()) {
+                return StopCriterion.OPTIMUM;
+            }
+            if (stopCriterion.getSwarmRadius() > 0 && engine.swarmRadius() <= stopCriterion.getSwarmRadius()) {
+                return StopCriterion.SWARM_RADIUS;
+            }
+            if (stopCriterion.getStagnationIterations() > 0 && stagnant >= stopCriterion.getStagnationIterations()) {
+                return StopCriterion.STAGNATION;
+            }
+        }
+        return StopCriterion.MAX_ITERATIONS;
+    }
+
+    // all experiments as swarms of one BatchPsoEngine, each starting from the state after setup with a copy of its
+    // random state like repeat, so the results are the same as the ones of runs one after the other
+    @Override
+    public String[] runBatch(List<Experiment> experiments, int maxIterations, StopCriterion stopCriterion) {
+        final BatchPsoEngine batch = new BatchPsoEngine(landscape, populationSize, experiments.size(),
+                useConstraint ? constraint : null, constraintHandlingMethod, constraintIndex);
+        for (int swarm = 0; swarm < experiments.size(); swarm++) {
+            final Experiment experiment = experiments.get(swarm);
+            batch.load(swarm, snapshot, snapshot.getRandom().copy());
+            batch.setParameters(swarm, experiment.getParticleSpeedLimit(), experiment.getParticleInertia(),
+                    experiment.getPersonalConfidence(), experiment.getSwarmConfidence());
+        }
+        final String[] reasons = batch.run(maxIterations, stopCriterion);
+        for (int swarm = 0; swarm < experiments.size(); swarm++) {
+            batch.report(swarm, experiments.get(swarm));
+        }
+        return stopCriterion.isEnabled() ? reasons : new String[experiments.size()];
+    }
+
+    @Override
+    public void report(Experiment experiment) {
+        experiment.setFitness(engine.getGlobalBestVal());
+        experiment.setOptimum(landscape.getTrueBestValue());
+        experiment.setNumberOfIterations(engine.getIterations());
+        experiment.setNumberOfIterationsUntilFitness(engine.getIterationsToOpt());
+        if (experiment.getFitness() == experiment.getOptimum()) {
+            experiment.setOptimumReached(true);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        landscape = null;
+        engine = null;
+        snapshot = null;
+    }
+
+    public LandscapeSpec getLandscapeSpec() {
+        return LandscapeSpec.builder()
+                .fitnessFunction(fitnessFunction)
+                .useConstraint(useConstraint)
+                .constraintHandlingMethod(constraintHandlingMethod)
+                .constraint(constraint)
+                .constraintR(constraintR)
+                .minPxcor(minPxcor)
+                .maxPxcor(maxPxcor)
+                .minPycor(minPycor)
+                .maxPycor(maxPycor)
+                .build();
+    }
+
+}
@@ -0,0 +1,125 @@
+import lombok.Getter;
+
+// the normalised patch values (val) of a toroidal world together with the true best patch
+// values are stored row by row starting at minPycor: index = (pycor - minPycor) * width + (pxcor - minPxcor)
+// either on the heap (values) or outside of it in a LandscapeStore (store), the other one is null
+@Getter
+public final class Landscape {
+
+    private final int minPxcor;
+    private final int maxPxcor;
+    private final int minPycor;
+    private final int maxPycor;
+    private final int width;
+    private final int height;
+    private final double[] values;
+    private final LandscapeStore store;
+    private final int trueBestIndex;
+
+    public Landscape(int minPxcor, int maxPxcor, int minPycor, int maxPycor, double[] values, int trueBestIndex) {
+        this(minPxcor, maxPxcor, minPycor, maxPycor, values, null, trueBestIndex);
+    }
+
+    public Landscape(int minPxcor, int maxPxcor, int minPycor, int maxPycor, LandscapeStore store) {
+        this(minPxcor, maxPxcor, minPycor, maxPycor, null, store, store.getTrueBestIndex());
+    }
+
+    private Landscape(int minPxcor, int maxPxcor, int minPycor, int maxPycor, double[] values,
+                      LandscapeStore store, int trueBestIndex) {
+        this.minPxcor = minPxcor;
+        this.maxPxcor = maxPxcor;
+        this.minPycor = minPycor;
+        this.maxPycor = maxPycor;
+        this.width = maxPxcor - minPxcor + 1;
+        this.height = maxPycor - minPycor + 1;
+        final int size = values != null ? values.length : store.getSize();
+        if (size != width * height) {
+            throw new IllegalArgumentException("expected " + width * height + " values but got " + size);
+        }
+        this.values = values;
+        this.store = store;
+        this.trueBestIndex = trueBestIndex;
+    }
+
+    public int index(int pxcor, int pycor) {
+        return (pycor - minPycor) * width + (pxcor - minPxcor);
+    }
+
+    public int pxcor(int index) {
+        return index % width + minPxcor;
+    }
+
+    public int pycor(int index) {
+        return index / width + minPycor;
+    }
+
+    public double value(int index) {
+        return values != null ? values[index] : store.value(index);
+    }
+
+    public double value(int pxcor, int pycor) {
+        return value(index(pxcor, pycor));
+    }
+
+    // value of the patch a turtle at (x, y) is standing on, x and y have to be wrapped already
+    public double valueAt(double x, double y) {
+        return value(index((int) Math.floor(x + 0.5), (int) Math.floor(y + 0.5)));
+    }
+
+    public double getTrueBestValue() {
+        return values != null ? values[trueBestIndex] : store.getTrueBestValue();
+    }
+
+    // bytes of the values, on the heap or in the LandscapeStore
+    public long getBytes() {
+        return values != null ? (long) values.length * Double.BYTES : store.getBytes();
+    }
+
+    public int getTrueBestPxcor() {
+        return pxcor(trueBestIndex);
+    }
+
+    public int getTrueBestPycor() {
+        return pycor(trueBestIndex);
+    }
+
+    // turtle coordinates are in [minPxcor - 0.5, maxPxcor + 0.5)
+    public double wrapX(double x) {
+        return wrap(x, minPxcor - 0.5, width);
+    }
+
+    public double wrapY(double y) {
+        return wrap(y, minPycor - 0.5, height);
+    }
+
+    // shortest distance in x direction from x to toX like distancexy on a torus
+    public double deltaX(double x, double toX) {
+        return shortest(toX - x, width);
+    }
+
+    public double deltaY(double y, double toY) {
+        return shortest(toY - y, height);
+    }
+
+    private static double wrap(double value, double min, int size) {
+        double offset = (value - min) % size;
+        if (offset < 0) {
+            offset += size;
+        }
+        if (offset >= size) {
+            offset = 0;
+        }
+        return offset + min;
+    }
+
+    private static double shortest(double delta, int size) {
+        if (delta > size / 2.0) {
+            return delta - size;
+        }
+        if (delta < -size / 2.0) {
+            return delta + size;
+        }
+        return delta;
+    }
+
+}
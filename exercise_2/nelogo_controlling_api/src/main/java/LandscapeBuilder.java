@@ -0,0 +1,61 @@
+// builds the Landscape like initialize-topology of the model
+public final class LandscapeBuilder {
+
+    private LandscapeBuilder() {
+    }
+
+    public static Landscape build(LandscapeSpec spec) {
+        final int width = spec.getWidth();
+        final int height = spec.getHeight();
+        final double[] values = new double[width * height];
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        int index = 0;
+        for (int pycor = spec.getMinPycor(); pycor <= spec.getMaxPycor(); pycor++) {
+            for (int pxcor = spec.getMinPxcor(); pxcor <= spec.getMaxPxcor(); pxcor++) {
+                double value = FitnessFunctions.evaluate(spec.getFitnessFunction(), pxcor, pycor);
+                values[index++] = value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+
+        normalizeAndConstrain(spec, values, min, max);
+        return new Landscape(spec.getMinPxcor(), spec.getMaxPxcor(), spec.getMinPycor(), spec.getMaxPycor(),
+                values, argMax(values));
+    }
+
+    // normalize the values to be between 0 and 1 and handle patches violating the constraint
+    static void normalizeAndConstrain(LandscapeSpec spec, double[] values, double min, double max) {
+        final int constraint = spec.isUseConstraint() ? Constraints.id(spec.getConstraint()) : Constraints.NONE;
+        final boolean penalty = spec.isPenalty();
+        final double range = max - min;
+        final int width = spec.getWidth();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (values[i] - min) / range;
+            if (constraint != Constraints.NONE && Constraints.violates(constraint,
+                    i % width + spec.getMinPxcor(), i / width + spec.getMinPycor(),
+                    spec.getMaxPxcor(), spec.getMaxPycor())) {
+                values[i] = penalty ? values[i] + spec.getConstraintR() : 0;
+            }
+        }
+    }
+
+    // NetLogo max-one-of picks a random patch on ties, the first one is used here
+    static int argMax(double[] values) {
+        return argMax(values, 0, values.length);
+    }
+
+    // first index of the largest value from <= i < to
+    static int argMax(double[] values, int from, int to) {
+        int best = from;
+        for (int i = from + 1; i < to; i++) {
+            if (values[i] > values[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+}
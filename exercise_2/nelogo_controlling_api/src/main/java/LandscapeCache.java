@@ -0,0 +1,281 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// persistent cache of built landscapes, one binary file per LandscapeSpec which is read when reused
+// file layout (little endian): magic, version, key length, key (UTF-8), minPxcor, maxPxcor, minPycor, maxPycor,
+// trueBestIndex, padding to 8 bytes, width * height values as double
+// the ConstraintIndex files of the worlds (.constraint) are kept in the same directory
+// with a LandscapeStore.Encoding the landscapes are kept outside the heap: DOUBLE maps the values of the file, FLOAT
+// and SHORT are encoded from them; without encoding the values are read into a double[]
+public class LandscapeCache {
+
+    private static final int MAGIC = 0x50534f4c; // "PSOL"
+    private static final int VERSION = 1;
+    private static final String FILE_EXTENSION = ".landscape";
+    private static final String CONSTRAINT_INDEX_EXTENSION = ".constraint";
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+
+    private final Path directory;
+    // null for the values in a double[] on the heap
+    private final LandscapeStore.Encoding encoding;
+    // landscapes already loaded by this process, values are shared read only
+    private final Map<String, SoftReference<Landscape>> loaded = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    // ConstraintIndexes are small (2 bits per patch) and kept for the whole process
+    private final Map<String, ConstraintIndex> constraintIndexes = new ConcurrentHashMap<>();
+
+    private final AtomicInteger memoryHits = new AtomicInteger();
+    private final AtomicInteger fileHits = new AtomicInteger();
+    private final AtomicInteger builds = new AtomicInteger();
+
+    public LandscapeCache(Path directory) {
+        this(directory, null);
+    }
+
+    public LandscapeCache(Path directory, LandscapeStore.Encoding encoding) {
+        this.directory = directory;
+        this.encoding = encoding;
+    }
+
+    public Landscape get(LandscapeSpec spec) {
+        final String key = key(spec);
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            SoftReference<Landscape> reference = loaded.get(key);
+            Landscape landscape = reference == null ? null : reference.get();
+            if (landscape != null) {
+                memoryHits.incrementAndGet();
+                return landscape;
+            }
+            try {
+                Path file = directory.resolve(fileName(key, FILE_EXTENSION));
+                if (Files.exists(file)) {
+                    landscape = read(file, key, spec);
+                    fileHits.incrementAndGet();
+                } else {
+                    landscape = LandscapeGenerator.build(spec);
+                    write(file, key, landscape);
+                    builds.incrementAndGet();
+                    if (encoding == LandscapeStore.Encoding.DOUBLE) {
+                        landscape = read(file, key, spec);
+                    }
+                }
+                if (encoding != null && landscape.getStore() == null) {
+                    landscape = new Landscape(landscape.getMinPxcor(), landscape.getMaxPxcor(),
+                            landscape.getMinPycor(), landscape.getMaxPycor(),
+                            LandscapeStore.encode(landscape, spec, encoding));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            loaded.put(key, new SoftReference<>(landscape));
+            return landscape;
+        }
+    }
+
+    // the ConstraintIndex of the constraint for the world of the landscape, stored next to the landscapes
+    public ConstraintIndex getConstraintIndex(int constraint, Landscape landscape) {
+        final String key = "constraint " + constraint + '|' + landscape.getMinPxcor() + '|' +
+                landscape.getMaxPxcor() + '|' + landscape.getMinPycor() + '|' + landscape.getMaxPycor();
+        return constraintIndexes.computeIfAbsent(key, k -> {
+            try {
+                Path file = directory.resolve(fileName(k, CONSTRAINT_INDEX_EXTENSION));
+                if (Files.exists(file)) {
+                    ConstraintIndex index = ConstraintIndex.read(file);
+                    if (!index.matches(constraint, landscape)) {
+                        throw new IOException("constraint index file " + file + " belongs to a different key");
+                    }
+                    return index;
+                }
+                ConstraintIndex index = ConstraintIndex.build(constraint, landscape);
+                Files.createDirectories(directory);
+                index.write(file);
+                return index;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public int getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public int getFileHits() {
+        return fileHits.get();
+    }
+
+    public int getBuilds() {
+        return builds.get();
+    }
+
+    public LandscapeStore.Encoding getEncoding() {
+        return encoding;
+    }
+
+    // landscapes of this process still in memory, the bytes of their values and the bytes as double[]; and the
+    // direct and mapped buffers of the JVM (landscape stores and other users)
+    public String getMemoryStatistics() {
+        int landscapes = 0;
+        long bytes = 0;
+        long doubleBytes = 0;
+        for (SoftReference<Landscape> reference : loaded.values()) {
+            Landscape landscape = reference.get();
+            if (landscape != null) {
+                landscapes++;
+                bytes += landscape.getBytes();
+                doubleBytes += (long) landscape.getWidth() * landscape.getHeight() * Double.BYTES;
+            }
+        }
+        StringBuilder statistics = new StringBuilder(String.format("%d landscapes in memory, %.1f MB as %s " +
+                        "(%.1f MB as double[])", landscapes, bytes / 1e6,
+                encoding == null ? "double[]" : encoding.name().toLowerCase(), doubleBytes / 1e6));
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (!"direct".equals(pool.getName()) && !"mapped".equals(pool.getName())) {
+                continue;
+            }
+            statistics.append(String.format(", %s buffers %.1f MB", pool.getName(), pool.getMemoryUsed() / 1e6));
+        }
+        return statistics.toString();
+    }
+
+    // the values only depend on the constraint settings if constraints are used
+    static String key(LandscapeSpec spec) {
+        StringBuilder key = new StringBuilder();
+        key.append(spec.getFitnessFunction());
+        key.append('|').append(spec.getMinPxcor()).append('|').append(spec.getMaxPxcor());
+        key.append('|').append(spec.getMinPycor()).append('|').append(spec.getMaxPycor());
+        if (spec.isUseConstraint()) {
+            key.append('|').append(spec.getConstraint());
+            if (spec.isPenalty()) {
+                key.append('|').append(ParamConfig.CONSTRAINT_HANDLING_PENALTY);
+                key.append('|').append(spec.getConstraintR());
+            } else {
+                key.append('|').append(ParamConfig.CONSTRAINT_HANDLING_REJECTION);
+            }
+        }
+        return key.toString();
+    }
+
+    private static String fileName(String key, String extension) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (int i = 0; i < 12; i++) {
+                name.append(String.format("%02x", hash[i]));
+            }
+            return name.append(extension).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int headerSize(byte[] key) {
+        int size = 4 * 3 + key.length + 4 * 5;
+        return (size + 7) & ~7;
+    }
+
+    private Landscape read(Path file, String key, LandscapeSpec spec) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, 3 * Integer.BYTES);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("not a landscape cache file: " + file);
+            }
+            byte[] storedKey = new byte[header.getInt()];
+            header = readFully(channel, 3 * Integer.BYTES, storedKey.length + 5 * Integer.BYTES);
+            header.get(storedKey);
+            if (!key.equals(new String(storedKey, StandardCharsets.UTF_8))) {
+                throw new IOException("landscape cache file " + file + " belongs to a different key");
+            }
+            int minPxcor = header.getInt();
+            int maxPxcor = header.getInt();
+            int minPycor = header.getInt();
+            int maxPycor = header.getInt();
+            int trueBestIndex = header.getInt();
+            final int size = (maxPxcor - minPxcor + 1) * (maxPycor - minPycor + 1);
+            final long position = headerSize(storedKey);
+            if (channel.size() < position + (long) size * Double.BYTES) {
+                throw new IOException("landscape cache file " + file + " is truncated");
+            }
+            if (encoding == LandscapeStore.Encoding.DOUBLE) {
+                // the mapping stays valid after the channel is closed
+                return new Landscape(minPxcor, maxPxcor, minPycor, maxPycor, LandscapeStore.doubles(
+                        channel.map(FileChannel.MapMode.READ_ONLY, position, (long) size * Double.BYTES), spec,
+                        trueBestIndex));
+            }
+
+            // read in blocks straight into the array, the file is not mapped for a copy on the heap
+            final double[] values = new double[size];
+            final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            int index = 0;
+            while (index < size) {
+                final int count = Math.min(size - index, READ_BUFFER_SIZE / Double.BYTES);
+                buffer.clear().limit(count * Double.BYTES);
+                readFully(channel, position + (long) index * Double.BYTES, buffer);
+                buffer.flip();
+                buffer.asDoubleBuffer().get(values, index, count);
+                index += count;
+            }
+            return new Landscape(minPxcor, maxPxcor, minPycor, maxPycor, values, trueBestIndex);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int bytes) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, position, buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void readFully(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("unexpected end of the landscape cache file");
+            }
+        }
+    }
+
+    // written to a temporary file first, so concurrent readers never see a partial file
+    private void write(Path file, String key, Landscape landscape) throws IOException {
+        Files.createDirectories(directory);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(headerSize(keyBytes)).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(keyBytes.length);
+        header.put(keyBytes);
+        header.putInt(landscape.getMinPxcor());
+        header.putInt(landscape.getMaxPxcor());
+        header.putInt(landscape.getMinPycor());
+        header.putInt(landscape.getMaxPycor());
+        header.putInt(landscape.getTrueBestIndex());
+
+        ByteBuffer values = ByteBuffer.allocate(landscape.getValues().length * Double.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        values.asDoubleBuffer().put(landscape.getValues());
+
+        Path temporaryFile = Files.createTempFile(directory, "landscape", ".tmp");
+        try (OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+            outputStream.write(header.array());
+            outputStream.write(values.array());
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
@@ -0,0 +1,215 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// builds the same Landscape as LandscapeBuilder (the scalar reference) bit for bit, for the functions of
+// ParamConfig.FITNESS_FUNCTIONS:
+// - the functions are separable, the StrictMath terms are evaluated once per column and per row instead of per patch
+// - the grid is split into tiles of ROWS_BY_TASK rows (rows are contiguous in the values) across a ForkJoinPool
+// - first pass: the tiles are evaluated together with min / max by a LandscapeKernel, reduced as a tree
+// - second pass: the tiles are normalised by the kernel and constrained, the first largest value (argMax of the
+//   reference) is reduced as a tree too; the left tile wins ties
+public final class LandscapeGenerator {
+
+    public static final String KERNEL_SCALAR = "scalar";
+    public static final String KERNEL_VECTOR = "vector";
+
+    // rows of a task that is not split any further
+    private static final int ROWS_BY_TASK = 16;
+
+    // -Dlandscape.kernel=scalar to use the ScalarLandscapeKernel even if the vector kernel is available
+    private static final LandscapeKernel KERNEL = defaultKernel();
+
+    private LandscapeGenerator() {
+    }
+
+    public static Landscape build(LandscapeSpec spec) {
+        return build(spec, KERNEL, ForkJoinPool.commonPool());
+    }
+
+    public static Landscape build(LandscapeSpec spec, LandscapeKernel kernel, ForkJoinPool pool) {
+        final int function = function(spec.getFitnessFunction());
+        final double[] xTerms = terms(function, spec.getMinPxcor(), spec.getMaxPxcor());
+        final double[] yTerms = terms(function, spec.getMinPycor(), spec.getMaxPycor());
+        final double[] values = new double[xTerms.length * yTerms.length];
+
+        double[] minMax = pool.invoke(new EvaluateRows(kernel, function, xTerms, yTerms, values, 0, yTerms.length));
+        int trueBestIndex = pool.invoke(new NormalizeRows(kernel, spec, values, minMax[0], minMax[1] - minMax[0], 0,
+                yTerms.length));
+        return new Landscape(spec.getMinPxcor(), spec.getMaxPxcor(), spec.getMinPycor(), spec.getMaxPycor(),
+                values, trueBestIndex);
+    }
+
+    public static LandscapeKernel getKernel() {
+        return KERNEL;
+    }
+
+    // KERNEL_SCALAR or KERNEL_VECTOR, IllegalStateException if the vector kernel is not available
+    public static LandscapeKernel kernel(String name) {
+        if (KERNEL_SCALAR.equals(name)) {
+            return new ScalarLandscapeKernel();
+        }
+        if (!KERNEL_VECTOR.equals(name)) {
+            throw new IllegalArgumentException("kernel has to be " + KERNEL_SCALAR + " or " + KERNEL_VECTOR +
+                    " but was " + name);
+        }
+        try {
+            // only compiled by the vector profile and only linkable with --add-modules jdk.incubator.vector
+            return (LandscapeKernel) Class.forName("VectorLandscapeKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("VectorLandscapeKernel not available, build with -Pvector and run " +
+                    "with --add-modules jdk.incubator.vector", e);
+        }
+    }
+
+    private static LandscapeKernel defaultKernel() {
+        if (KERNEL_SCALAR.equals(System.getProperty("landscape.kernel"))) {
+            return new ScalarLandscapeKernel();
+        }
+        try {
+            return kernel(KERNEL_VECTOR);
+        } catch (IllegalStateException e) {
+            return new ScalarLandscapeKernel();
+        }
+    }
+
+    private static int function(String fitnessFunction) {
+        switch (fitnessFunction) {
+            case ParamConfig.FITNESS_FUNCTION_SUBERT:
+                return LandscapeKernel.SHUBERT;
+            case ParamConfig.FITNESS_FUNCTION_BOOTH:
+                return LandscapeKernel.BOOTH;
+            case ParamConfig.FITNESS_FUNCTION_SCHWEFEL:
+                return LandscapeKernel.SCHWEFEL;
+            default:
+                throw new IllegalArgumentException("fitnessFunction value " + fitnessFunction +
+                        " not allowed use one of :" + ParamConfig.FITNESS_FUNCTIONS);
+        }
+    }
+
+    // separable term of every coordinate from min to max, the coordinate itself for BOOTH
+    private static double[] terms(int function, int min, int max) {
+        double[] terms = new double[max - min + 1];
+        for (int i = 0; i < terms.length; i++) {
+            int coordinate = min + i;
+            switch (function) {
+                case LandscapeKernel.SHUBERT:
+                    terms[i] = FitnessFunctions.shubertTerm(coordinate);
+                    break;
+                case LandscapeKernel.SCHWEFEL:
+                    terms[i] = FitnessFunctions.schwefelTerm(coordinate);
+                    break;
+                default:
+                    terms[i] = coordinate;
+                    break;
+            }
+        }
+        return terms;
+    }
+
+    // evaluates rows from <= row < to and reports their {min, max}
+    private static final class EvaluateRows extends RecursiveTask<double[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final LandscapeKernel kernel;
+        private final int function;
+        private final double[] xTerms;
+        private final double[] yTerms;
+        private final double[] values;
+        private final int from;
+        private final int to;
+
+        EvaluateRows(LandscapeKernel kernel, int function, double[] xTerms, double[] yTerms, double[] values,
+                     int from, int to) {
+            this.kernel = kernel;
+            this.function = function;
+            this.xTerms = xTerms;
+            this.yTerms = yTerms;
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= ROWS_BY_TASK) {
+                double[] minMax = new double[]{Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+                for (int row = from; row < to; row++) {
+                    kernel.evaluateRow(function, xTerms, yTerms[row], values, row * xTerms.length, minMax);
+                }
+                return minMax;
+            }
+            int middle = (from + to) >>> 1;
+            EvaluateRows left = new EvaluateRows(kernel, function, xTerms, yTerms, values, from, middle);
+            left.fork();
+            double[] right = new EvaluateRows(kernel, function, xTerms, yTerms, values, middle, to).compute();
+            double[] minMax = left.join();
+            minMax[0] = Math.min(minMax[0], right[0]);
+            minMax[1] = Math.max(minMax[1], right[1]);
+            return minMax;
+        }
+
+    }
+
+    // normalises and constrains rows from <= row < to like LandscapeBuilder.normalizeAndConstrain and reports the
+    // first index of their largest value
+    private static final class NormalizeRows extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final LandscapeKernel kernel;
+        private final LandscapeSpec spec;
+        private final double[] values;
+        private final double min;
+        private final double range;
+        private final int from;
+        private final int to;
+
+        NormalizeRows(LandscapeKernel kernel, LandscapeSpec spec, double[] values, double min, double range,
+                      int from, int to) {
+            this.kernel = kernel;
+            this.spec = spec;
+            this.values = values;
+            this.min = min;
+            this.range = range;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            final int width = spec.getWidth();
+            if (to - from <= ROWS_BY_TASK) {
+                kernel.normalize(values, from * width, to * width, min, range);
+                final int constraint = spec.isUseConstraint() ? Constraints.id(spec.getConstraint()) :
+                        Constraints.NONE;
+                if (constraint != Constraints.NONE) {
+                    constrain(constraint, width);
+                }
+                return LandscapeBuilder.argMax(values, from * width, to * width);
+            }
+            int middle = (from + to) >>> 1;
+            NormalizeRows left = new NormalizeRows(kernel, spec, values, min, range, from, middle);
+            left.fork();
+            int right = new NormalizeRows(kernel, spec, values, min, range, middle, to).compute();
+            int best = left.join();
+            return values[right] > values[best] ? right : best;
+        }
+
+        private void constrain(int constraint, int width) {
+            final boolean penalty = spec.isPenalty();
+            for (int row = from; row < to; row++) {
+                final int pycor = row + spec.getMinPycor();
+                for (int column = 0; column < width; column++) {
+                    if (Constraints.violates(constraint, column + spec.getMinPxcor(), pycor, spec.getMaxPxcor(),
+                            spec.getMaxPycor())) {
+                        final int i = row * width + column;
+                        values[i] = penalty ? values[i] + spec.getConstraintR() : 0;
+                    }
+                }
+            }
+        }
+
+    }
+
+}
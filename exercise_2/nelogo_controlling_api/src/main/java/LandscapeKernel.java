@@ -0,0 +1,19 @@
+// row operations of LandscapeGenerator, every value has to be the same as the one of LandscapeBuilder bit for bit:
+// only lanewise +, -, *, / and min / max are allowed (no fused multiply add), the operand order is the one of
+// FitnessFunctions
+public interface LandscapeKernel {
+
+    int SHUBERT = 0;
+    int BOOTH = 1;
+    int SCHWEFEL = 2;
+
+    // values[offset + i] = function of xTerms[i] and yTerm for the whole row; minMax {min, max} is updated
+    // xTerms / yTerm are the separable terms of FitnessFunctions, the coordinates for BOOTH
+    void evaluateRow(int function, double[] xTerms, double yTerm, double[] values, int offset, double[] minMax);
+
+    // values[i] = (values[i] - min) / range for from <= i < to
+    void normalize(double[] values, int from, int to, double min, double range);
+
+    String getName();
+
+}
@@ -0,0 +1,35 @@
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// everything the normalised patch values of the model depend on
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LandscapeSpec {
+
+    private String fitnessFunction;
+    private boolean useConstraint;
+    private String constraintHandlingMethod;
+    private String constraint;
+    private double constraintR;
+    private int minPxcor;
+    private int maxPxcor;
+    private int minPycor;
+    private int maxPycor;
+
+    public int getWidth() {
+        return maxPxcor - minPxcor + 1;
+    }
+
+    public int getHeight() {
+        return maxPycor - minPycor + 1;
+    }
+
+    public boolean isPenalty() {
+        return ParamConfig.CONSTRAINT_HANDLING_PENALTY.equals(constraintHandlingMethod);
+    }
+
+}
@@ -0,0 +1,212 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// the values of a Landscape in one flat read only buffer outside the heap (direct or memory mapped), index like
+// Landscape; only absolute reads are used, so one store is shared by all threads
+// - DOUBLE: 8 bytes per patch, the exact values (the memory mapped LandscapeCache file)
+// - FLOAT: 4 bytes per patch, values rounded to float
+// - SHORT: 2 bytes per patch, bit 15 marks the patches in the constraint region, bits 0 to 14 are a level of a linear
+//   scale from the smallest to the largest value of the region (or of the patches outside of it); every patch of a
+//   region decodes into the value range of that region, the region of Rejection Method (all 0) stays exactly 0
+// FLOAT and SHORT keep the exact true best value: a reserved code is only used by patches with exactly that value,
+// every other patch decodes to a smaller value, so optimum_reached is not changed by the encoding
+public final class LandscapeStore {
+
+    public enum Encoding {
+        DOUBLE(Double.BYTES), FLOAT(Float.BYTES), SHORT(Short.BYTES);
+
+        private final int bytes;
+
+        Encoding(int bytes) {
+            this.bytes = bytes;
+        }
+
+        public int getBytes() {
+            return bytes;
+        }
+    }
+
+    private static final int CONSTRAINED = 0x8000;
+    private static final int LEVELS = 0x7fff;
+    // level of the true best value, the scale uses 0 to BEST - 1
+    private static final int BEST = LEVELS;
+    private static final float FLOAT_BEST = Float.NaN;
+
+    private final Encoding encoding;
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int trueBestIndex;
+    private final double trueBestValue;
+    // SHORT: smallest value and step of the scale outside [0] and inside [1] of the constraint region
+    private final double[] low;
+    private final double[] step;
+    // DOUBLE and FLOAT: region of the patches, Constraints.NONE without constraint
+    private final int constraint;
+    private final int minPxcor;
+    private final int maxPxcor;
+    private final int minPycor;
+    private final int maxPycor;
+
+    private LandscapeStore(Encoding encoding, ByteBuffer buffer, int size, int trueBestIndex, double trueBestValue,
+                           double[] low, double[] step, LandscapeSpec spec) {
+        if (buffer.capacity() < size * encoding.getBytes()) {
+            throw new IllegalArgumentException("expected " + size * encoding.getBytes() + " bytes for " + size +
+                    " values but got " + buffer.capacity());
+        }
+        this.encoding = encoding;
+        this.buffer = buffer.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        this.size = size;
+        this.trueBestIndex = trueBestIndex;
+        this.trueBestValue = trueBestValue;
+        this.low = low;
+        this.step = step;
+        this.constraint = spec.isUseConstraint() ? Constraints.id(spec.getConstraint()) : Constraints.NONE;
+        this.minPxcor = spec.getMinPxcor();
+        this.maxPxcor = spec.getMaxPxcor();
+        this.minPycor = spec.getMinPycor();
+        this.maxPycor = spec.getMaxPycor();
+    }
+
+    // doubles of the values in little endian byte order, e.g. a slice of a memory mapped LandscapeCache file
+    public static LandscapeStore doubles(ByteBuffer values, LandscapeSpec spec, int trueBestIndex) {
+        final int size = spec.getWidth() * spec.getHeight();
+        final double trueBestValue = values.order(ByteOrder.LITTLE_ENDIAN).getDouble(trueBestIndex * Double.BYTES);
+        return new LandscapeStore(Encoding.DOUBLE, values, size, trueBestIndex, trueBestValue, null, null, spec);
+    }
+
+    // the values of landscape (built for spec) in a new direct buffer
+    public static LandscapeStore encode(Landscape landscape, LandscapeSpec spec, Encoding encoding) {
+        final int size = landscape.getWidth() * landscape.getHeight();
+        if (size != spec.getWidth() * spec.getHeight()) {
+            throw new IllegalArgumentException("the landscape was not built for " + spec);
+        }
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(size * encoding.getBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        final double best = landscape.getTrueBestValue();
+        switch (encoding) {
+            case DOUBLE:
+                for (int i = 0; i < size; i++) {
+                    buffer.putDouble(i * Double.BYTES, landscape.value(i));
+                }
+                return new LandscapeStore(encoding, buffer, size, landscape.getTrueBestIndex(), best, null, null,
+                        spec);
+            case FLOAT:
+                for (int i = 0; i < size; i++) {
+                    buffer.putFloat(i * Float.BYTES, toFloat(landscape.value(i), best));
+                }
+                return new LandscapeStore(encoding, buffer, size, landscape.getTrueBestIndex(), best, null, null,
+                        spec);
+            default:
+                return encodeShorts(landscape, spec, buffer, size, best);
+        }
+    }
+
+    private static LandscapeStore encodeShorts(Landscape landscape, LandscapeSpec spec, ByteBuffer buffer, int size,
+                                               double best) {
+        final int constraint = spec.isUseConstraint() ? Constraints.id(spec.getConstraint()) : Constraints.NONE;
+        final boolean[] constrained = new boolean[size];
+        // range of the values of both regions, the patches with the true best value are left out
+        final double[] low = new double[]{Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        final double[] high = new double[]{Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int i = 0; i < size; i++) {
+            constrained[i] = constraint != Constraints.NONE && Constraints.violates(constraint,
+                    landscape.pxcor(i), landscape.pycor(i), spec.getMaxPxcor(), spec.getMaxPycor());
+            final double value = landscape.value(i);
+            if (value != best) {
+                final int region = constrained[i] ? 1 : 0;
+                low[region] = Math.min(low[region], value);
+                high[region] = Math.max(high[region], value);
+            }
+        }
+        final double[] step = new double[2];
+        for (int region = 0; region < 2; region++) {
+            step[region] = high[region] > low[region] ? (high[region] - low[region]) / (BEST - 1) : 0;
+        }
+        for (int i = 0; i < size; i++) {
+            final double value = landscape.value(i);
+            final int region = constrained[i] ? 1 : 0;
+            int level = BEST;
+            if (value != best) {
+                level = step[region] == 0 ? 0 : (int) Math.round((value - low[region]) / step[region]);
+                // rounding must not reach the true best value
+                while (level > 0 && low[region] + level * step[region] >= best) {
+                    level--;
+                }
+            }
+            buffer.putShort(i * Short.BYTES, (short) (constrained[i] ? CONSTRAINED | level : level));
+        }
+        return new LandscapeStore(Encoding.SHORT, buffer, size, landscape.getTrueBestIndex(), best, low, step, spec);
+    }
+
+    // the nearest float, below the true best value for all other values
+    private static float toFloat(double value, double best) {
+        if (value == best) {
+            return FLOAT_BEST;
+        }
+        float rounded = (float) value;
+        while (rounded >= best) {
+            rounded = Math.nextDown(rounded);
+        }
+        return rounded;
+    }
+
+    public double value(int index) {
+        switch (encoding) {
+            case DOUBLE:
+                return buffer.getDouble(index << 3);
+            case FLOAT: {
+                final float value = buffer.getFloat(index << 2);
+                return value != value ? trueBestValue : value;
+            }
+            default: {
+                final int code = buffer.getShort(index << 1);
+                final int level = code & LEVELS;
+                if (level == BEST) {
+                    return trueBestValue;
+                }
+                final int region = (code & CONSTRAINED) >>> 15;
+                return low[region] + level * step[region];
+            }
+        }
+    }
+
+    // whether the patch is in the constraint region (the value was changed by the constraint handling)
+    public boolean isConstrained(int index) {
+        if (encoding == Encoding.SHORT) {
+            return (buffer.getShort(index << 1) & CONSTRAINED) != 0;
+        }
+        final int width = maxPxcor - minPxcor + 1;
+        return constraint != Constraints.NONE && Constraints.violates(constraint, index % width + minPxcor,
+                index / width + minPycor, maxPxcor, maxPycor);
+    }
+
+    // largest difference of a decoded value to the value it was encoded from, 0 for DOUBLE
+    public double maxError(Landscape landscape) {
+        double max = 0;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, Math.abs(value(i) - landscape.value(i)));
+        }
+        return max;
+    }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getTrueBestIndex() {
+        return trueBestIndex;
+    }
+
+    public double getTrueBestValue() {
+        return trueBestValue;
+    }
+
+    // bytes of the values outside the heap
+    public long getBytes() {
+        return (long) size * encoding.getBytes();
+    }
+
+}
@@ -0,0 +1,144 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// runs every experiment twice with the same seed, on the landscapes of a LandscapeCache with a LandscapeStore
+// encoding and on the full precision ones, and counts the runs whose results differ; the results of the store are
+// reported, so the output is the one of a run without verification
+// the random numbers drawn do not depend on the landscape values, so both runs only differ by the values
+public class LandscapeStoreVerifier implements SimulationBackend {
+
+    // counts of all verifiers of a sweep (one per worker), thread safe
+    public static final class Differences {
+        private int runs;
+        private int differentFitness;
+        private double maxFitnessDifference;
+        private int differentOptimumReached;
+        private int differentIterationsToOpt;
+        private int differentStopReason;
+
+        private synchronized void add(Experiment stored, Experiment full, String storedReason, String fullReason) {
+            runs++;
+            double difference = Math.abs(stored.getFitness() - full.getFitness());
+            if (difference != 0) {
+                differentFitness++;
+                maxFitnessDifference = Math.max(maxFitnessDifference, difference);
+            }
+            differentOptimumReached += stored.isOptimumReached() != full.isOptimumReached() ? 1 : 0;
+            differentIterationsToOpt +=
+                    stored.getNumberOfIterationsUntilFitness() != full.getNumberOfIterationsUntilFitness() ? 1 : 0;
+            differentStopReason += storedReason != null && !storedReason.equals(fullReason) ? 1 : 0;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("store verification: %d runs, different fitness in %d (at most %.3g), " +
+                            "optimum_reached in %d, iterations_to_opt in %d, stop_reason in %d", runs,
+                    differentFitness, maxFitnessDifference, differentOptimumReached, differentIterationsToOpt,
+                    differentStopReason);
+        }
+    }
+
+    private final JavaPsoBackend stored;
+    private final JavaPsoBackend full;
+    private final Differences differences;
+    // stop reasons of the last run, compared on report
+    private String lastStopReason;
+    private String lastFullStopReason;
+
+    // storeCache has an encoding, fullCache none
+    public LandscapeStoreVerifier(long seed, LandscapeCache storeCache, LandscapeCache fullCache,
+                                  Differences differences) {
+        if (storeCache.getEncoding() == null || fullCache.getEncoding() != null) {
+            throw new IllegalArgumentException("the first cache needs a LandscapeStore encoding, the second none");
+        }
+        this.stored = new JavaPsoBackend(seed, storeCache);
+        this.full = new JavaPsoBackend(seed, fullCache);
+        this.differences = differences;
+    }
+
+    @Override
+    public void resizeWorld(int minPxcor, int maxPxcor, int minPycor, int maxPycor) {
+        stored.resizeWorld(minPxcor, maxPxcor, minPycor, maxPycor);
+        full.resizeWorld(minPxcor, maxPxcor, minPycor, maxPycor);
+    }
+
+    @Override
+    public void setParameter(String name, Object value) {
+        stored.setParameter(name, value);
+        full.setParameter(name, value);
+    }
+
+    @Override
+    public void seed(long seed) {
+        stored.seed(seed);
+        full.seed(seed);
+    }
+
+    @Override
+    public void setup() {
+        stored.setup();
+        full.setup();
+    }
+
+    @Override
+    public void setupAgents() {
+        stored.setupAgents();
+        full.setupAgents();
+    }
+
+    @Override
+    public void repeat() {
+        stored.repeat();
+        full.repeat();
+    }
+
+    @Override
+    public void run(int iterations) {
+        stored.run(iterations);
+        full.run(iterations);
+        lastStopReason = null;
+        lastFullStopReason = null;
+    }
+
+    @Override
+    public String run(int maxIterations, StopCriterion stopCriterion) {
+        lastStopReason = stored.run(maxIterations, stopCriterion);
+        lastFullStopReason = full.run(maxIterations, stopCriterion);
+        return lastStopReason;
+    }
+
+    @Override
+    public void report(Experiment experiment) {
+        // copied before the report, which only sets optimumReached if it was reached
+        Experiment fullExperiment = experiment.toBuilder().build();
+        stored.report(experiment);
+        full.report(fullExperiment);
+        differences.add(experiment, fullExperiment, lastStopReason, lastFullStopReason);
+    }
+
+    @Override
+    public String[] runBatch(List<Experiment> experiments, int maxIterations, StopCriterion stopCriterion) {
+        final List<Experiment> fullExperiments = new ArrayList<>();
+        for (Experiment experiment : experiments) {
+            fullExperiments.add(experiment.toBuilder().build());
+        }
+        final String[] reasons = stored.runBatch(experiments, maxIterations, stopCriterion);
+        final String[] fullReasons = full.runBatch(fullExperiments, maxIterations, stopCriterion);
+        for (int i = 0; i < experiments.size(); i++) {
+            differences.add(experiments.get(i), fullExperiments.get(i), reasons[i], fullReasons[i]);
+        }
+        return reasons;
+    }
+
+    @Override
+    public String getStatistics() {
+        return differences.toString();
+    }
+
+    @Override
+    public void dispose() {
+        stored.dispose();
+        full.dispose();
+    }
+
+}
@@ -0,0 +1,53 @@
+import java.util.Map;
+
+// visualisation free variants of the model procedures for batch runs on a HeadlessWorkspace
+// same PSO semantics and the same random numbers in the same order as the model procedures:
+// - iterate without handle-visualation-options and update-highlight; the ask over the turtles is kept with an
+//   empty block because ask shuffles the turtles with the random generator of the run
+// - setup without update-highlight, initialize-topology without the if per fitness function and without
+//   scale-color and the red color of patches violating a constraint (the asks over the patches are kept)
+public final class LeanModel {
+
+    // "stop" of iterate only skips the tick, an inlined stop would end the whole command
+    public static final String ITERATE = "update-particle-positions update-personal-best update-global-best " +
+            "ask turtles [ ] set iterations (iterations + 1) " +
+            "if global-best-val != [val] of true-best-patch [ tick ]";
+
+    // reporter of the model by fitness_function
+    private static final Map<String, String> FITNESS_REPORTERS = Map.of(
+            "Example function", "example_function",
+            ParamConfig.FITNESS_FUNCTION_SUBERT, "shubert_function",
+            ParamConfig.FITNESS_FUNCTION_BOOTH, "booths_function",
+            ParamConfig.FITNESS_FUNCTION_SCHWEFEL, "schwefel_function",
+            "Fitness function 4", "fittness_function_4",
+            "Fitness function 5", "fittness_function_5",
+            "Fitness function 6", "fittness_function_6");
+
+    private LeanModel() {
+    }
+
+    public static boolean supports(String fitnessFunction) {
+        return FITNESS_REPORTERS.containsKey(fitnessFunction);
+    }
+
+    // initialize-topology for the fitness function, see supports
+    public static String initializeTopology(String fitnessFunction) {
+        String reporter = FITNESS_REPORTERS.get(fitnessFunction);
+        if (reporter == null) {
+            throw new IllegalArgumentException("no fitness reporter for " + fitnessFunction);
+        }
+        return "set max-x max [pxcor] of patches set max-y max [pycor] of patches " +
+                "ask patches [ set val " + reporter + " pxcor pycor ] " +
+                "let min-val min [val] of patches let max-val max [val] of patches " +
+                "ask patches [ set val (val - min-val) / (max-val - min-val) " +
+                "if (violates pxcor pycor) and (constraints = TRUE) " +
+                "[ ifelse (constraint_handling_method = \"Penalty Method\") [ set val val + constraint_r ] " +
+                "[ set val 0 ] ] ] " +
+                "ask max-one-of patches [val] [ set true-best-patch self ]";
+    }
+
+    public static String run(int iterations) {
+        return "repeat " + iterations + " [ " + ITERATE + " ]";
+    }
+
+}
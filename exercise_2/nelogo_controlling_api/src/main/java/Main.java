@@ -4,10 +4,17 @@ import org.nlogo.workspace.Controllable;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 
 // Netlogo User Manual: http://ccl.northwestern.edu/netlogo/docs/index2.html
@@ -17,19 +24,27 @@ public class Main {
     private static final boolean USE_HEADLESS = true;
 
     private static final int ITERATIONS_BY_EXPERIMENT = 10;
-    private static final int ITERATIONS = 10;
-    private static final int MAX_ITERATIONS_BY_RUN = 500;
+    static final int ITERATIONS = 10;
+    static final int MAX_ITERATIONS_BY_RUN = 500;
     private static final String MODEL_FILE_NAME = "PSO_NL_Template.nlogo";
     public static final String OUTPUT_FILE_NAME = "results";
 
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+    static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
 
     private static Controllable app;
 
     public static void main(String[] argv) {
         try {
-            loadNetLogoModel(argv);
-            runAllExperiments();
+            RunOptions options = RunOptions.parse(argv);
+            if (options.isWorker()) {
+                runWorker(options);
+                return;
+            }
+            if (!options.isJavaBackend() && !options.isCoordinator() && !options.isSearch() &&
+                    (!USE_HEADLESS || options.getThreads() <= 1)) {
+                loadNetLogoModel(argv);
+            }
+            runAllExperiments(options);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -37,7 +52,7 @@ public class Main {
 
     // load the Model from the MODEL_FILE_NAME value
     private static void loadNetLogoModel(String[] argv) throws InvocationTargetException, InterruptedException {
-        String modelFilePath = Paths.get(MODEL_FILE_NAME).toAbsolutePath().toString();
+        String modelFilePath = modelFilePath();
 
         if (!USE_HEADLESS) {
             App.main(argv);
@@ -64,135 +79,293 @@ public class Main {
     }
 
     // loop for all experiments
-    private static void runAllExperiments() throws IOException {
+    private static void runAllExperiments(RunOptions options) throws IOException {
         // setup experiments and output writer
         //        ExperimentSetup.setup();
         //        ExperimentSetup.saveAsCSV();
         //        ExperimentSetup.validate();
 
-        final List<Setup> setups = ExperimentSetup.createSetups();
-        final List<ExperimentDefinition> experiments = ExperimentSetup.createExperiments();
+        // Setups and ExperimentDefinitions are created on access, numbers are the same in every shard
+        final List<Setup> setups = ExperimentGrid.DEFAULT.setups(options.getShardIndex(), options.getShardCount());
+        final List<ExperimentDefinition> experiments = ExperimentGrid.DEFAULT.experiments();
+        System.out.printf("Running %d of %d setups (shard %d/%d) with %d experiments each%n", setups.size(),
+                ExperimentGrid.DEFAULT.getNumberOfSetups(), options.getShardIndex(), options.getShardCount(),
+                experiments.size());
+        if (!options.isJavaBackend()) {
+            System.out.printf("NetLogo setup: %s%n", netLogoSetup(options));
+        }
 
+        final CompletedRuns completedRuns = completedRuns(options);
         String dateTime = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd-MM_HH-mm-ss"));
-        String outputFilePath = Paths.get(OUTPUT_FILE_NAME + dateTime + ".csv").toAbsolutePath().toString();
-        OutputWriter outputWriter = new OutputWriter(outputFilePath, true);
+        final ResultSink outputFile = createResultSink(options, dateTime);
+
+        // per configuration statistics of all results, readable during the sweep
+        final StreamingAggregator aggregator = options.isSummary() ? new StreamingAggregator(outputFile,
+                Paths.get(outputBaseName(options, dateTime) + "_summary.csv").toAbsolutePath(),
+                TimeUnit.SECONDS.toMillis(options.getSummarySeconds())) : null;
+        final ResultSink resultSink = aggregator != null ? aggregator : outputFile;
+        if (aggregator != null && options.getResume() != null) {
+            aggregator.addResults(Paths.get(options.getResume()).toAbsolutePath());
+        }
+
+        // with adaptive replications all results pass the AdaptiveReplication, which decides on the next iteration
+        final AdaptiveReplication adaptive = options.isAdaptive() ? new AdaptiveReplication(resultSink,
+                options.getMinReplications(), options.getMaxReplications(), options.getSuccessRateHalfWidth(),
+                options.getFitnessHalfWidth(), options.getIterationsToOptHalfWidth()) : null;
+        final ResultSink outputWriter = adaptive != null ? adaptive : resultSink;
+        final RunFilter runFilter = adaptive != null ? completedRuns.and(adaptive) : completedRuns;
+        final int iterations = adaptive != null ? adaptive.getMaxReplications() : ITERATIONS;
+        final Path replicationsFile = Paths.get(outputBaseName(options, dateTime) + "_replications.csv")
+                .toAbsolutePath();
+        if (adaptive != null && options.getResume() != null) {
+            adaptive.addResults(Paths.get(options.getResume()).toAbsolutePath());
+        }
+
+        final LandscapeCache landscapeCache = landscapeCache(options);
+        final LandscapeCache fullLandscapeCache = fullLandscapeCache(options);
+        final LandscapeStoreVerifier.Differences storeDifferences = new LandscapeStoreVerifier.Differences();
+        final ResultCache resultCache = options.getResultCache() != null ?
+                ResultCache.open(Paths.get(options.getResultCache()).toAbsolutePath(), modelId(options)) : null;
+        if (resultCache != null) {
+            System.out.printf("Result cache %s: %d runs%n", options.getResultCache(), resultCache.getEntries());
+        }
 
         System.out.printf("Started: %s%n", LocalDateTime.now().format(DATE_TIME_FORMATTER));
 
-        for (int i = 1; i <= ITERATIONS; i++) {
-            for (Setup setup : setups) {
-                if (setup.getFitnessFunction().equals(ParamConfig.FITNESS_FUNCTION_SCHWEFEL)) {
-                    app.command("resize-world -512 512 -512 512");
-                } else {
-                    app.command("resize-world -100 100 -100 100");
+        if (options.isSearch()) {
+            // sampled configurations on growing budgets instead of the ExperimentDefinitions of the grid
+            final long seed = options.getSearchSeed() != null ? options.getSearchSeed() :
+                    ThreadLocalRandom.current().nextLong();
+            final ParameterSearch search = new ParameterSearch(options.getSearch(), options.getSearchEta(),
+                    options.getSearchRungs(), seed);
+            System.out.printf("Parameter search %s with seed %d: %d configurations per setup, rungs of%n",
+                    options.getSearch(), seed, search.configurations());
+            for (int rung = 0; rung < options.getSearchRungs(); rung++) {
+                System.out.printf("  %d: %d iterations x %d replications%n", rung, search.iterations(rung),
+                        search.replications(rung));
+            }
+            search.run(setups, backendFactory(options, landscapeCache, fullLandscapeCache, storeDifferences),
+                    options.getThreads(), options.getStopCriterion(), options.getSwarmsByBatch(), resultCache,
+                    options.isSeedRuns(), outputWriter);
+            System.out.printf("Parameter search: %s%n", search.getBudgetStatistics());
+            System.out.printf("Best parameter regions:%n%s", search.getRegions());
+        } else if (options.isCoordinator()) {
+            // Worker processes run the setups, results of all workers are written here
+            new Coordinator(options.getCoordinatorPort(), workUnits(1, iterations, setups, experiments, runFilter),
+                    experiments, iterations, outputWriter, runFilter,
+                    TimeUnit.SECONDS.toMillis(options.getLeaseSeconds()), options.getStopCriterion()).run();
+        } else if ((USE_HEADLESS || options.isJavaBackend()) && options.getThreads() > 1) {
+            ParallelRunner parallelRunner = new ParallelRunner(backendFactory(options, landscapeCache,
+                    fullLandscapeCache, storeDifferences),
+                    options.getThreads(), runFilter, options.getStopCriterion(), options.getSwarmsByBatch(),
+                    resultCache, options.isSeedRuns());
+            if (adaptive == null) {
+                parallelRunner.run(workUnits(1, iterations, setups, experiments, runFilter), experiments,
+                        iterations, setups.size(), outputWriter);
+            } else {
+                // the next iteration depends on all results of the previous one
+                for (int i = 1; i <= iterations; i++) {
+                    parallelRunner.run(workUnits(i, i, setups, experiments, runFilter), experiments, iterations,
+                            setups.size(), outputWriter);
+                    writeReplications(adaptive, replicationsFile);
                 }
-                app.command(
-                        setCommand(ParamConfig.NETLOGO_MAPPING.get("fitnessFunction"), setup.getFitnessFunction()));
-                app.command(
-                        setCommand(ParamConfig.NETLOGO_MAPPING.get("useConstraint"), setup.getUseConstraint()));
-                if (setup.getUseConstraint()) {
-                    app.command(setCommand(ParamConfig.NETLOGO_MAPPING.get("constraintHandlingMethod"),
-                            setup.getConstraintHandlingMethod()));
-                    app.command(setCommand(ParamConfig.NETLOGO_MAPPING.get("constraint"), setup.getConstraint()));
-                    app.command(
-                            setCommand(ParamConfig.NETLOGO_MAPPING.get("constraintR"), setup.getConstraintR()));
-
+            }
+        } else {
+            SimulationBackend backend = options.isJavaBackend() ?
+                    javaBackend(landscapeCache, fullLandscapeCache, storeDifferences) :
+                    new NetLogoBackend(app, NetLogoBackend.DEFAULT_BACKUP_FILE_NAME, landscapeCache,
+                            options.isSnapshots(), options.isLean());
+            ExperimentRunner runner = new ExperimentRunner(backend, runFilter, options.getStopCriterion(),
+                    options.getSwarmsByBatch(), resultCache, options.isSeedRuns());
+            if (adaptive == null) {
+                for (WorkUnit workUnit : workUnits(1, iterations, setups, experiments, runFilter)) {
+                    runner.runSetup(workUnit.getSetup(), experiments, workUnit.getIteration(), iterations,
+                            setups.size(), outputWriter);
                 }
-                app.command(
-                        setCommand(ParamConfig.NETLOGO_MAPPING.get("populationSize"), setup.getPopulationSize()));
-
-                setup();
-                System.out.printf("### Running setup: %s%n", setup);
-
-                for (ExperimentDefinition experimentDefinition : experiments) {
-                    final Experiment experiment = Experiment.builder()
-                            .fitnessFunction(setup.getFitnessFunction())
-                            .useConstraint(setup.getUseConstraint())
-                            .constraintHandlingMethod(
-                                    setup.getUseConstraint() ? setup.getConstraintHandlingMethod() : "")
-                            .constraint(setup.getUseConstraint() ? setup.getConstraint() : "")
-                            .constraintR(setup.getConstraintR())
-                            .populationSize(setup.getPopulationSize())
-                            .particleInertia(experimentDefinition.getParticleInertia())
-                            .personalConfidence(experimentDefinition.getPersonalConfidence())
-                            .swarmConfidence(experimentDefinition.getSwarmConfidence())
-                            .particleSpeedLimit(experimentDefinition.getParticleSpeedLimit())
-                            .number(experimentDefinition.getNumber() + (setup.getNumber() * 10000))
-                            .build();
-                    repeat();
-                    System.out.printf("%s: Start Experiment %d/%d, setup %d/%d, iteration %d/%d%n",
-                            LocalDateTime.now().format(DATE_TIME_FORMATTER), experiment.getNumber(),
-                            experiments.size(), setup.getNumber(), setups.size(), i, ITERATIONS);
-                    setParams(experiment.getParameters());
-                    run();
-                    report(experiment);
-
-                    System.out.printf(
-                            "%s: Finished Experiment %d/%d, setup %d/%d, iteration %d/%d: Optimum of '%f' was %s " +
-                                    "after %d iterations%n",
-                            LocalDateTime.now().format(DATE_TIME_FORMATTER), experiment.getNumber(),
-                            experiments.size(), setup.getNumber(), setups.size(), i, ITERATIONS,
-                            experiment.getOptimum(),
-                            experiment.isOptimumReached() ? "reached" :
-                                    "NOT reached, best value was '" + experiment.getFitness() + "'",
-                            experiment.getNumberOfIterationsUntilFitness());
-                    outputWriter.writeExperimentWithResult(experiment, i);
+            } else {
+                for (int i = 1; i <= iterations; i++) {
+                    for (WorkUnit workUnit : workUnits(i, i, setups, experiments, runFilter)) {
+                        runner.runSetup(workUnit.getSetup(), experiments, i, iterations, setups.size(),
+                                outputWriter);
+                    }
+                    writeReplications(adaptive, replicationsFile);
                 }
             }
-
+            ExperimentRunner.printWorldReuse(runner.getResizes(), runner.getResizesAvoided(),
+                    runner.getLandscapeBuilds(), runner.getLandscapeBuildsAvoided());
         }
 
         outputWriter.close();
+        if (resultCache != null) {
+            System.out.printf("Result cache: %s%n", resultCache.getStatistics());
+            resultCache.close();
+        }
+        if (landscapeCache != null) {
+            System.out.printf("Landscapes: %d built, %d loaded from cache files, %d reused from memory%n",
+                    landscapeCache.getBuilds(), landscapeCache.getFileHits(), landscapeCache.getMemoryHits());
+            System.out.printf("Landscape memory: %s%n", landscapeCache.getMemoryStatistics());
+        }
+        if (fullLandscapeCache != null) {
+            System.out.printf("Landscape %s%n", storeDifferences);
+        }
+
+    }
+
+    private static ResultSink createResultSink(RunOptions options, String dateTime) throws IOException {
+        if (options.isColumnarOutput()) {
+            return new ColumnarResultWriter(
+                    Paths.get(outputBaseName(options, dateTime) + ColumnarResultWriter.FILE_EXTENSION).toAbsolutePath(),
+                    ColumnarResultWriter.DEFAULT_BLOCK_ROWS, options.isCompressOutput());
+        }
+        final boolean append = options.getResume() != null;
+        String outputFilePath = append ? Paths.get(options.getResume()).toAbsolutePath().toString() :
+                Paths.get(outputBaseName(options, dateTime) + ".csv").toAbsolutePath().toString();
+        final boolean withStopReason = options.getStopCriterion().isEnabled();
+        return options.isAsyncOutput() ?
+                new AsyncOutputWriter(outputFilePath, options.getBatchRows(), options.getBatchMillis(), append,
+                        withStopReason) :
+                new OutputWriter(outputFilePath, true, append, withStopReason);
+    }
 
+    // results file name without extension
+    private static String outputBaseName(RunOptions options, String dateTime) {
+        if (options.getResume() != null) {
+            String resume = options.getResume();
+            return resume.endsWith(".csv") ? resume.substring(0, resume.length() - 4) : resume;
+        }
+        return OUTPUT_FILE_NAME + dateTime +
+                (options.isSharded() ? "_shard" + options.getShardIndex() + "of" + options.getShardCount() : "");
     }
 
-    private static void setup() {
-        app.command("setup");
+    private static List<WorkUnit> workUnits(int fromIteration, int toIteration, List<Setup> setups,
+                                            List<ExperimentDefinition> experiments, RunFilter runFilter) {
+        List<WorkUnit> workUnits = new ArrayList<>();
+        for (int i = fromIteration; i <= toIteration; i++) {
+            for (Setup setup : setups) {
+                if (runFilter.anyToRun(i, setup, experiments)) {
+                    workUnits.add(new WorkUnit(i, setup));
+                }
+            }
+        }
+        // grouped by world and landscape instead of iteration by iteration
+        List<WorkUnit> scheduled = RunScheduler.schedule(workUnits);
+        RunScheduler.printTransitions(workUnits, scheduled);
+        return scheduled;
     }
 
-    private static void run() {
-        app.command("repeat " + MAX_ITERATIONS_BY_RUN + " [ iterate ]");
+    private static void writeReplications(AdaptiveReplication adaptive, Path file) throws IOException {
+        adaptive.writeReport(file);
+        int[] stopCounts = adaptive.getStopCounts();
+        System.out.printf("### Replications: %d configurations running, %d converged, %d at maximum, see %s%n",
+                stopCounts[0], stopCounts[1], stopCounts[2], file);
     }
 
+    // runs already in the results file of --resume, the file is created if it does not exist
+    private static CompletedRuns completedRuns(RunOptions options) throws IOException {
+        if (options.getResume() == null) {
+            return CompletedRuns.NONE;
+        }
+        final long start = System.nanoTime();
+        CompletedRuns completedRuns = CompletedRuns.fromCsv(Paths.get(options.getResume()).toAbsolutePath(),
+                options.getStopCriterion().isEnabled());
+        System.out.printf("Resuming %s: %d completed runs indexed in %.1f ms%n", options.getResume(),
+                completedRuns.size(), (System.nanoTime() - start) / 1e6);
+        return completedRuns;
+    }
 
-    // NetLogo extract variables of interest
-    private static void report(Experiment experiment) {
-        experiment.setFitness((double) app.report("global-best-val"));
-        experiment.setOptimum((double) app.report("[val] of true-best-patch"));
-        experiment.setNumberOfIterations((int) (double) app.report("iterations"));
-        experiment.setNumberOfIterationsUntilFitness((int) (double) app.report("iterations-to-opt"));
-        if (experiment.getFitness() == experiment.getOptimum()) {
-            experiment.setOptimumReached(true);
+    // which setup NetLogoBackend.setup uses for the landscapes
+    private static String netLogoSetup(RunOptions options) {
+        if (USE_HEADLESS && options.getLandscapeCache() != null) {
+            return "patch values of the landscape cache " + options.getLandscapeCache();
+        }
+        if (USE_HEADLESS && options.isLean()) {
+            return "LeanModel initialize-topology";
         }
+        return "initialize-topology of the model";
     }
 
-    // NetLogo repeat commands
-    private static void repeat() {
-        app.command("clear-all");
-        app.command("import-world \"backup.txt\"");
-        app.command("update-highlight");
-        app.command("reset-ticks");
+    // runs work units of the coordinator with --threads backends, results are only written by the coordinator
+    private static void runWorker(RunOptions options) throws IOException {
+        final LandscapeCache landscapeCache = landscapeCache(options);
+        System.out.printf("Working for coordinator %s with %d backends%n", options.getWorkerOf(),
+                options.getThreads());
+        new Worker(options.getWorkerHost(), options.getWorkerPort(), ExperimentGrid.DEFAULT, options.isSeedRuns())
+                .run(backendFactory(options, landscapeCache, fullLandscapeCache(options),
+                        new LandscapeStoreVerifier.Differences()), Math.max(1, options.getThreads()));
     }
 
-    // NetLogo set parameters of Experiment
-    private static void setParams(Map<String, Object> params) {
-        params.forEach((paramName, param) ->
-                app.command(setCommand(paramName, param)));
+    // with --landscape-store the landscapes are kept in a LandscapeStore of that encoding
+    private static LandscapeCache landscapeCache(RunOptions options) {
+        return options.getLandscapeCache() == null ? null :
+                new LandscapeCache(Paths.get(options.getLandscapeCache()).toAbsolutePath(),
+                        options.getLandscapeStoreEncoding());
     }
 
-    // NetLogo set global variable command
-    private static String setCommand(String name, Object value) {
-        if (value instanceof String) {
-            return "set " + name + " \"" + value + "\"";
-        } else if (value instanceof Boolean) {
-            if ((boolean) value) {
-                return "set " + name + " TRUE";
-            } else {
-                return "set " + name + " FALSE";
+    // full precision landscapes (on the heap) of --verify-landscape-store, null without verification
+    private static LandscapeCache fullLandscapeCache(RunOptions options) {
+        return options.isVerifyLandscapeStore() ?
+                new LandscapeCache(Paths.get(options.getLandscapeCache()).toAbsolutePath()) : null;
+    }
+
+    // a LandscapeStoreVerifier comparing with the landscapes of fullLandscapeCache if it is not null
+    private static SimulationBackend javaBackend(LandscapeCache landscapeCache, LandscapeCache fullLandscapeCache,
+                                                 LandscapeStoreVerifier.Differences storeDifferences) {
+        final long seed = ThreadLocalRandom.current().nextLong();
+        if (fullLandscapeCache == null) {
+            return new JavaPsoBackend(seed, landscapeCache);
+        }
+        return new LandscapeStoreVerifier(seed, landscapeCache, fullLandscapeCache, storeDifferences);
+    }
+
+    // one backend per worker of the ParallelRunner or Worker
+    private static BackendFactory backendFactory(RunOptions options, LandscapeCache landscapeCache,
+                                                 LandscapeCache fullLandscapeCache,
+                                                 LandscapeStoreVerifier.Differences storeDifferences) {
+        if (options.isJavaBackend()) {
+            return workerNumber -> javaBackend(landscapeCache, fullLandscapeCache, storeDifferences);
+        }
+        return workerNumber -> {
+            final HeadlessWorkspace headlessWorkspace = HeadlessWorkspace.newInstance();
+            headlessWorkspace.open(modelFilePath(), true);
+            // several processes may run in the same directory
+            return new NetLogoBackend(headlessWorkspace,
+                    "backup_" + ProcessHandle.current().pid() + "_" + workerNumber + ".txt", landscapeCache,
+                    options.isSnapshots(), options.isLean());
+        };
+    }
+
+    // model part of the ResultCache keys: the Java engine version with the encoding of the landscape values it reads
+    // (a rounding LandscapeStore changes the results), or the hash of the NetLogo model file with the setup path of
+    // NetLogoBackend.setup (see netLogoSetup), the patch values of the cache and of the procedures may differ, and
+    // with the way repeat restores the world (in-memory snapshot or import-world of the exported text)
+    private static String modelId(RunOptions options) throws IOException {
+        if (options.isJavaBackend()) {
+            final LandscapeStore.Encoding encoding = options.getLandscapeStoreEncoding();
+            return "java-pso-v" + PsoEngine.VERSION + (encoding == null || encoding == LandscapeStore.Encoding.DOUBLE ?
+                    "" : "-" + encoding.name().toLowerCase());
+        }
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(
+                    Paths.get(modelFilePath())));
+            final StringBuilder id = new StringBuilder("netlogo-");
+            if (USE_HEADLESS && options.getLandscapeCache() != null) {
+                id.append("cache-");
+            } else if (USE_HEADLESS && options.isLean()) {
+                id.append("lean-");
             }
-        } else {
-            return "set " + name + " " + value;
+            // snapshots are only used headless, see NetLogoBackend
+            id.append(USE_HEADLESS && options.isSnapshots() ? "snapshot-" : "export-");
+            for (byte b : digest) {
+                id.append(String.format("%02x", b));
+            }
+            return id.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
 
+    private static String modelFilePath() {
+        return Paths.get(MODEL_FILE_NAME).toAbsolutePath().toString();
+    }
+
 }
@@ -0,0 +1,336 @@
+import org.nlogo.headless.HeadlessWorkspace;
+import org.nlogo.workspace.Controllable;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+// runs the experiments on the NetLogo model (PSO_NL_Template.nlogo)
+public class NetLogoBackend implements SimulationBackend {
+
+    public static final String DEFAULT_BACKUP_FILE_NAME = "backup.txt";
+
+    // variables of interest, reported by one compiled reporter
+    private static final String[] RESULT_REPORTERS = new String[]{
+            "global-best-val", "[val] of true-best-patch", "iterations", "iterations-to-opt"};
+
+    // largest distance of a particle from the global best position
+    private static final String SWARM_RADIUS_REPORTER = "max [distancexy global-best-x global-best-y] of turtles";
+    private static final String[] STOP_REPORTERS = new String[]{
+            "iterations", "global-best-val", "[val] of true-best-patch"};
+    private static final String[] STOP_REPORTERS_WITH_RADIUS = new String[]{
+            "iterations", "global-best-val", "[val] of true-best-patch", SWARM_RADIUS_REPORTER};
+
+    private final Controllable app;
+    private final CompiledCommandCache commands;
+    private final String backupFileName;
+    // patch values are loaded from the cache instead of running initialize-topology, null to disable
+    private final LandscapeCache landscapeCache;
+    // restore the world from an in-memory WorldSnapshot instead of import-world (headless only)
+    private final boolean useSnapshots;
+    // LeanModel procedures instead of the model procedures with visualisation (headless only)
+    private final boolean lean;
+    private WorldSnapshot snapshot;
+    // seed of the last seed call, random-seed of the runs is derived from it; null to use new-seed
+    private Long seed;
+
+    // last values sent to the model, needed to look up the landscape
+    private final Map<String, Object> parameters = new HashMap<>();
+    private final int[] worldSize = new int[]{-100, 100, -100, 100};
+
+    public NetLogoBackend(Controllable app) {
+        this(app, DEFAULT_BACKUP_FILE_NAME, null, false);
+    }
+
+    // backupFileName has to be unique if several models share the same working directory
+    public NetLogoBackend(Controllable app, String backupFileName, LandscapeCache landscapeCache,
+                          boolean useSnapshots) {
+        this(app, backupFileName, landscapeCache, useSnapshots, false);
+    }
+
+    public NetLogoBackend(Controllable app, String backupFileName, LandscapeCache landscapeCache,
+                          boolean useSnapshots, boolean lean) {
+        this.app = app;
+        this.lean = lean && app instanceof HeadlessWorkspace;
+        this.commands = new CompiledCommandCache(app);
+        this.backupFileName = backupFileName;
+        this.landscapeCache = landscapeCache;
+        this.useSnapshots = useSnapshots && app instanceof HeadlessWorkspace;
+    }
+
+    @Override
+    public void resizeWorld(int minPxcor, int maxPxcor, int minPycor, int maxPycor) {
+        commands.command("resize-world " + minPxcor + " " + maxPxcor + " " + minPycor + " " + maxPycor);
+        worldSize[0] = minPxcor;
+        worldSize[1] = maxPxcor;
+        worldSize[2] = minPycor;
+        worldSize[3] = maxPycor;
+        snapshot = null;
+    }
+
+    @Override
+    public void setParameter(String name, Object value) {
+        commands.setGlobal(name, value);
+        parameters.put(name, value);
+    }
+
+    @Override
+    public void seed(long seed) {
+        commands.randomSeed(seed);
+        this.seed = seed;
+    }
+
+    // the landscape comes from exactly one of, in this order:
+    // 1. the landscape cache (headless with a cache), lean then only leaves out update-highlight
+    // 2. LeanModel.initializeTopology (lean and a fitness function it supports)
+    // 3. the model procedures
+    // the cache is opt-in, lean is on by default and can be turned off, so without a cache the lean setup is used
+    @Override
+    public void setup() {
+        snapshot = null;
+        LandscapeSpec spec = getLandscapeSpec();
+        if (landscapeCache != null && spec != null && app instanceof HeadlessWorkspace) {
+            setupFromCache(landscapeCache.get(spec));
+        } else if (lean && LeanModel.supports((String) parameters.get(ParamConfig.NETLOGO_MAPPING.get(
+                "fitnessFunction")))) {
+            setupLean();
+        } else {
+            setupModel();
+        }
+        takeSnapshot();
+    }
+
+    // the steps of the model setup procedure, which exports to the shared "backup.txt" of the model directory;
+    // several workspaces run in that directory, so the world is only exported to the backup file of this backend
+    private void setupModel() {
+        commands.command("clear-all");
+        commands.command("set iterations 0");
+        commands.command("set iterations-to-opt 0");
+        commands.command("initialize-topology");
+        initializeAgents();
+        commands.command("initialize-global-best");
+        if (!useSnapshots) {
+            commands.command("export-world \"" + backupFileName + "\"");
+        }
+        updateHighlight();
+        commands.command("reset-ticks");
+    }
+
+    // setup without clear-all and initialize-topology, the patch values and true-best-patch are kept
+    @Override
+    public void setupAgents() {
+        snapshot = null;
+        commands.command("clear-turtles");
+        commands.command("set global-best-val 0");
+        commands.command("set iterations 0");
+        commands.command("set iterations-to-opt 0");
+        initializeAgents();
+        commands.command("initialize-global-best");
+        if (!useSnapshots) {
+            commands.command("export-world \"" + backupFileName + "\"");
+        }
+        updateHighlight();
+        commands.command("reset-ticks");
+        takeSnapshot();
+    }
+
+    // setup with the LeanModel initialize-topology
+    private void setupLean() {
+        commands.command("clear-all");
+        commands.command("set iterations 0");
+        commands.command("set iterations-to-opt 0");
+        commands.command(LeanModel.initializeTopology((String) parameters.get(ParamConfig.NETLOGO_MAPPING.get(
+                "fitnessFunction"))));
+        initializeAgents();
+        commands.command("initialize-global-best");
+        if (!useSnapshots) {
+            commands.command("export-world \"" + backupFileName + "\"");
+        }
+        commands.command("reset-ticks");
+    }
+
+    // initialize-agents starts from the seed of the last seed call, so the particles of a seeded setup do not depend
+    // on how many random numbers the path of the setup drew before (initialize-topology of the model or of LeanModel,
+    // none from the landscape cache)
+    private void initializeAgents() {
+        if (seed != null) {
+            commands.randomSeed(seed);
+        }
+        commands.command("initialize-agents");
+    }
+
+    // only needed for the view
+    private void updateHighlight() {
+        if (!lean) {
+            commands.command("update-highlight");
+        }
+    }
+
+    private void takeSnapshot() {
+        if (useSnapshots) {
+            // import-world restores the random state, reseeding gives every run the same random numbers too
+            long randomSeed = seed != null ? runRandomSeed(seed) :
+                    ((Double) commands.report("new-seed")).longValue();
+            commands.randomSeed(randomSeed);
+            snapshot = new NetLogoWorld((HeadlessWorkspace) app).snapshot(randomSeed);
+        }
+    }
+
+    // setup of the model with the patch values of initialize-topology taken from the landscape
+    // patch colors are not set, the world is only used headless
+    private void setupFromCache(Landscape landscape) {
+        commands.command("clear-all");
+        commands.command("set iterations 0");
+        commands.command("set iterations-to-opt 0");
+        commands.command("set max-x max [pxcor] of patches");
+        commands.command("set max-y max [pycor] of patches");
+        NetLogoWorld world = new NetLogoWorld((HeadlessWorkspace) app);
+        world.setPatchValues(landscape);
+        world.setTrueBestPatch(landscape.getTrueBestPxcor(), landscape.getTrueBestPycor());
+        initializeAgents();
+        commands.command("initialize-global-best");
+        if (!useSnapshots) {
+            commands.command("export-world \"" + backupFileName + "\"");
+        }
+        updateHighlight();
+        commands.command("reset-ticks");
+    }
+
+    // null if not all parameters the landscape depends on were set
+    private LandscapeSpec getLandscapeSpec() {
+        Object fitnessFunction = parameters.get(ParamConfig.NETLOGO_MAPPING.get("fitnessFunction"));
+        Object useConstraint = parameters.get(ParamConfig.NETLOGO_MAPPING.get("useConstraint"));
+        if (fitnessFunction == null || useConstraint == null) {
+            return null;
+        }
+        LandscapeSpec.LandscapeSpecBuilder spec = LandscapeSpec.builder()
+                .fitnessFunction((String) fitnessFunction)
+                .useConstraint((Boolean) useConstraint)
+                .minPxcor(worldSize[0])
+                .maxPxcor(worldSize[1])
+                .minPycor(worldSize[2])
+                .maxPycor(worldSize[3]);
+        if ((Boolean) useConstraint) {
+            Object constraintHandlingMethod = parameters.get(ParamConfig.NETLOGO_MAPPING.get("constraintHandlingMethod"));
+            Object constraint = parameters.get(ParamConfig.NETLOGO_MAPPING.get("constraint"));
+            Object constraintR = parameters.get(ParamConfig.NETLOGO_MAPPING.get("constraintR"));
+            if (constraintHandlingMethod == null || constraint == null || constraintR == null) {
+                return null;
+            }
+            spec.constraintHandlingMethod((String) constraintHandlingMethod)
+                    .constraint((String) constraint)
+                    .constraintR(((Number) constraintR).doubleValue());
+        }
+        return spec.build();
+    }
+
+    // NetLogo repeat commands
+    @Override
+    public void repeat() {
+        if (snapshot != null) {
+            new NetLogoWorld((HeadlessWorkspace) app).restore(snapshot);
+            commands.randomSeed(snapshot.getRandomSeed());
+            commands.command("reset-ticks");
+            return;
+        }
+        commands.command("clear-all");
+        commands.command("import-world \"" + backupFileName + "\"");
+        updateHighlight();
+        // import-world restores the random state of the export, seeded runs are reseeded like from a snapshot
+        if (seed != null) {
+            commands.randomSeed(runRandomSeed(seed));
+        }
+        commands.command("reset-ticks");
+    }
+
+    // random-seed of the runs restored by repeat after a seed call
+    private static long runRandomSeed(long seed) {
+        return (int) (seed * 0x9E3779B97F4A7C15L >>> 32);
+    }
+
+    @Override
+    public void run(int iterations) {
+        commands.command(lean ? LeanModel.run(iterations) : "repeat " + iterations + " [ iterate ]");
+    }
+
+    // the whole run is one NetLogo command, stop leaves it as soon as a criterion holds; the reason is found
+    // afterwards by checking the criteria in the same order on the final state
+    @Override
+    public String run(int maxIterations, StopCriterion stopCriterion) {
+        // same source for every run with this criterion, so it is compiled once
+        commands.command(runUntilCommand(maxIterations, stopCriterion, lean ? LeanModel.ITERATE : "iterate"));
+        Object[] state = commands.reportAll(stopCriterion.getSwarmRadius() > 0 ? STOP_REPORTERS_WITH_RADIUS :
+                STOP_REPORTERS);
+        if ((int) (double) state[0] >= maxIterations) {
+            return StopCriterion.MAX_ITERATIONS;
+        }
+        if (stopCriterion.isStopAtOptimum() && (double) state[1] == (double) state[2]) {
+            return StopCriterion.OPTIMUM;
+        }
+        if (stopCriterion.getSwarmRadius() > 0 && (double) state[3] <= stopCriterion.getSwarmRadius()) {
+            return StopCriterion.SWARM_RADIUS;
+        }
+        return StopCriterion.STAGNATION;
+    }
+
+    // the checks of the last iteration are left out, a run which used all iterations ends with MAX_ITERATIONS
+    static String runUntilCommand(int maxIterations, StopCriterion stopCriterion, String iterate) {
+        StringBuilder source = new StringBuilder("let stagnant 0 let n 0 repeat ").append(maxIterations)
+                .append(" [ let best global-best-val ").append(iterate).append(" set n n + 1")
+                .append(" ifelse global-best-val > best [ set stagnant 0 ] [ set stagnant stagnant + 1 ]")
+                .append(" if n < ").append(maxIterations).append(" [");
+        if (stopCriterion.isStopAtOptimum()) {
+            source.append(" if global-best-val = [val] of true-best-patch [ stop ]");
+        }
+        if (stopCriterion.getSwarmRadius() > 0) {
+            source.append(" if ").append(SWARM_RADIUS_REPORTER).append(" <= ")
+                    .append(BigDecimal.valueOf(stopCriterion.getSwarmRadius()).toPlainString()).append(" [ stop ]");
+        }
+        if (stopCriterion.getStagnationIterations() > 0) {
+            source.append(" if stagnant >= ").append(stopCriterion.getStagnationIterations()).append(" [ stop ]");
+        }
+        return source.append(" ] ]").toString();
+    }
+
+    // NetLogo extract variables of interest
+    @Override
+    public void report(Experiment experiment) {
+        Object[] results = commands.reportAll(RESULT_REPORTERS);
+        experiment.setFitness((double) results[0]);
+        experiment.setOptimum((double) results[1]);
+        experiment.setNumberOfIterations((int) (double) results[2]);
+        experiment.setNumberOfIterationsUntilFitness((int) (double) results[3]);
+        if (experiment.getFitness() == experiment.getOptimum()) {
+            experiment.setOptimumReached(true);
+        }
+    }
+
+    @Override
+    public String getStatistics() {
+        return String.format("compile cache: %d hits, %d misses, hit rate %.1f%%", commands.getHits(),
+                commands.getMisses(), commands.getHitRate() * 100);
+    }
+
+    @Override
+    public void dispose() throws InterruptedException {
+        if (app instanceof HeadlessWorkspace) {
+            ((HeadlessWorkspace) app).dispose();
+        }
+    }
+
+    // NetLogo set global variable command
+    static String setCommand(String name, Object value) {
+        if (value instanceof String) {
+            return "set " + name + " \"" + value + "\"";
+        } else if (value instanceof Boolean) {
+            if ((boolean) value) {
+                return "set " + name + " TRUE";
+            } else {
+                return "set " + name + " FALSE";
+            }
+        } else {
+            return "set " + name + " " + value;
+        }
+    }
+
+}
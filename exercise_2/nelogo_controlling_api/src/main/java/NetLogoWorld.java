@@ -0,0 +1,146 @@
+import org.nlogo.agent.Agent;
+import org.nlogo.agent.Observer;
+import org.nlogo.agent.Turtle;
+import org.nlogo.agent.World;
+import org.nlogo.api.AgentException;
+import org.nlogo.headless.HeadlessWorkspace;
+
+// direct access to the agents of a headless NetLogo world, no NetLogo code is compiled or run
+public class NetLogoWorld {
+
+    private final World world;
+
+    public NetLogoWorld(HeadlessWorkspace workspace) {
+        this.world = workspace.world();
+    }
+
+    // sets val of every patch, the landscape has to have the size of the world
+    public void setPatchValues(Landscape landscape) {
+        checkSize(landscape.getMinPxcor(), landscape.getMaxPxcor(), landscape.getMinPycor(), landscape.getMaxPycor());
+        final int valIndex = world.patchesOwnIndexOf("VAL");
+        int index = 0;
+        try {
+            for (int pycor = landscape.getMinPycor(); pycor <= landscape.getMaxPycor(); pycor++) {
+                for (int pxcor = landscape.getMinPxcor(); pxcor <= landscape.getMaxPxcor(); pxcor++) {
+                    world.fastGetPatchAt(pxcor, pycor).setPatchVariable(valIndex, landscape.value(index++));
+                }
+            }
+        } catch (AgentException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void setTrueBestPatch(int pxcor, int pycor) {
+        try {
+            setGlobal("TRUE-BEST-PATCH", world.fastGetPatchAt(pxcor, pycor));
+        } catch (AgentException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // turtles and globals of the model, the random seed is not part of the world
+    // patches are not part of the snapshot: runs never change val, only setup and resize-world do and both drop the
+    // snapshot (see NetLogoBackend)
+    public WorldSnapshot snapshot(long randomSeed) {
+        final int turtles = world.turtles().count();
+        final long[] who = new long[turtles];
+        final double[] xcor = new double[turtles];
+        final double[] ycor = new double[turtles];
+        final double[] vx = new double[turtles];
+        final double[] vy = new double[turtles];
+        final double[] personalBestVal = new double[turtles];
+        final double[] personalBestX = new double[turtles];
+        final double[] personalBestY = new double[turtles];
+        final int vxIndex = world.turtlesOwnIndexOf("VX");
+        final int vyIndex = world.turtlesOwnIndexOf("VY");
+        final int personalBestValIndex = world.turtlesOwnIndexOf("PERSONAL-BEST-VAL");
+        final int personalBestXIndex = world.turtlesOwnIndexOf("PERSONAL-BEST-X");
+        final int personalBestYIndex = world.turtlesOwnIndexOf("PERSONAL-BEST-Y");
+        int i = 0;
+        for (Agent agent : world.turtles().agents()) {
+            Turtle turtle = (Turtle) agent;
+            who[i] = turtle.id();
+            xcor[i] = turtle.xcor();
+            ycor[i] = turtle.ycor();
+            vx[i] = (Double) turtle.getTurtleVariable(vxIndex);
+            vy[i] = (Double) turtle.getTurtleVariable(vyIndex);
+            personalBestVal[i] = (Double) turtle.getTurtleVariable(personalBestValIndex);
+            personalBestX[i] = (Double) turtle.getTurtleVariable(personalBestXIndex);
+            personalBestY[i] = (Double) turtle.getTurtleVariable(personalBestYIndex);
+            i++;
+        }
+
+        return WorldSnapshot.builder()
+                .who(who)
+                .xcor(xcor)
+                .ycor(ycor)
+                .vx(vx)
+                .vy(vy)
+                .personalBestVal(personalBestVal)
+                .personalBestX(personalBestX)
+                .personalBestY(personalBestY)
+                .globalBestX(getGlobal("GLOBAL-BEST-X"))
+                .globalBestY(getGlobal("GLOBAL-BEST-Y"))
+                .globalBestVal(getGlobal("GLOBAL-BEST-VAL"))
+                .maxX(getGlobal("MAX-X"))
+                .maxY(getGlobal("MAX-Y"))
+                .iterations(getGlobal("ITERATIONS"))
+                .iterationsToOpt(getGlobal("ITERATIONS-TO-OPT"))
+                .trueBestPatch(world.observer().getVariable(world.observerOwnsIndexOf("TRUE-BEST-PATCH")))
+                .randomSeed(randomSeed)
+                .build();
+    }
+
+    // writes the turtles and globals of the snapshot back into the agents, turtles have to be the same as when the
+    // snapshot was taken and the patches are left as they are
+    public void restore(WorldSnapshot snapshot) {
+        try {
+            if (world.turtles().count() != snapshot.getNumberOfTurtles()) {
+                throw new IllegalStateException("snapshot has " + snapshot.getNumberOfTurtles() + " turtles but the " +
+                        "world has " + world.turtles().count());
+            }
+            final int vxIndex = world.turtlesOwnIndexOf("VX");
+            final int vyIndex = world.turtlesOwnIndexOf("VY");
+            final int personalBestValIndex = world.turtlesOwnIndexOf("PERSONAL-BEST-VAL");
+            final int personalBestXIndex = world.turtlesOwnIndexOf("PERSONAL-BEST-X");
+            final int personalBestYIndex = world.turtlesOwnIndexOf("PERSONAL-BEST-Y");
+            for (int i = 0; i < snapshot.getNumberOfTurtles(); i++) {
+                Turtle turtle = world.getTurtle(snapshot.getWho()[i]);
+                turtle.xandycor(snapshot.getXcor()[i], snapshot.getYcor()[i]);
+                turtle.setTurtleVariable(vxIndex, snapshot.getVx()[i]);
+                turtle.setTurtleVariable(vyIndex, snapshot.getVy()[i]);
+                turtle.setTurtleVariable(personalBestValIndex, snapshot.getPersonalBestVal()[i]);
+                turtle.setTurtleVariable(personalBestXIndex, snapshot.getPersonalBestX()[i]);
+                turtle.setTurtleVariable(personalBestYIndex, snapshot.getPersonalBestY()[i]);
+            }
+
+            setGlobal("GLOBAL-BEST-X", snapshot.getGlobalBestX());
+            setGlobal("GLOBAL-BEST-Y", snapshot.getGlobalBestY());
+            setGlobal("GLOBAL-BEST-VAL", snapshot.getGlobalBestVal());
+            setGlobal("MAX-X", snapshot.getMaxX());
+            setGlobal("MAX-Y", snapshot.getMaxY());
+            setGlobal("ITERATIONS", snapshot.getIterations());
+            setGlobal("ITERATIONS-TO-OPT", snapshot.getIterationsToOpt());
+            setGlobal("TRUE-BEST-PATCH", snapshot.getTrueBestPatch());
+        } catch (AgentException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private double getGlobal(String name) {
+        return (Double) world.observer().getVariable(world.observerOwnsIndexOf(name));
+    }
+
+    private void setGlobal(String name, Object value) throws AgentException {
+        Observer observer = world.observer();
+        observer.setVariable(world.observerOwnsIndexOf(name), value);
+    }
+
+    private void checkSize(int minPxcor, int maxPxcor, int minPycor, int maxPycor) {
+        if (world.minPxcor() != minPxcor || world.maxPxcor() != maxPxcor
+                || world.minPycor() != minPycor || world.maxPycor() != maxPycor) {
+            throw new IllegalStateException("landscape does not fit the size of the world");
+        }
+    }
+
+}
@@ -1,17 +1,33 @@
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Map;
 
-public class OutputWriter {
+public class OutputWriter implements ResultSink {
 
-    private File file;
-    private FileWriter fileWriter;
+    protected final File file;
+    protected final FileWriter fileWriter;
+    // stop_reason and iterations_executed columns of runs which can end early
+    protected final boolean withStopReason;
 
 
     public OutputWriter (String filePath, Boolean withResults) throws IOException {
+        this(filePath, withResults, false);
+    }
+
+    // append: keep the rows of an existing file (e.g. to resume a sweep), the heading is only written to empty files
+    public OutputWriter (String filePath, Boolean withResults, boolean append) throws IOException {
+        this(filePath, withResults, append, false);
+    }
+
+    public OutputWriter (String filePath, Boolean withResults, boolean append, boolean withStopReason)
+            throws IOException {
+        this.withStopReason = withStopReason;
         file = new File(filePath);
-        fileWriter = new FileWriter(file);
+        final boolean hasContent = append && file.length() > 0;
+        fileWriter = new FileWriter(file, append);
+        if (hasContent) {
+            return;
+        }
         if (withResults) {
             writeHeadingWithResult();
         } else {
@@ -19,20 +35,20 @@ public class OutputWriter {
         }
     }
 
-    public void close() throws IOException {
+    @Override
+    public synchronized void close() throws IOException {
         fileWriter.flush();
         fileWriter.close();
     }
 
     private void addExperimentParams(StringBuilder stringBuilder, Experiment experiment) {
-        Map<String, Object> experimentParameters = experiment.getOutputParameters();
-        ParamConfig.OUTPUT_MAPPING_SORTED.forEach((paramName, outputName) -> {
-            stringBuilder.append(experimentParameters.get(paramName));
+        for (int i = 0; i < ParameterSchema.size(); i++) {
+            stringBuilder.append(experiment.getParameterValue(i));
             stringBuilder.append(",");
-        });
+        }
     }
 
-    public void writeExperiment(Experiment experiment) throws IOException {
+    public synchronized void writeExperiment(Experiment experiment) throws IOException {
         StringBuilder line = new StringBuilder();
         line.append(experiment.getNumber());
         line.append(",");
@@ -41,9 +57,16 @@ public class OutputWriter {
         fileWriter.write(line.toString());
     }
 
-    public void writeExperimentWithResult(Experiment experiment, int iteration) throws IOException {
+    @Override
+    public synchronized void writeExperimentWithResult(Experiment experiment, int iteration) throws IOException {
         StringBuilder line = new StringBuilder();
-        Map<String, Object> experimentParameters = experiment.getOutputParameters();
+        appendExperimentWithResult(line, experiment, iteration);
+        fileWriter.write(line.toString());
+        fileWriter.flush();
+    }
+
+    // appends one result row including the line break
+    protected void appendExperimentWithResult(StringBuilder line, Experiment experiment, int iteration) {
         line.append(experiment.getNumber());
         line.append(",");
         line.append(iteration);
@@ -58,9 +81,13 @@ public class OutputWriter {
         line.append(experiment.isOptimumReached());
         line.append(",");
         line.append(experiment.getNumberOfIterationsUntilFitness());
+        if (withStopReason) {
+            line.append(",");
+            line.append(experiment.getStopReason());
+            line.append(",");
+            line.append(experiment.getNumberOfIterationsExecuted());
+        }
         line.append("\n");
-        fileWriter.write(line.toString());
-        fileWriter.flush();
     }
 
     private void writeHeading() throws IOException {
@@ -75,6 +102,16 @@ public class OutputWriter {
     }
 
     private void writeHeadingWithResult() throws IOException {
+        fileWriter.write(headingWithResult(withStopReason));
+        fileWriter.flush();
+    }
+
+    // heading of files with results including the line break
+    static String headingWithResult() {
+        return headingWithResult(false);
+    }
+
+    static String headingWithResult(boolean withStopReason) {
         StringBuilder line = new StringBuilder();
         line.append("number,iteration,");
         ParamConfig.OUTPUT_MAPPING_SORTED.forEach((paramName, outputName) -> {
@@ -82,9 +119,11 @@ public class OutputWriter {
             line.append(",");
         });
         line.append("fitness,optimum,iterations,optimum_reached,iterations_to_opt");
+        if (withStopReason) {
+            line.append(",stop_reason,iterations_executed");
+        }
         line.append("\n");
-        fileWriter.write(line.toString());
-        fileWriter.flush();
+        return line.toString();
     }
 
 }
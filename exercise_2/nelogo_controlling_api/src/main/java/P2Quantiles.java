@@ -0,0 +1,100 @@
+import java.util.Arrays;
+
+// P-square quantile estimation (Jain & Chlamtac 1985) on flat double arrays, so many sketches fit into one array
+// a sketch takes SIZE doubles at an offset: 5 marker heights and 5 marker positions
+// the first 5 observations are kept exactly in the heights, the estimate is exact up to 5 observations
+public final class P2Quantiles {
+
+    public static final int SIZE = 10;
+
+    private P2Quantiles() {
+    }
+
+    // count is the number of observations before this one
+    public static void add(double[] sketch, int offset, double p, long count, double x) {
+        if (count < 5) {
+            sketch[offset + (int) count] = x;
+            if (count == 4) {
+                Arrays.sort(sketch, offset, offset + 5);
+                for (int i = 0; i < 5; i++) {
+                    sketch[offset + 5 + i] = i;
+                }
+            }
+            return;
+        }
+        final int q = offset;
+        final int n = offset + 5;
+        int k;
+        if (x < sketch[q]) {
+            sketch[q] = x;
+            k = 0;
+        } else if (x >= sketch[q + 4]) {
+            sketch[q + 4] = x;
+            k = 3;
+        } else {
+            k = 0;
+            while (x >= sketch[q + k + 1]) {
+                k++;
+            }
+        }
+        for (int i = k + 1; i < 5; i++) {
+            sketch[n + i]++;
+        }
+        // desired positions after this observation: increments 0, p/2, p, (1+p)/2, 1 per observation
+        final double last = count;
+        for (int i = 1; i < 4; i++) {
+            double desired = increment(i, p) * last;
+            double d = desired - sketch[n + i];
+            if ((d >= 1 && sketch[n + i + 1] - sketch[n + i] > 1) ||
+                    (d <= -1 && sketch[n + i - 1] - sketch[n + i] < -1)) {
+                int sign = d > 0 ? 1 : -1;
+                double parabolic = parabolic(sketch, q, n, i, sign);
+                if (sketch[q + i - 1] < parabolic && parabolic < sketch[q + i + 1]) {
+                    sketch[q + i] = parabolic;
+                } else {
+                    sketch[q + i] += sign * (sketch[q + i + sign] - sketch[q + i]) /
+                            (sketch[n + i + sign] - sketch[n + i]);
+                }
+                sketch[n + i] += sign;
+            }
+        }
+    }
+
+    // count is the number of observations in the sketch, NaN if it is empty
+    public static double estimate(double[] sketch, int offset, double p, long count) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count > 5) {
+            return sketch[offset + 2];
+        }
+        double[] values = Arrays.copyOfRange(sketch, offset, offset + (int) count);
+        Arrays.sort(values);
+        // linear interpolation between the closest ranks
+        double rank = p * (count - 1);
+        int lower = (int) Math.floor(rank);
+        int upper = Math.min(lower + 1, (int) count - 1);
+        return values[lower] + (rank - lower) * (values[upper] - values[lower]);
+    }
+
+    private static double increment(int marker, double p) {
+        switch (marker) {
+            case 1:
+                return p / 2;
+            case 2:
+                return p;
+            default:
+                return (1 + p) / 2;
+        }
+    }
+
+    private static double parabolic(double[] sketch, int q, int n, int i, int d) {
+        double ni = sketch[n + i];
+        double nPrevious = sketch[n + i - 1];
+        double nNext = sketch[n + i + 1];
+        return sketch[q + i] + d / (nNext - nPrevious) *
+                ((ni - nPrevious + d) * (sketch[q + i + 1] - sketch[q + i]) / (nNext - ni) +
+                        (nNext - ni - d) * (sketch[q + i] - sketch[q + i - 1]) / (ni - nPrevious));
+    }
+
+}
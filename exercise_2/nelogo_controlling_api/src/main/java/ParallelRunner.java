@@ -0,0 +1,164 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// runs WorkUnits on a pool of backends (e.g. HeadlessWorkspaces), each backend takes the next free WorkUnit
+// all results are written to the same (thread safe) ResultSink
+public class ParallelRunner {
+
+    private final BackendFactory backendFactory;
+    private final int numberOfWorkspaces;
+    private final RunFilter runFilter;
+    private final StopCriterion stopCriterion;
+    private final int swarmsByBatch;
+    // shared by all workers, null to simulate every run
+    private final ResultCache resultCache;
+    private final boolean seedRuns;
+    // world resizes and landscape builds of all workers of the last run, done and avoided
+    private int resizes;
+    private int resizesAvoided;
+    private int landscapeBuilds;
+    private int landscapeBuildsAvoided;
+
+    public ParallelRunner(BackendFactory backendFactory, int numberOfWorkspaces) {
+        this(backendFactory, numberOfWorkspaces, RunFilter.ALL);
+    }
+
+    public ParallelRunner(BackendFactory backendFactory, int numberOfWorkspaces, RunFilter runFilter) {
+        this(backendFactory, numberOfWorkspaces, runFilter, StopCriterion.NONE);
+    }
+
+    public ParallelRunner(BackendFactory backendFactory, int numberOfWorkspaces, RunFilter runFilter,
+                          StopCriterion stopCriterion) {
+        this(backendFactory, numberOfWorkspaces, runFilter, stopCriterion, 1);
+    }
+
+    // swarmsByBatch see ExperimentRunner
+    public ParallelRunner(BackendFactory backendFactory, int numberOfWorkspaces, RunFilter runFilter,
+                          StopCriterion stopCriterion, int swarmsByBatch) {
+        this(backendFactory, numberOfWorkspaces, runFilter, stopCriterion, swarmsByBatch, null, false);
+    }
+
+    // resultCache and seedRuns see ExperimentRunner
+    public ParallelRunner(BackendFactory backendFactory, int numberOfWorkspaces, RunFilter runFilter,
+                          StopCriterion stopCriterion, int swarmsByBatch, ResultCache resultCache, boolean seedRuns) {
+        if (numberOfWorkspaces < 1) {
+            throw new IllegalArgumentException("numberOfWorkspaces has to be at least 1 but was " + numberOfWorkspaces);
+        }
+        this.backendFactory = backendFactory;
+        this.numberOfWorkspaces = numberOfWorkspaces;
+        this.runFilter = runFilter;
+        this.stopCriterion = stopCriterion;
+        this.swarmsByBatch = swarmsByBatch;
+        this.resultCache = resultCache;
+        this.seedRuns = seedRuns;
+    }
+
+    // numberOfIterations replications of the sweep, only logged
+    public void run(List<WorkUnit> workUnits, List<ExperimentDefinition> experiments, int numberOfIterations,
+                    int numberOfSetups, ResultSink outputWriter) throws IOException {
+        if (workUnits.isEmpty()) {
+            return;
+        }
+        // a worker keeps taking units of its landscape group, then the next untaken group; when all groups are
+        // taken it helps with the remaining units of the others
+        final List<ConcurrentLinkedQueue<WorkUnit>> groups = new ArrayList<>();
+        for (List<WorkUnit> group : RunScheduler.landscapeGroups(workUnits)) {
+            groups.add(new ConcurrentLinkedQueue<>(group));
+        }
+        final AtomicInteger nextGroup = new AtomicInteger();
+        synchronized (this) {
+            resizes = 0;
+            resizesAvoided = 0;
+            landscapeBuilds = 0;
+            landscapeBuildsAvoided = 0;
+        }
+        final int workers = Math.min(numberOfWorkspaces, workUnits.size());
+        System.out.printf("Running %d work units on %d workspaces%n", workUnits.size(), workers);
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            final int workerNumber = i;
+            futures.add(executor.submit(() -> {
+                runWorker(workerNumber, groups, nextGroup, experiments, numberOfIterations, numberOfSetups,
+                        outputWriter);
+                return null;
+            }));
+        }
+        executor.shutdown();
+
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            executor.shutdownNow();
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+        synchronized (this) {
+            ExperimentRunner.printWorldReuse(resizes, resizesAvoided, landscapeBuilds, landscapeBuildsAvoided);
+        }
+    }
+
+    // next untaken group, or a group with units left once all are taken, null if all units are done
+    private static ConcurrentLinkedQueue<WorkUnit> nextGroup(List<ConcurrentLinkedQueue<WorkUnit>> groups,
+                                                            AtomicInteger nextGroup) {
+        int index = nextGroup.getAndIncrement();
+        if (index < groups.size()) {
+            return groups.get(index);
+        }
+        for (ConcurrentLinkedQueue<WorkUnit> group : groups) {
+            if (!group.isEmpty()) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    // creates a backend and runs WorkUnits on it until all groups are empty
+    private void runWorker(int workerNumber, List<ConcurrentLinkedQueue<WorkUnit>> groups, AtomicInteger nextGroup,
+                           List<ExperimentDefinition> experiments, int numberOfIterations, int numberOfSetups,
+                           ResultSink outputWriter) throws IOException, InterruptedException {
+        final SimulationBackend backend = backendFactory.create(workerNumber);
+        try {
+            ExperimentRunner runner = new ExperimentRunner(backend, runFilter, stopCriterion, swarmsByBatch,
+                    resultCache, seedRuns);
+            ConcurrentLinkedQueue<WorkUnit> group = null;
+            while (true) {
+                WorkUnit workUnit = group != null ? group.poll() : null;
+                if (workUnit == null) {
+                    group = nextGroup(groups, nextGroup);
+                    if (group == null) {
+                        break;
+                    }
+                    continue;
+                }
+                runner.runSetup(workUnit.getSetup(), experiments, workUnit.getIteration(), numberOfIterations,
+                        numberOfSetups, outputWriter);
+            }
+            synchronized (this) {
+                resizes += runner.getResizes();
+                resizesAvoided += runner.getResizesAvoided();
+                landscapeBuilds += runner.getLandscapeBuilds();
+                landscapeBuildsAvoided += runner.getLandscapeBuildsAvoided();
+            }
+        } finally {
+            backend.dispose();
+        }
+    }
+
+}
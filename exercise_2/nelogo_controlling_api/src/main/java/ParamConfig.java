@@ -1,4 +1,3 @@
-import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -108,37 +107,4 @@ public final class ParamConfig {
         OUTPUT_MAPPING_SORTED.put("constraint_r", "constraint_r");
     }
 
-    public static List<String> checkMinMaxConstraint(String paramName, Object value) {
-        List<String> constraintViolations = new ArrayList<>();
-        if (ParamConfig.MIN.containsKey(paramName)) {
-            if (value instanceof Integer) {
-                int min = (int) ParamConfig.MIN.get(paramName);
-                if ((int) value < min) {
-                    constraintViolations.add(paramName + " value " + value + " not allowed min: " + min);
-                }
-            }
-            if (value instanceof Double) {
-                double min = (double) ParamConfig.MIN.get(paramName);
-                if ((double) value < min) {
-                    constraintViolations.add(paramName + " value " + value + " not allowed min: " + min);
-                }
-            }
-        }
-        if (ParamConfig.MAX.containsKey(paramName)) {
-            if (value instanceof Integer) {
-                int max = (int) ParamConfig.MAX.get(paramName);
-                if ((int) value > max) {
-                    constraintViolations.add(paramName + " value " + value + " not allowed max: " + max);
-                }
-            }
-            if (value instanceof Double) {
-                double max = (double) ParamConfig.MAX.get(paramName);
-                if ((double) value > max) {
-                    constraintViolations.add(paramName + " value " + value + " not allowed max: " + max);
-                }
-            }
-        }
-        return constraintViolations;
-    }
-
 }
@@ -0,0 +1,159 @@
+import java.util.List;
+import java.util.Map;
+
+// index based description of all parameters of an Experiment, built once from ParamConfig
+// parameters are ordered like ParamConfig.OUTPUT_MAPPING_SORTED, values are read with plain getters
+public final class ParameterSchema {
+
+    @FunctionalInterface
+    private interface Accessor {
+        Object get(Experiment experiment);
+    }
+
+    private static final int SIZE = ParamConfig.OUTPUT_MAPPING_SORTED.size();
+
+    private static final String[] FIELD_NAMES = new String[SIZE];
+    private static final String[] NETLOGO_NAMES = new String[SIZE];
+    private static final String[] OUTPUT_NAMES = new String[SIZE];
+    private static final boolean[] IGNORE_AS_PARAM = new boolean[SIZE];
+    private static final Object[] DEFAULTS = new Object[SIZE];
+    private static final Accessor[] ACCESSORS = new Accessor[SIZE];
+
+    // min / max as double, NaN if there is no limit; the original values are kept for messages
+    private static final double[] MIN = new double[SIZE];
+    private static final double[] MAX = new double[SIZE];
+    private static final Object[] MIN_VALUES = new Object[SIZE];
+    private static final Object[] MAX_VALUES = new Object[SIZE];
+
+    // indices of the parameters that are set for every experiment (not annotated with IgnoreAsParam)
+    private static final int[] PARAMETER_INDICES;
+
+    static {
+        int index = 0;
+        for (Map.Entry<String, String> output : ParamConfig.OUTPUT_MAPPING_SORTED.entrySet()) {
+            String fieldName = fieldName(output.getKey());
+            FIELD_NAMES[index] = fieldName;
+            NETLOGO_NAMES[index] = output.getKey();
+            OUTPUT_NAMES[index] = output.getValue();
+            DEFAULTS[index] = ParamConfig.DEFAULTS.get(fieldName);
+            ACCESSORS[index] = accessor(fieldName);
+            MIN_VALUES[index] = ParamConfig.MIN.get(fieldName);
+            MAX_VALUES[index] = ParamConfig.MAX.get(fieldName);
+            MIN[index] = MIN_VALUES[index] == null ? Double.NaN : ((Number) MIN_VALUES[index]).doubleValue();
+            MAX[index] = MAX_VALUES[index] == null ? Double.NaN : ((Number) MAX_VALUES[index]).doubleValue();
+            try {
+                IGNORE_AS_PARAM[index] = Experiment.class.getDeclaredField(fieldName)
+                        .isAnnotationPresent(IgnoreAsParam.class);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException("Experiment has no field " + fieldName, e);
+            }
+            index++;
+        }
+        if (index != ParamConfig.NETLOGO_MAPPING.size()) {
+            throw new IllegalStateException("OUTPUT_MAPPING_SORTED does not contain all parameters of NETLOGO_MAPPING");
+        }
+
+        int parameters = 0;
+        for (boolean ignore : IGNORE_AS_PARAM) {
+            parameters += ignore ? 0 : 1;
+        }
+        PARAMETER_INDICES = new int[parameters];
+        parameters = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (!IGNORE_AS_PARAM[i]) {
+                PARAMETER_INDICES[parameters++] = i;
+            }
+        }
+    }
+
+    private ParameterSchema() {
+    }
+
+    public static int size() {
+        return SIZE;
+    }
+
+    public static String fieldName(int index) {
+        return FIELD_NAMES[index];
+    }
+
+    public static String netLogoName(int index) {
+        return NETLOGO_NAMES[index];
+    }
+
+    public static String outputName(int index) {
+        return OUTPUT_NAMES[index];
+    }
+
+    public static boolean isIgnoredAsParam(int index) {
+        return IGNORE_AS_PARAM[index];
+    }
+
+    // do not modify the returned array
+    public static int[] parameterIndices() {
+        return PARAMETER_INDICES;
+    }
+
+    // value of the parameter, the default of ParamConfig.DEFAULTS if it is not set
+    public static Object value(Experiment experiment, int index) {
+        Object value = ACCESSORS[index].get(experiment);
+        return value != null ? value : DEFAULTS[index];
+    }
+
+    // adds the violations of ParamConfig.MIN / MAX, unset parameters are not checked
+    public static void validate(Experiment experiment, List<String> constraintViolations) {
+        for (int i = 0; i < SIZE; i++) {
+            if (Double.isNaN(MIN[i]) && Double.isNaN(MAX[i])) {
+                continue;
+            }
+            Object value = ACCESSORS[i].get(experiment);
+            if (!(value instanceof Number)) {
+                continue;
+            }
+            double number = ((Number) value).doubleValue();
+            if (number < MIN[i]) {
+                constraintViolations.add(FIELD_NAMES[i] + " value " + value + " not allowed min: " + MIN_VALUES[i]);
+            }
+            if (number > MAX[i]) {
+                constraintViolations.add(FIELD_NAMES[i] + " value " + value + " not allowed max: " + MAX_VALUES[i]);
+            }
+        }
+    }
+
+    private static String fieldName(String netLogoName) {
+        for (Map.Entry<String, String> mapping : ParamConfig.NETLOGO_MAPPING.entrySet()) {
+            if (mapping.getValue().equals(netLogoName)) {
+                return mapping.getKey();
+            }
+        }
+        throw new IllegalStateException("no field mapped to NetLogo parameter " + netLogoName);
+    }
+
+    private static Accessor accessor(String fieldName) {
+        switch (fieldName) {
+            case "fitnessFunction":
+                return Experiment::getFitnessFunction;
+            case "useConstraint":
+                return Experiment::getUseConstraint;
+            case "constraintHandlingMethod":
+                return Experiment::getConstraintHandlingMethod;
+            case "constraint":
+                return Experiment::getConstraint;
+            case "particleSpeedLimit":
+                return Experiment::getParticleSpeedLimit;
+            case "populationSize":
+                return Experiment::getPopulationSize;
+            case "personalConfidence":
+                return Experiment::getPersonalConfidence;
+            case "swarmConfidence":
+                return Experiment::getSwarmConfidence;
+            case "particleInertia":
+                return Experiment::getParticleInertia;
+            case "constraintR":
+                return Experiment::getConstraintR;
+            default:
+                throw new IllegalStateException("no accessor for parameter " + fieldName);
+        }
+    }
+
+}
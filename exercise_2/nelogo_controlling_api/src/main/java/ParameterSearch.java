@@ -0,0 +1,317 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToDoubleFunction;
+
+// budget aware search of the ExperimentDefinition parameters of every Setup instead of the ExperimentGrid
+// configurations are drawn uniformly from the ParamConfig MIN/MAX ranges (swarm confidence independent of the
+// personal one), run on a small budget and only the best 1/eta of them are run again on the eta times larger budget
+// of the next rung, the last rung has the budget of the grid (Main.MAX_ITERATIONS_BY_RUN x Main.ITERATIONS)
+// - rung r of R: runs of MAX_ITERATIONS_BY_RUN / eta^(R-1-r) iterations, ITERATIONS / eta^(R-1-r) replications
+// - HALVING: one successive halving bracket of eta^(R-1) configurations starting at rung 0
+// - HYPERBAND: R brackets, bracket s starts ceil(R * eta^s / (s+1)) configurations at rung R-1-s
+// configurations are ranked by mean fitness, then optimum reached rate, then mean iterations_to_opt; all runs of a
+// rung start from the same particles (replication i of every configuration), so they are compared on equal terms
+// every run is written to the ResultSink as usual, the definition number is rung * RUNG_NUMBERS + configuration
+public class ParameterSearch {
+
+    public static final String HALVING = "halving";
+    public static final String HYPERBAND = "hyperband";
+    public static final int RUNG_NUMBERS = 1000;
+
+    // ranking of a configuration in a rung
+    public static final class Score {
+        private final ExperimentDefinition definition;
+        private final int rung;
+        private int runs;
+        private double fitnessSum;
+        private int reached;
+        private long iterationsToOptSum;
+
+        private Score(ExperimentDefinition definition, int rung) {
+            this.definition = definition;
+            this.rung = rung;
+        }
+
+        private void add(Experiment experiment) {
+            runs++;
+            fitnessSum += experiment.getFitness();
+            reached += experiment.isOptimumReached() ? 1 : 0;
+            iterationsToOptSum += experiment.getNumberOfIterationsUntilFitness();
+        }
+
+        public ExperimentDefinition getDefinition() {
+            return definition;
+        }
+
+        public int getRung() {
+            return rung;
+        }
+
+        public double getMeanFitness() {
+            return fitnessSum / runs;
+        }
+
+        public double getSuccessRate() {
+            return (double) reached / runs;
+        }
+
+        public double getMeanIterationsToOpt() {
+            return (double) iterationsToOptSum / runs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("speed limit %d, inertia %.3f, personal %.3f, swarm %.3f: fitness %.4f, " +
+                            "optimum reached %.0f%%, iterations_to_opt %.0f (rung %d, %d runs)",
+                    definition.getParticleSpeedLimit(), definition.getParticleInertia(),
+                    definition.getPersonalConfidence(), definition.getSwarmConfidence(), getMeanFitness(),
+                    getSuccessRate() * 100, getMeanIterationsToOpt(), rung, runs);
+        }
+    }
+
+    private static final Comparator<Score> BEST_FIRST = Comparator.comparingDouble(Score::getMeanFitness).reversed()
+            .thenComparing(Comparator.comparingDouble(Score::getSuccessRate).reversed())
+            .thenComparingDouble(Score::getMeanIterationsToOpt);
+
+    private final boolean hyperband;
+    private final int eta;
+    private final int rungs;
+    private final long seed;
+    // iterations of all runs of all searches (budget of the runs, also if a StopCriterion ended them early)
+    private long iterations;
+    // winner of every searched Setup by Setup number
+    private final Map<Integer, Score> winners = new HashMap<>();
+
+    public ParameterSearch(String mode, int eta, int rungs, long seed) {
+        if (!HALVING.equals(mode) && !HYPERBAND.equals(mode)) {
+            throw new IllegalArgumentException("mode has to be " + HALVING + " or " + HYPERBAND + " but was " + mode);
+        }
+        if (eta < 2 || rungs < 1 || rungs > 9) {
+            throw new IllegalArgumentException("eta has to be at least 2 and rungs from 1 to 9 but were " + eta +
+                    " and " + rungs);
+        }
+        this.hyperband = HYPERBAND.equals(mode);
+        this.eta = eta;
+        this.rungs = rungs;
+        this.seed = seed;
+        if (configurations() >= RUNG_NUMBERS) {
+            throw new IllegalArgumentException("eta " + eta + " and " + rungs + " rungs start " + configurations() +
+                    " configurations, at most " + (RUNG_NUMBERS - 1) + " can be numbered");
+        }
+    }
+
+    // iterations of a run in rung (0 to rungs - 1), at least 1
+    public int iterations(int rung) {
+        return Math.max(1, (int) Math.round(Main.MAX_ITERATIONS_BY_RUN / Math.pow(eta, rungs - 1 - rung)));
+    }
+
+    // replications of every configuration in rung, at least 1
+    public int replications(int rung) {
+        return Math.max(1, (int) Math.round(Main.ITERATIONS / Math.pow(eta, rungs - 1 - rung)));
+    }
+
+    // configurations started by all brackets of a Setup
+    public int configurations() {
+        int configurations = 0;
+        for (int s = hyperband ? 0 : rungs - 1; s < rungs; s++) {
+            configurations += bracketSize(s);
+        }
+        return configurations;
+    }
+
+    // configurations started by bracket s (starts at rung rungs - 1 - s)
+    private int bracketSize(int s) {
+        return hyperband ? (int) Math.ceil(rungs * Math.pow(eta, s) / (s + 1)) : (int) Math.pow(eta, s);
+    }
+
+    // searches every Setup on its own, threads Setups at once with one backend each; resultCache may be null,
+    // seedRuns see ExperimentRunner
+    public void run(List<Setup> setups, BackendFactory backendFactory, int threads, StopCriterion stopCriterion,
+                    int swarmsByBatch, ResultCache resultCache, boolean seedRuns, ResultSink outputWriter)
+            throws IOException {
+        final ConcurrentLinkedQueue<Setup> queue = new ConcurrentLinkedQueue<>(setups);
+        final int workers = Math.max(1, Math.min(threads, setups.size()));
+        final ExecutorService executor = Executors.newFixedThreadPool(workers);
+        final List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            final int workerNumber = i;
+            futures.add(executor.submit(() -> {
+                final SimulationBackend backend = backendFactory.create(workerNumber);
+                try {
+                    final ExperimentRunner runner = new ExperimentRunner(backend, RunFilter.ALL, stopCriterion,
+                            swarmsByBatch, resultCache, seedRuns);
+                    for (Setup setup = queue.poll(); setup != null; setup = queue.poll()) {
+                        search(setup, runner, setups.size(), outputWriter);
+                    }
+                } finally {
+                    backend.dispose();
+                }
+                return null;
+            }));
+        }
+        executor.shutdown();
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for the parameter search", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("parameter search failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // all brackets of one Setup, returns the best configuration of the last rung
+    public Score search(Setup setup, ExperimentRunner runner, int numberOfSetups, ResultSink outputWriter)
+            throws IOException {
+        // the same configurations in every shard and run with the same seed
+        final PsoRandom random = new PsoRandom(seed ^ setup.getNumber() * 0x9E3779B97F4A7C15L);
+        int nextConfiguration = 1;
+        Score winner = null;
+        for (int s = rungs - 1; s >= (hyperband ? 0 : rungs - 1); s--) {
+            List<ExperimentDefinition> candidates = new ArrayList<>();
+            for (int i = 0; i < bracketSize(s); i++) {
+                candidates.add(sample(random, nextConfiguration++));
+            }
+            List<Score> ranked = null;
+            for (int rung = rungs - 1 - s; rung < rungs; rung++) {
+                ranked = runRung(setup, candidates, rung, runner, numberOfSetups, outputWriter);
+                System.out.printf("### Search setup %d, bracket %d, rung %d: %d configurations, %d iterations x " +
+                                "%d replications, best %s%n", setup.getNumber(), s, rung, candidates.size(),
+                        iterations(rung), replications(rung), ranked.get(0));
+                final int promoted = Math.max(1, candidates.size() / eta);
+                candidates = new ArrayList<>();
+                for (Score score : ranked.subList(0, promoted)) {
+                    candidates.add(score.getDefinition());
+                }
+            }
+            if (winner == null || BEST_FIRST.compare(ranked.get(0), winner) < 0) {
+                winner = ranked.get(0);
+            }
+        }
+        System.out.printf("### Best configuration of setup %d: %s%n", setup.getNumber(), winner);
+        synchronized (this) {
+            winners.put(setup.getNumber(), winner);
+        }
+        return winner;
+    }
+
+    private List<Score> runRung(Setup setup, List<ExperimentDefinition> candidates, int rung,
+                                ExperimentRunner runner, int numberOfSetups, ResultSink outputWriter)
+            throws IOException {
+        final List<ExperimentDefinition> definitions = new ArrayList<>();
+        final Map<Integer, Score> scores = new LinkedHashMap<>();
+        for (ExperimentDefinition candidate : candidates) {
+            final ExperimentDefinition definition = new ExperimentDefinition(
+                    rung * RUNG_NUMBERS + candidate.getNumber(), candidate.getParticleSpeedLimit(),
+                    candidate.getPersonalConfidence(), candidate.getSwarmConfidence(),
+                    candidate.getParticleInertia());
+            definitions.add(definition);
+            scores.put(ExperimentRunner.experimentNumber(setup, definition), new Score(candidate, rung));
+        }
+        // results are scored on their way to the output
+        final ResultSink scoring = new ResultSink() {
+            @Override
+            public void writeExperimentWithResult(Experiment experiment, int iteration) throws IOException {
+                scores.get(experiment.getNumber()).add(experiment);
+                outputWriter.writeExperimentWithResult(experiment, iteration);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        for (int replication = 1; replication <= replications(rung); replication++) {
+            runner.runSetup(setup, definitions, replication, replications(rung), numberOfSetups, scoring,
+                    iterations(rung));
+        }
+        synchronized (this) {
+            iterations += (long) definitions.size() * replications(rung) * iterations(rung);
+        }
+        final List<Score> ranked = new ArrayList<>(scores.values());
+        ranked.sort(BEST_FIRST);
+        return ranked;
+    }
+
+    private static ExperimentDefinition sample(PsoRandom random, int number) {
+        final int speedLimits = ParamConfig.PARTICLE_SPEED_LIMIT_MAX - ParamConfig.PARTICLE_SPEED_LIMIT_MIN + 1;
+        return ExperimentDefinition.builder()
+                .number(number)
+                .particleSpeedLimit(ParamConfig.PARTICLE_SPEED_LIMIT_MIN + (int) (random.nextDouble() * speedLimits))
+                .particleInertia(uniform(random, ParamConfig.PARTICLE_INERTIA_MIN, ParamConfig.PARTICLE_INERTIA_MAX))
+                .personalConfidence(uniform(random, ParamConfig.PERSONAL_CONFIDENCE_MIN,
+                        ParamConfig.PERSONAL_CONFIDENCE_MAX))
+                .swarmConfidence(uniform(random, ParamConfig.SWARM_CONFIDENCE_MIN, ParamConfig.SWARM_CONFIDENCE_MAX))
+                .build();
+    }
+
+    // rounded to 3 decimals like the values written to the results
+    private static double uniform(PsoRandom random, double min, double max) {
+        return Math.round((min + random.nextDouble() * (max - min)) * 1000) / 1000.0;
+    }
+
+    // iterations of all runs compared to the full grid of ExperimentGrid.DEFAULT on the searched Setups
+    public synchronized String getBudgetStatistics() {
+        final long grid = (long) winners.size() * ExperimentGrid.DEFAULT.getNumberOfExperiments() *
+                Main.ITERATIONS * Main.MAX_ITERATIONS_BY_RUN;
+        return String.format("%d configurations per setup, %d iterations run, %.1f%% of the %d of the grid",
+                configurations(), iterations, grid == 0 ? 0 : 100.0 * iterations / grid, grid);
+    }
+
+    // range of the winning parameters of the searched Setups of every fitness function
+    public synchronized String getRegions() {
+        final Map<String, List<ExperimentDefinition>> byFunction = new LinkedHashMap<>();
+        for (String function : ParamConfig.FITNESS_FUNCTIONS) {
+            byFunction.put(function, new ArrayList<>());
+        }
+        for (Map.Entry<Integer, Score> winner : winners.entrySet()) {
+            byFunction.get(ExperimentGrid.DEFAULT.setup(winner.getKey()).getFitnessFunction())
+                    .add(winner.getValue().getDefinition());
+        }
+        final StringBuilder regions = new StringBuilder();
+        for (Map.Entry<String, List<ExperimentDefinition>> function : byFunction.entrySet()) {
+            final List<ExperimentDefinition> definitions = function.getValue();
+            if (definitions.isEmpty()) {
+                continue;
+            }
+            regions.append(String.format("%s (%d setups): speed limit %s, inertia %s, personal %s, swarm %s%n",
+                    function.getKey(), definitions.size(),
+                    range(definitions, d -> d.getParticleSpeedLimit()),
+                    range(definitions, ExperimentDefinition::getParticleInertia),
+                    range(definitions, ExperimentDefinition::getPersonalConfidence),
+                    range(definitions, ExperimentDefinition::getSwarmConfidence)));
+        }
+        return regions.toString();
+    }
+
+    private static String range(List<ExperimentDefinition> definitions,
+                                ToDoubleFunction<ExperimentDefinition> parameter) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+        for (ExperimentDefinition definition : definitions) {
+            final double value = parameter.applyAsDouble(definition);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+        }
+        return String.format("%.3g-%.3g (mean %.3g)", min, max, sum / definitions.size());
+    }
+
+}
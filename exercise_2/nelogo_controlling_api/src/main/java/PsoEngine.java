@@ -0,0 +1,228 @@
+import lombok.AccessLevel;
+import lombok.Getter;
+
+// Java implementation of the PSO of PSO_NL_Template.nlogo (initialize-agents, initialize-global-best and iterate)
+// the particle state is kept in one primitive array per turtle variable, indexed by particle
+@Getter
+public final class PsoEngine {
+
+    // version of the results of a seeded run, increased with every change of them; part of the ResultCache keys
+    public static final int VERSION = 1;
+
+    private final Landscape landscape;
+    private final PsoRandom random;
+    private final int populationSize;
+
+    // constraint handling as configured at setup
+    private final int constraint;
+    private final boolean rejection;
+    // lookup of violates, null for the constraints without index
+    private final ConstraintIndex constraintIndex;
+
+    // parameters, can be changed between runs
+    private double particleSpeedLimit = ParamConfig.PARTICLE_SPEED_LIMIT_DEFAULT;
+    private double particleInertia = ParamConfig.PARTICLE_INERTIA_DEFAULT;
+    private double personalConfidence = ParamConfig.PERSONAL_CONFIDENCE_DEFAULT;
+    private double swarmConfidence = ParamConfig.SWARM_CONFIDENCE_DEFAULT;
+
+    // turtles-own
+    private final double[] x;
+    private final double[] y;
+    private final double[] vx;
+    private final double[] vy;
+    private final double[] personalBestVal;
+    private final double[] personalBestX;
+    private final double[] personalBestY;
+    // four random numbers per particle for an iteration
+    @Getter(AccessLevel.NONE)
+    private final double[] uniforms;
+
+    // globals
+    private double globalBestX;
+    private double globalBestY;
+    private double globalBestVal;
+    private int iterations;
+    private int iterationsToOpt;
+
+    // constraint is the NetLogo name of the constraint, null if constraints are turned off
+    public PsoEngine(Landscape landscape, PsoRandom random, int populationSize, String constraint,
+                     String constraintHandlingMethod) {
+        this(landscape, random, populationSize, constraint, constraintHandlingMethod,
+                index(Constraints.id(constraint), landscape));
+    }
+
+    // constraintIndex has to be the index of the constraint for the world of the landscape, null to test directly
+    public PsoEngine(Landscape landscape, PsoRandom random, int populationSize, String constraint,
+                     String constraintHandlingMethod, ConstraintIndex constraintIndex) {
+        this.landscape = landscape;
+        this.random = random;
+        this.populationSize = populationSize;
+        this.constraint = Constraints.id(constraint);
+        if (constraintIndex != null && !constraintIndex.matches(this.constraint, landscape)) {
+            throw new IllegalArgumentException("constraint index of constraint " + constraintIndex.getConstraint() +
+                    " does not match " + constraint + " on the world of the landscape");
+        }
+        this.constraintIndex = constraintIndex;
+        this.rejection = ParamConfig.CONSTRAINT_HANDLING_REJECTION.equals(constraintHandlingMethod);
+        x = new double[populationSize];
+        y = new double[populationSize];
+        vx = new double[populationSize];
+        vy = new double[populationSize];
+        personalBestVal = new double[populationSize];
+        personalBestX = new double[populationSize];
+        personalBestY = new double[populationSize];
+        uniforms = new double[4 * populationSize];
+    }
+
+    public void setParameters(double particleSpeedLimit, double particleInertia, double personalConfidence,
+                              double swarmConfidence) {
+        this.particleSpeedLimit = particleSpeedLimit;
+        this.particleInertia = particleInertia;
+        this.personalConfidence = personalConfidence;
+        this.swarmConfidence = swarmConfidence;
+    }
+
+    // initialize-agents and initialize-global-best, the globals are reset like clear-all does
+    public void initialize() {
+        for (int i = 0; i < populationSize; i++) {
+            x[i] = randomXcor();
+            y[i] = randomYcor();
+            // avoid turtles in the regions violating the constraints
+            while (violates(x[i], y[i])) {
+                y[i] = randomYcor();
+                x[i] = randomXcor();
+            }
+            vx[i] = random.nextGaussian();
+            vy[i] = random.nextGaussian();
+
+            personalBestVal[i] = landscape.valueAt(x[i], y[i]);
+            personalBestX[i] = x[i];
+            personalBestY[i] = y[i];
+        }
+        globalBestX = landscape.getMaxPxcor();
+        globalBestY = landscape.getMaxPycor();
+        globalBestVal = 0;
+        iterations = 0;
+        iterationsToOpt = 0;
+    }
+
+    public void iterate() {
+        updateParticlePositions();
+        updatePersonalBest();
+        updateGlobalBest();
+        iterations++;
+    }
+
+    public boolean isOptimumReached() {
+        return globalBestVal == landscape.getTrueBestValue();
+    }
+
+    // largest distance of a particle from the global best position on the torus
+    public double swarmRadius() {
+        double max = 0;
+        for (int i = 0; i < populationSize; i++) {
+            double dx = landscape.deltaX(x[i], globalBestX);
+            double dy = landscape.deltaY(y[i], globalBestY);
+            max = Math.max(max, dx * dx + dy * dy);
+        }
+        return Math.sqrt(max);
+    }
+
+    // particles, globals and random state, the landscape is only referenced
+    public WorldSnapshot snapshot() {
+        final long[] who = new long[populationSize];
+        for (int i = 0; i < populationSize; i++) {
+            who[i] = i;
+        }
+        return WorldSnapshot.builder()
+                .landscape(landscape)
+                .who(who)
+                .xcor(x.clone())
+                .ycor(y.clone())
+                .vx(vx.clone())
+                .vy(vy.clone())
+                .personalBestVal(personalBestVal.clone())
+                .personalBestX(personalBestX.clone())
+                .personalBestY(personalBestY.clone())
+                .globalBestX(globalBestX)
+                .globalBestY(globalBestY)
+                .globalBestVal(globalBestVal)
+                .maxX(landscape.getMaxPxcor())
+                .maxY(landscape.getMaxPycor())
+                .iterations(iterations)
+                .iterationsToOpt(iterationsToOpt)
+                .random(random.copy())
+                .build();
+    }
+
+    // restores a snapshot of this engine or of a NetLogo world with the same landscape and population
+    // the random state is only restored if the snapshot contains a PsoRandom
+    public void restore(WorldSnapshot snapshot) {
+        if (snapshot.getNumberOfTurtles() != populationSize) {
+            throw new IllegalArgumentException("snapshot has " + snapshot.getNumberOfTurtles() +
+                    " particles but the engine has " + populationSize);
+        }
+        if (snapshot.getLandscape() != null && snapshot.getLandscape() != landscape) {
+            throw new IllegalArgumentException("snapshot was taken on a different landscape");
+        }
+        System.arraycopy(snapshot.getXcor(), 0, x, 0, populationSize);
+        System.arraycopy(snapshot.getYcor(), 0, y, 0, populationSize);
+        System.arraycopy(snapshot.getVx(), 0, vx, 0, populationSize);
+        System.arraycopy(snapshot.getVy(), 0, vy, 0, populationSize);
+        System.arraycopy(snapshot.getPersonalBestVal(), 0, personalBestVal, 0, populationSize);
+        System.arraycopy(snapshot.getPersonalBestX(), 0, personalBestX, 0, populationSize);
+        System.arraycopy(snapshot.getPersonalBestY(), 0, personalBestY, 0, populationSize);
+        globalBestX = snapshot.getGlobalBestX();
+        globalBestY = snapshot.getGlobalBestY();
+        globalBestVal = snapshot.getGlobalBestVal();
+        iterations = (int) snapshot.getIterations();
+        iterationsToOpt = (int) snapshot.getIterationsToOpt();
+        if (snapshot.getRandom() != null) {
+            random.copyFrom(snapshot.getRandom());
+        }
+    }
+
+    // the random numbers of an iteration are drawn before the particle loop, the same values in the same order as
+    // one nextDouble per term
+    private void updateParticlePositions() {
+        random.nextDoubles(uniforms, uniforms.length);
+        SwarmUpdate.updateParticlePositions(landscape, constraint, constraintIndex, rejection, x, y, vx, vy,
+                personalBestX, personalBestY, 0, populationSize, uniforms, particleSpeedLimit, particleInertia,
+                personalConfidence, swarmConfidence, globalBestX, globalBestY);
+    }
+
+    private void updatePersonalBest() {
+        SwarmUpdate.updatePersonalBest(landscape, x, y, personalBestVal, personalBestX, personalBestY, 0,
+                populationSize);
+    }
+
+    private void updateGlobalBest() {
+        final int best = SwarmUpdate.bestParticle(personalBestVal, 0, populationSize);
+        if (globalBestVal < personalBestVal[best]) {
+            globalBestVal = personalBestVal[best];
+            globalBestX = personalBestX[best];
+            globalBestY = personalBestY[best];
+            iterationsToOpt = iterations;
+        }
+    }
+
+    private boolean violates(double px, double py) {
+        return SwarmUpdate.violates(landscape, constraint, constraintIndex, px, py);
+    }
+
+    // index of the constraint for the world of the landscape, null if there is none
+    static ConstraintIndex index(int constraint, Landscape landscape) {
+        return ConstraintIndex.supports(constraint, landscape.getMaxPxcor(), landscape.getMaxPycor()) ?
+                ConstraintIndex.build(constraint, landscape) : null;
+    }
+
+    // random-xcor and random-ycor
+    private double randomXcor() {
+        return landscape.getMinPxcor() - 0.5 + random.nextDouble() * landscape.getWidth();
+    }
+
+    private double randomYcor() {
+        return landscape.getMinPycor() - 0.5 + random.nextDouble() * landscape.getHeight();
+    }
+
+}
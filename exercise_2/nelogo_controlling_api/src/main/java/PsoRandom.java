@@ -0,0 +1,74 @@
+// SplitMix64 random generator for the Java PSO engine
+// unlike java.util.Random its state can be copied, which is needed to restore a world like import-world does
+public final class PsoRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long seed;
+    private double nextGaussian;
+    private boolean haveNextGaussian;
+
+    public PsoRandom(long seed) {
+        this.seed = seed;
+    }
+
+    public long nextLong() {
+        seed += GOLDEN_GAMMA;
+        return mix64(seed);
+    }
+
+    // uniform in [0, 1)
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    // the next count values of nextDouble into buffer; the value i only depends on seed + (i + 1) * GOLDEN_GAMMA,
+    // so the loop has no dependency from one value to the next
+    public void nextDoubles(double[] buffer, int count) {
+        final long start = seed;
+        for (int i = 0; i < count; i++) {
+            buffer[i] = (mix64(start + (i + 1) * GOLDEN_GAMMA) >>> 11) * DOUBLE_UNIT;
+        }
+        seed = start + count * GOLDEN_GAMMA;
+    }
+
+    // standard normal distributed value (polar method)
+    public double nextGaussian() {
+        if (haveNextGaussian) {
+            haveNextGaussian = false;
+            return nextGaussian;
+        }
+        double v1;
+        double v2;
+        double s;
+        do {
+            v1 = 2 * nextDouble() - 1;
+            v2 = 2 * nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+        nextGaussian = v2 * multiplier;
+        haveNextGaussian = true;
+        return v1 * multiplier;
+    }
+
+    public PsoRandom copy() {
+        PsoRandom copy = new PsoRandom(seed);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    public void copyFrom(PsoRandom other) {
+        seed = other.seed;
+        nextGaussian = other.nextGaussian;
+        haveNextGaussian = other.haveNextGaussian;
+    }
+
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+}
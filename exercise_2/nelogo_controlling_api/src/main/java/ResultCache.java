@@ -0,0 +1,244 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// results of earlier runs on disk, keyed by everything a run depends on: the model, the world and landscape, all
+// parameters of the Experiment, the seed of the run (see ExperimentRunner.runSeed), the iteration budget and the
+// StopCriterion; a sweep only simulates runs whose key is not in the cache yet
+// the file is an append-only log of lines "key<TAB>result", written through on every run, so the results of a killed
+// sweep are kept (a partial last line is cut off on open); the index is an open addressing table of a 64 bit hash of
+// the key -> offset of the line, built by one scan on open; hits are read back and their key is compared, so a hash
+// collision only costs a read
+public final class ResultCache implements Closeable {
+
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+    private static final int LINE_BUFFER_SIZE = 1024;
+
+    private final FileChannel channel;
+    // identifies the model the results were simulated with, part of every key
+    private final String model;
+    // applied to every hash, only tests keep less bits to make keys collide
+    private final long hashMask;
+    private long size;
+
+    private long[] hashes;
+    // offset + 1 of the line, 0 for free slots
+    private long[] offsets;
+    private int entries;
+    private int hits;
+    private int misses;
+
+    private ResultCache(FileChannel channel, String model, long hashMask, int expectedSize) {
+        this.channel = channel;
+        this.model = model;
+        this.hashMask = hashMask;
+        final int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        this.hashes = new long[capacity];
+        this.offsets = new long[capacity];
+    }
+
+    // opens (or creates) the log and indexes its lines
+    public static ResultCache open(Path file, String model) throws IOException {
+        return open(file, model, -1L);
+    }
+
+    static ResultCache open(Path file, String model, long hashMask) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            final ResultCache cache = new ResultCache(channel, model, hashMask,
+                    (int) Math.min(channel.size() / 200, 1 << 26));
+            cache.index();
+            return cache;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void index() throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        final StringBuilder key = new StringBuilder();
+        long position = 0;
+        long lineStart = 0;
+        boolean inKey = true;
+        while (channel.read(buffer, position) > 0) {
+            buffer.flip();
+            final byte[] bytes = buffer.array();
+            for (int i = 0; i < buffer.limit(); i++) {
+                final byte b = bytes[i];
+                if (b == '\n') {
+                    insert(hash(key) & hashMask, lineStart);
+                    key.setLength(0);
+                    inKey = true;
+                    lineStart = position + i + 1;
+                } else if (b == '\t') {
+                    inKey = false;
+                } else if (inKey) {
+                    // keys are written as UTF-8, every byte is hashed on its own (see hash)
+                    key.append((char) (b & 0xff));
+                }
+            }
+            position += buffer.limit();
+            buffer.clear();
+        }
+        if (lineStart < position) {
+            channel.truncate(lineStart);
+        }
+        size = lineStart;
+    }
+
+    // the key of a run, seed see ExperimentRunner.runSeed
+    public String key(Experiment experiment, LandscapeSpec landscape, long seed, int maxIterations,
+                      StopCriterion stopCriterion) {
+        final StringBuilder key = new StringBuilder(512)
+                .append(model).append('|').append(seed).append('|').append(landscape).append('|');
+        for (int i = 0; i < ParameterSchema.size(); i++) {
+            key.append(ParameterSchema.netLogoName(i)).append('=').append(experiment.getParameterValue(i)).append(';');
+        }
+        return key.append('|').append(maxIterations).append('|').append(stopCriterion).toString();
+    }
+
+    // sets the results as reported by the backend and the stop reason (null without StopCriterion) of a cached run
+    // on the experiment, false if the key is not in the cache
+    public synchronized boolean get(String key, Experiment experiment) throws IOException {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final long hash = hash(keyBytes) & hashMask;
+        final int mask = hashes.length - 1;
+        for (int slot = slot(hash, mask); offsets[slot] != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] != hash) {
+                continue;
+            }
+            final String line = readLine(offsets[slot] - 1);
+            final int separator = line.indexOf('\t');
+            if (separator > 0 && line.substring(0, separator).equals(key)) {
+                setResult(experiment, line.substring(separator + 1).split("\t", -1));
+                hits++;
+                return true;
+            }
+        }
+        misses++;
+        return false;
+    }
+
+    // appends the results of a run, the experiment has the values set by SimulationBackend.report
+    public synchronized void put(String key, Experiment experiment, String stopReason) throws IOException {
+        final String line = key + '\t' + experiment.getFitness() + '\t' + experiment.getOptimum() + '\t' +
+                experiment.getNumberOfIterations() + '\t' + experiment.isOptimumReached() + '\t' +
+                experiment.getNumberOfIterationsUntilFitness() + '\t' + (stopReason == null ? "" : stopReason) + '\n';
+        final ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        final long offset = size;
+        while (buffer.hasRemaining()) {
+            size += channel.write(buffer, size);
+        }
+        insert(hash(key.getBytes(StandardCharsets.UTF_8)) & hashMask, offset);
+    }
+
+    private static void setResult(Experiment experiment, String[] cells) {
+        experiment.setFitness(Double.parseDouble(cells[0]));
+        experiment.setOptimum(Double.parseDouble(cells[1]));
+        experiment.setNumberOfIterations(Integer.parseInt(cells[2]));
+        experiment.setOptimumReached(Boolean.parseBoolean(cells[3]));
+        experiment.setNumberOfIterationsUntilFitness(Integer.parseInt(cells[4]));
+        experiment.setStopReason(cells[5].isEmpty() ? null : cells[5]);
+    }
+
+    private String readLine(long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(LINE_BUFFER_SIZE);
+        while (true) {
+            channel.read(buffer, offset + buffer.position());
+            final byte[] bytes = buffer.array();
+            for (int i = 0; i < buffer.position(); i++) {
+                if (bytes[i] == '\n') {
+                    return new String(bytes, 0, i, StandardCharsets.UTF_8);
+                }
+            }
+            if (offset + buffer.position() >= size) {
+                throw new IOException("line at " + offset + " of the result cache has no end");
+            }
+            if (!buffer.hasRemaining()) {
+                final ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+    }
+
+    private void insert(long hash, long offset) {
+        if ((entries + 1) * 2 > hashes.length) {
+            grow();
+        }
+        final int mask = hashes.length - 1;
+        int slot = slot(hash, mask);
+        while (offsets[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        offsets[slot] = offset + 1;
+        entries++;
+    }
+
+    private void grow() {
+        final long[] oldHashes = hashes;
+        final long[] oldOffsets = offsets;
+        hashes = new long[oldHashes.length * 2];
+        offsets = new long[oldOffsets.length * 2];
+        entries = 0;
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldOffsets[i] != 0) {
+                insert(oldHashes[i], oldOffsets[i] - 1);
+            }
+        }
+    }
+
+    private static int slot(long hash, int mask) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    // FNV-1a of the UTF-8 bytes with the SplitMix64 finalizer
+    static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // same as hash(byte[]) for a key of bytes stored as chars 0 to 255
+    private static long hash(CharSequence bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < bytes.length(); i++) {
+            hash = (hash ^ bytes.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    public synchronized int getEntries() {
+        return entries;
+    }
+
+    public synchronized String getStatistics() {
+        return String.format("%d runs served from the cache, %d simulated, %d entries", hits, misses, entries);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,104 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// converts result files between the csv of OutputWriter and the format of ColumnarResultWriter
+// usage: ResultConverter [--compress] [--block-rows N] results.csv... (writes results.psor next to every csv)
+//        ResultConverter --to-csv results.psor... (writes results.csv next to every file, same content as the original)
+public final class ResultConverter {
+
+    private ResultConverter() {
+    }
+
+    public static void main(String[] argv) {
+        boolean toCsv = false;
+        boolean compress = false;
+        int blockRows = ColumnarResultWriter.DEFAULT_BLOCK_ROWS;
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < argv.length; i++) {
+            switch (argv[i]) {
+                case "--to-csv":
+                    toCsv = true;
+                    break;
+                case "--compress":
+                    compress = true;
+                    break;
+                case "--block-rows":
+                    blockRows = Integer.parseInt(argv[++i]);
+                    break;
+                default:
+                    files.add(Paths.get(argv[i]));
+                    break;
+            }
+        }
+        try {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String baseName = name.contains(".") ? name.substring(0, name.lastIndexOf('.')) : name;
+                if (toCsv) {
+                    Path csv = file.resolveSibling(baseName + ".csv");
+                    toCsv(file, csv);
+                    System.out.printf("%s -> %s%n", file, csv);
+                } else {
+                    Path columnar = file.resolveSibling(baseName + ColumnarResultWriter.FILE_EXTENSION);
+                    long rows = toColumnar(file, columnar, blockRows, compress);
+                    System.out.printf("%s -> %s: %d rows, %d -> %d bytes%n", file, columnar, rows,
+                            Files.size(file), Files.size(columnar));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static long toColumnar(Path csv, Path columnar, int blockRows, boolean compress) throws IOException {
+        long rows = 0;
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+             ColumnarResultWriter writer = new ColumnarResultWriter(columnar, blockRows, compress)) {
+            String header = reader.readLine();
+            if (header == null || !Arrays.equals(header.split(",", -1), ColumnarResultWriter.COLUMN_NAMES)) {
+                throw new IOException("unexpected header in " + csv + ": " + header);
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                writer.writeCsvRow(line.split(",", -1));
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    public static void toCsv(Path columnar, Path csv) throws IOException {
+        try (ColumnarResultReader reader = new ColumnarResultReader(columnar);
+             BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            String[] columns = reader.getColumnNames();
+            writer.write(String.join(",", columns));
+            writer.write("\n");
+            StringBuilder line = new StringBuilder();
+            reader.scan(block -> {
+                for (int row = 0; row < block.getRowCount(); row++) {
+                    line.setLength(0);
+                    for (int column = 0; column < columns.length; column++) {
+                        if (column > 0) {
+                            line.append(',');
+                        }
+                        line.append(block.getText(column, row));
+                    }
+                    line.append('\n');
+                    writer.write(line.toString());
+                }
+            }, columns);
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// reads the rows of a results csv of OutputWriter, cells are indexed like ColumnarResultWriter.COLUMN_NAMES
+public final class ResultCsv {
+
+    @FunctionalInterface
+    public interface RowVisitor {
+        void visit(String[] cells) throws IOException;
+    }
+
+    private ResultCsv() {
+    }
+
+    // a missing file has no rows
+    public static void forEachRow(Path csv, RowVisitor visitor) throws IOException {
+        if (!Files.exists(csv)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    visitor.visit(line.split(",", -1));
+                }
+            }
+        }
+    }
+
+    public static String[] parameters(String[] cells) {
+        String[] parameters = new String[ParameterSchema.size()];
+        System.arraycopy(cells, ColumnarResultWriter.FIRST_PARAMETER, parameters, 0, parameters.length);
+        return parameters;
+    }
+
+    // parameters of an experiment as written to the csv
+    public static String[] parameters(Experiment experiment) {
+        String[] parameters = new String[ParameterSchema.size()];
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = String.valueOf(experiment.getParameterValue(i));
+        }
+        return parameters;
+    }
+
+}
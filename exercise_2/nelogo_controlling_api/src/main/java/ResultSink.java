@@ -0,0 +1,12 @@
+import java.io.IOException;
+
+// destination of experiment results, e.g. the csv OutputWriter or the ColumnarResultWriter
+// implementations are used by several worker threads at once
+public interface ResultSink extends AutoCloseable {
+
+    void writeExperimentWithResult(Experiment experiment, int iteration) throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+}
@@ -0,0 +1,26 @@
+import java.util.List;
+
+// decides which runs (iteration, experiment number) are run, e.g. to skip completed runs of a resumed sweep
+@FunctionalInterface
+public interface RunFilter {
+
+    RunFilter ALL = (iteration, experimentNumber) -> true;
+
+    boolean shouldRun(int iteration, int experimentNumber);
+
+    default RunFilter and(RunFilter other) {
+        return (iteration, experimentNumber) ->
+                shouldRun(iteration, experimentNumber) && other.shouldRun(iteration, experimentNumber);
+    }
+
+    // true if at least one ExperimentDefinition of the Setup is run in the given iteration
+    default boolean anyToRun(int iteration, Setup setup, List<ExperimentDefinition> experiments) {
+        for (ExperimentDefinition experiment : experiments) {
+            if (shouldRun(iteration, ExperimentRunner.experimentNumber(setup, experiment))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
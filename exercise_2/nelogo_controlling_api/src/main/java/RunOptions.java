@@ -0,0 +1,338 @@
+import lombok.Data;
+
+// command line options of Main
+@Data
+public class RunOptions {
+
+    public static final String BACKEND_NETLOGO = "netlogo";
+    public static final String BACKEND_JAVA = "java";
+    public static final String OUTPUT_CSV = "csv";
+    public static final String OUTPUT_COLUMNAR = "columnar";
+
+    // number of HeadlessWorkspaces (or Java engines) running in parallel
+    private int threads = Runtime.getRuntime().availableProcessors();
+    // BACKEND_NETLOGO or BACKEND_JAVA
+    private String backend = BACKEND_NETLOGO;
+    // directory of the LandscapeCache, null if landscapes are built on every setup
+    // opt in: with the cache the NetLogo backend sets the patch values instead of running initialize-topology, whose
+    // ask and max-one-of draw random numbers, so the runs do not get the random numbers of the model setup
+    private String landscapeCache;
+    // LandscapeStore.Encoding of the landscapes of the LandscapeCache (double, float or short), null for double[]
+    private String landscapeStore;
+    // runs the Java backend on the store and on full precision landscapes with the same seed and compares the results
+    private boolean verifyLandscapeStore = false;
+    // restore worlds from memory instead of import-world "backup.txt"
+    private boolean snapshots = true;
+    // LeanModel setup and iterate without the visualisation of the model (headless NetLogo only); the setup of the
+    // landscape cache takes precedence over the lean setup (see NetLogoBackend.setup)
+    private boolean lean = true;
+    // write results on a background thread (AsyncOutputWriter) in batches of batchRows rows or batchMillis
+    private boolean asyncOutput = false;
+    private int batchRows = 256;
+    private long batchMillis = 1000;
+    // OUTPUT_CSV (OutputWriter) or OUTPUT_COLUMNAR (ColumnarResultWriter, optionally compressed)
+    private String outputFormat = OUTPUT_CSV;
+    private boolean compressOutput = false;
+    // results csv of an earlier (killed) run: completed runs are skipped and new results are appended to it
+    private String resume;
+    // AdaptiveReplication instead of Main.ITERATIONS replications, targets are half widths of 95% intervals
+    private boolean adaptive = false;
+    private int minReplications = 5;
+    private int maxReplications = 30;
+    private double successRateHalfWidth = 0.2;
+    private double fitnessHalfWidth = 0.05;
+    private double iterationsToOptHalfWidth = 50;
+    // StreamingAggregator summary next to the results, rewritten every summarySeconds; opt-in, so a sweep only writes
+    // its results file unless asked for more
+    private boolean summary = false;
+    private long summarySeconds = 60;
+    // only run the Setups of shard i/n of the ExperimentGrid (0 <= i < n), see ExperimentGrid.setups
+    private int shardIndex = 0;
+    private int shardCount = 1;
+    // port to hand out work units to Worker processes (Coordinator), or host:port of the coordinator to work for
+    private Integer coordinatorPort;
+    private String workerOf;
+    private long leaseSeconds = 600;
+    // runs end early (StopCriterion), stop_reason and iterations_executed are written then
+    private boolean stopAtOptimum = false;
+    private int stagnationIterations = 0;
+    private double swarmRadius = 0;
+    // runs of a Setup advanced together as swarms of one BatchPsoEngine (Java backend), 1 for one after the other
+    private int swarmsByBatch = 1;
+    // ParameterSearch (halving or hyperband) instead of the ExperimentDefinitions of the grid, null for the grid
+    private String search;
+    private int searchEta = 3;
+    private int searchRungs = 4;
+    // seed of the sampled configurations, random if null
+    private Long searchSeed;
+    // ResultCache log file, runs already in it are not simulated again; null to simulate every run
+    private String resultCache;
+    // every run is seeded with ExperimentRunner.runSeed, so its result only depends on the Setup, the iteration and
+    // its parameters; off by default (new random numbers in every sweep), always on with a result cache
+    private boolean seedRuns = false;
+
+    public static RunOptions parse(String[] argv) {
+        RunOptions options = new RunOptions();
+        for (int i = 0; i < argv.length; i++) {
+            switch (argv[i]) {
+                case "--threads":
+                    options.setThreads(Integer.parseInt(value(argv, ++i, "--threads")));
+                    break;
+                case "--backend":
+                    options.setBackend(value(argv, ++i, "--backend"));
+                    if (!BACKEND_NETLOGO.equals(options.getBackend()) && !BACKEND_JAVA.equals(options.getBackend())) {
+                        throw new IllegalArgumentException("--backend has to be " + BACKEND_NETLOGO + " or " +
+                                BACKEND_JAVA + " but was " + options.getBackend());
+                    }
+                    break;
+                case "--landscape-cache":
+                    options.setLandscapeCache(value(argv, ++i, "--landscape-cache"));
+                    break;
+                case "--no-landscape-cache":
+                    options.setLandscapeCache(null);
+                    break;
+                case "--landscape-store":
+                    options.setLandscapeStore(value(argv, ++i, "--landscape-store"));
+                    break;
+                case "--verify-landscape-store":
+                    options.setVerifyLandscapeStore(true);
+                    break;
+                case "--import-world":
+                    options.setSnapshots(false);
+                    break;
+                case "--no-lean":
+                    options.setLean(false);
+                    break;
+                case "--async-output":
+                    options.setAsyncOutput(true);
+                    break;
+                case "--batch-rows":
+                    options.setBatchRows(Integer.parseInt(value(argv, ++i, "--batch-rows")));
+                    break;
+                case "--batch-millis":
+                    options.setBatchMillis(Long.parseLong(value(argv, ++i, "--batch-millis")));
+                    break;
+                case "--output-format":
+                    options.setOutputFormat(value(argv, ++i, "--output-format"));
+                    if (!OUTPUT_CSV.equals(options.getOutputFormat()) &&
+                            !OUTPUT_COLUMNAR.equals(options.getOutputFormat())) {
+                        throw new IllegalArgumentException("--output-format has to be " + OUTPUT_CSV + " or " +
+                                OUTPUT_COLUMNAR + " but was " + options.getOutputFormat());
+                    }
+                    break;
+                case "--compress-output":
+                    options.setCompressOutput(true);
+                    break;
+                case "--resume":
+                    options.setResume(value(argv, ++i, "--resume"));
+                    break;
+                case "--adaptive":
+                    options.setAdaptive(true);
+                    break;
+                case "--min-replications":
+                    options.setMinReplications(Integer.parseInt(value(argv, ++i, "--min-replications")));
+                    break;
+                case "--max-replications":
+                    options.setMaxReplications(Integer.parseInt(value(argv, ++i, "--max-replications")));
+                    break;
+                case "--ci-success-rate":
+                    options.setSuccessRateHalfWidth(Double.parseDouble(value(argv, ++i, "--ci-success-rate")));
+                    break;
+                case "--ci-fitness":
+                    options.setFitnessHalfWidth(Double.parseDouble(value(argv, ++i, "--ci-fitness")));
+                    break;
+                case "--shard":
+                    String[] shard = value(argv, ++i, "--shard").split("/");
+                    if (shard.length != 2) {
+                        throw new IllegalArgumentException("--shard has to be i/n but was " + argv[i]);
+                    }
+                    options.setShardIndex(Integer.parseInt(shard[0]));
+                    options.setShardCount(Integer.parseInt(shard[1]));
+                    break;
+                case "--coordinator":
+                    options.setCoordinatorPort(Integer.parseInt(value(argv, ++i, "--coordinator")));
+                    break;
+                case "--worker":
+                    options.setWorkerOf(value(argv, ++i, "--worker"));
+                    if (options.getWorkerOf().lastIndexOf(':') < 1) {
+                        throw new IllegalArgumentException("--worker has to be host:port but was " + argv[i]);
+                    }
+                    break;
+                case "--lease-seconds":
+                    options.setLeaseSeconds(Long.parseLong(value(argv, ++i, "--lease-seconds")));
+                    break;
+                case "--summary":
+                    options.setSummary(true);
+                    break;
+                case "--no-summary":
+                    options.setSummary(false);
+                    break;
+                case "--summary-seconds":
+                    options.setSummarySeconds(Long.parseLong(value(argv, ++i, "--summary-seconds")));
+                    break;
+                case "--stop-at-optimum":
+                    options.setStopAtOptimum(true);
+                    break;
+                case "--stop-stagnation":
+                    options.setStagnationIterations(Integer.parseInt(value(argv, ++i, "--stop-stagnation")));
+                    break;
+                case "--stop-swarm-radius":
+                    options.setSwarmRadius(Double.parseDouble(value(argv, ++i, "--stop-swarm-radius")));
+                    break;
+                case "--batch-swarms":
+                    options.setSwarmsByBatch(Integer.parseInt(value(argv, ++i, "--batch-swarms")));
+                    break;
+                case "--search":
+                    options.setSearch(value(argv, ++i, "--search"));
+                    if (!ParameterSearch.HALVING.equals(options.getSearch()) &&
+                            !ParameterSearch.HYPERBAND.equals(options.getSearch())) {
+                        throw new IllegalArgumentException("--search has to be " + ParameterSearch.HALVING + " or " +
+                                ParameterSearch.HYPERBAND + " but was " + options.getSearch());
+                    }
+                    break;
+                case "--search-eta":
+                    options.setSearchEta(Integer.parseInt(value(argv, ++i, "--search-eta")));
+                    break;
+                case "--search-rungs":
+                    options.setSearchRungs(Integer.parseInt(value(argv, ++i, "--search-rungs")));
+                    break;
+                case "--search-seed":
+                    options.setSearchSeed(Long.parseLong(value(argv, ++i, "--search-seed")));
+                    break;
+                case "--result-cache":
+                    options.setResultCache(value(argv, ++i, "--result-cache"));
+                    break;
+                case "--seed-runs":
+                    options.setSeedRuns(true);
+                    break;
+                case "--ci-iterations-to-opt":
+                    options.setIterationsToOptHalfWidth(
+                            Double.parseDouble(value(argv, ++i, "--ci-iterations-to-opt")));
+                    break;
+                default:
+                    // unknown arguments are left for NetLogo
+                    break;
+            }
+        }
+        options.validate();
+        return options;
+    }
+
+    public boolean isJavaBackend() {
+        return BACKEND_JAVA.equals(backend);
+    }
+
+    public void validate() {
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("--shard has to be i/n with 0 <= i < n but was " + shardIndex + "/" +
+                    shardCount);
+        }
+        if (coordinatorPort != null && workerOf != null) {
+            throw new IllegalArgumentException("--coordinator and --worker can not be used together");
+        }
+        if (coordinatorPort != null && adaptive) {
+            throw new IllegalArgumentException("--adaptive needs all results of an iteration before the next one " +
+                    "and is not supported with --coordinator");
+        }
+        if (resume != null && isColumnarOutput()) {
+            throw new IllegalArgumentException("--resume needs the csv output, columnar files can only be read " +
+                    "after they are closed; convert the csv with ResultConverter afterwards");
+        }
+        if (stagnationIterations < 0 || swarmRadius < 0) {
+            throw new IllegalArgumentException("--stop-stagnation and --stop-swarm-radius can not be negative");
+        }
+        if (getStopCriterion().isEnabled() && isColumnarOutput()) {
+            throw new IllegalArgumentException("the columnar output has no stop_reason and iterations_executed " +
+                    "columns, use the csv output with --stop-* options");
+        }
+        if (swarmsByBatch < 1) {
+            throw new IllegalArgumentException("--batch-swarms has to be at least 1 but was " + swarmsByBatch);
+        }
+        if (swarmsByBatch > 1 && (!isJavaBackend() || workerOf != null)) {
+            throw new IllegalArgumentException("--batch-swarms needs the Java backend and is not supported with " +
+                    "--worker");
+        }
+        if (getStopCriterion().isEnabled() && workerOf != null) {
+            throw new IllegalArgumentException("workers run with the --stop-* options of the coordinator");
+        }
+        if (landscapeStore != null && landscapeCache == null) {
+            throw new IllegalArgumentException("--landscape-store keeps the landscapes of the landscape cache, " +
+                    "it needs --landscape-cache");
+        }
+        // fails for an unknown encoding
+        getLandscapeStoreEncoding();
+        if (verifyLandscapeStore && (landscapeStore == null || !isJavaBackend())) {
+            throw new IllegalArgumentException("--verify-landscape-store needs --landscape-store and the Java backend");
+        }
+        if (search != null && (adaptive || resume != null || coordinatorPort != null || workerOf != null)) {
+            throw new IllegalArgumentException("--search picks the runs itself and can not be used with " +
+                    "--adaptive, --resume, --coordinator or --worker");
+        }
+        if (resultCache != null && (coordinatorPort != null || workerOf != null)) {
+            throw new IllegalArgumentException("--result-cache is only supported for local sweeps, not with " +
+                    "--coordinator or --worker");
+        }
+        if (search != null && (searchEta < 2 || searchRungs < 1)) {
+            throw new IllegalArgumentException("--search-eta has to be at least 2 and --search-rungs at least 1");
+        }
+    }
+
+    // the results of a cache have to be reproducible
+    public boolean isSeedRuns() {
+        return seedRuns || resultCache != null;
+    }
+
+    // null for double[] on the heap
+    public LandscapeStore.Encoding getLandscapeStoreEncoding() {
+        if (landscapeStore == null) {
+            return null;
+        }
+        for (LandscapeStore.Encoding encoding : LandscapeStore.Encoding.values()) {
+            if (encoding.name().equalsIgnoreCase(landscapeStore)) {
+                return encoding;
+            }
+        }
+        throw new IllegalArgumentException("--landscape-store has to be double, float or short but was " +
+                landscapeStore);
+    }
+
+    public StopCriterion getStopCriterion() {
+        return new StopCriterion(stopAtOptimum, stagnationIterations, swarmRadius);
+    }
+
+    public boolean isSearch() {
+        return search != null;
+    }
+
+    public boolean isCoordinator() {
+        return coordinatorPort != null;
+    }
+
+    public boolean isWorker() {
+        return workerOf != null;
+    }
+
+    public String getWorkerHost() {
+        return workerOf.substring(0, workerOf.lastIndexOf(':'));
+    }
+
+    public int getWorkerPort() {
+        return Integer.parseInt(workerOf.substring(workerOf.lastIndexOf(':') + 1));
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    public boolean isColumnarOutput() {
+        return OUTPUT_COLUMNAR.equals(outputFormat);
+    }
+
+    private static String value(String[] argv, int index, String option) {
+        if (index >= argv.length) {
+            throw new IllegalArgumentException("missing value for option " + option);
+        }
+        return argv[index];
+    }
+
+}
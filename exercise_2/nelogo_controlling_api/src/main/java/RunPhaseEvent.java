@@ -0,0 +1,70 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JDK Flight Recorder event of one phase of a run, recorded with e.g.
+//   java -XX:StartFlightRecording=filename=sweep.jfr Main ...
+// and summarised with RunPhaseSummary; without a recording start returns null and nothing is allocated
+@Name("pso.RunPhase")
+@Label("PSO Run Phase")
+@Category("PSO")
+@Description("Duration of one phase of a setup or run of the parameter sweep")
+@StackTrace(false)
+public class RunPhaseEvent extends Event {
+
+    public static final String RESIZE_WORLD = "resize-world";
+    public static final String SETUP = "setup";
+    public static final String REPEAT = "repeat";
+    public static final String SET_PARAMETERS = "set-parameters";
+    public static final String RUN = "run";
+    public static final String REPORT = "report";
+    public static final String WRITE = "write";
+
+    // isEnabled reflects the settings of the running recordings, the instance is never committed
+    private static final RunPhaseEvent PROBE = new RunPhaseEvent();
+
+    @Label("Phase")
+    private String phase;
+
+    @Label("Setup")
+    private int setupNumber;
+
+    @Label("Experiment Definition")
+    @Description("0 for phases of the whole setup")
+    private int experimentDefinitionNumber;
+
+    @Label("Iteration")
+    private int iteration;
+
+    @Label("Fitness Function")
+    private String fitnessFunction;
+
+    @Label("Population Size")
+    private int populationSize;
+
+    // null if no recording is interested in the event
+    public static RunPhaseEvent start(String phase, Setup setup, int experimentDefinitionNumber, int iteration) {
+        if (!PROBE.isEnabled()) {
+            return null;
+        }
+        RunPhaseEvent event = new RunPhaseEvent();
+        event.phase = phase;
+        event.setupNumber = setup.getNumber();
+        event.experimentDefinitionNumber = experimentDefinitionNumber;
+        event.iteration = iteration;
+        event.fitnessFunction = setup.getFitnessFunction();
+        event.populationSize = setup.getPopulationSize();
+        event.begin();
+        return event;
+    }
+
+    public static void end(RunPhaseEvent event) {
+        if (event != null) {
+            event.commit();
+        }
+    }
+
+}
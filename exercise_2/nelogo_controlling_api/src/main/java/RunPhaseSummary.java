@@ -0,0 +1,121 @@
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+// latency of the run phases in JFR recordings (RunPhaseEvent), per phase and per phase and fitness function:
+//   java -cp ... RunPhaseSummary [--population] sweep.jfr...
+// --population additionally groups by population size; every group gets a histogram of power of two buckets
+public final class RunPhaseSummary {
+
+    private static final String EVENT_NAME = "pso.RunPhase";
+    private static final int BAR_WIDTH = 50;
+
+    private RunPhaseSummary() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean byPopulation = false;
+        Map<String, Durations> groups = new TreeMap<>();
+        for (String arg : args) {
+            if (arg.equals("--population")) {
+                byPopulation = true;
+                continue;
+            }
+            for (RecordedEvent event : RecordingFile.readAllEvents(Paths.get(arg))) {
+                if (!event.getEventType().getName().equals(EVENT_NAME)) {
+                    continue;
+                }
+                long nanos = event.getDuration().toNanos();
+                String phase = event.getString("phase");
+                String group = phase + " / " + event.getString("fitnessFunction");
+                groups.computeIfAbsent(phase + " / all", key -> new Durations()).add(nanos);
+                groups.computeIfAbsent(group, key -> new Durations()).add(nanos);
+                if (byPopulation) {
+                    groups.computeIfAbsent(group + " / population " + event.getInt("populationSize"),
+                            key -> new Durations()).add(nanos);
+                }
+            }
+        }
+        if (groups.isEmpty()) {
+            System.out.println("No " + EVENT_NAME + " events, was the recording started with the sweep?");
+            return;
+        }
+        System.out.printf("%-60s %8s %10s %10s %10s %10s %10s %10s%n", "phase / group", "count", "total s",
+                "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, Durations> group : groups.entrySet()) {
+            Durations durations = group.getValue();
+            durations.sort();
+            System.out.printf("%-60s %8d %10.1f %10.3f %10.3f %10.3f %10.3f %10.3f%n", group.getKey(),
+                    durations.size, durations.total / 1e9, durations.total / 1e6 / durations.size,
+                    durations.quantile(0.5) / 1e6, durations.quantile(0.9) / 1e6, durations.quantile(0.99) / 1e6,
+                    durations.quantile(1) / 1e6);
+        }
+        for (Map.Entry<String, Durations> group : groups.entrySet()) {
+            System.out.printf("%n%s%n", group.getKey());
+            group.getValue().printHistogram();
+        }
+    }
+
+    private static final class Durations {
+
+        private long[] nanos = new long[1024];
+        private int size;
+        private long total;
+
+        private void add(long duration) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = duration;
+            total += duration;
+        }
+
+        private void sort() {
+            Arrays.sort(nanos, 0, size);
+        }
+
+        // nearest rank, call sort first
+        private long quantile(double p) {
+            int rank = (int) Math.ceil(p * size);
+            return nanos[Math.max(0, Math.min(size, rank) - 1)];
+        }
+
+        // bucket b counts durations from 2^b to 2^(b+1) microseconds, bucket 0 everything below 2
+        private void printHistogram() {
+            int[] buckets = new int[64];
+            int first = 63;
+            int last = 0;
+            int max = 0;
+            for (int i = 0; i < size; i++) {
+                long micros = nanos[i] / 1000;
+                int bucket = micros < 2 ? 0 : 63 - Long.numberOfLeadingZeros(micros);
+                buckets[bucket]++;
+                first = Math.min(first, bucket);
+                last = Math.max(last, bucket);
+                max = Math.max(max, buckets[bucket]);
+            }
+            for (int bucket = first; bucket <= last; bucket++) {
+                int bar = (int) Math.round((double) buckets[bucket] * BAR_WIDTH / max);
+                System.out.printf("  %12s - %-12s %8d %s%n", micros(bucket == 0 ? 0 : 1L << bucket),
+                        micros(1L << (bucket + 1)), buckets[bucket], "#".repeat(bar));
+            }
+        }
+
+        private static String micros(long micros) {
+            if (micros >= 1_000_000) {
+                return String.format("%.1f s", micros / 1e6);
+            }
+            if (micros >= 1000) {
+                return String.format("%.1f ms", micros / 1e3);
+            }
+            return micros + " us";
+        }
+
+    }
+
+}
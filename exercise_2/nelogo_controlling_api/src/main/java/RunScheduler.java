@@ -0,0 +1,92 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// orders the WorkUnits of a sweep so consecutive units on a backend share as much world state as possible:
+// by world size, then landscape (fitness function and constraint), then population, then Setup and iteration;
+// ExperimentRunner skips resize-world for the same world size and rebuilds only the particles on the same
+// landscape, so all replications of a Setup (and all populations of a landscape) use one built world
+public final class RunScheduler {
+
+    private static final Comparator<String> NULLS_FIRST = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private static final Comparator<WorkUnit> ORDER = Comparator
+            .comparingInt((WorkUnit unit) -> landscapeSpec(unit.getSetup()).getWidth())
+            .thenComparing(unit -> unit.getSetup().getFitnessFunction(), NULLS_FIRST)
+            .thenComparing(unit -> unit.getSetup().getUseConstraint())
+            .thenComparing(unit -> unit.getSetup().getConstraintHandlingMethod(), NULLS_FIRST)
+            .thenComparing(unit -> unit.getSetup().getConstraint(), NULLS_FIRST)
+            .thenComparingDouble(unit -> landscapeSpec(unit.getSetup()).getConstraintR())
+            .thenComparingInt(unit -> unit.getSetup().getPopulationSize())
+            .thenComparingInt(unit -> unit.getSetup().getNumber())
+            .thenComparingInt(WorkUnit::getIteration);
+
+    private RunScheduler() {
+    }
+
+    public static List<WorkUnit> schedule(List<WorkUnit> workUnits) {
+        List<WorkUnit> scheduled = new ArrayList<>(workUnits);
+        scheduled.sort(ORDER);
+        return scheduled;
+    }
+
+    // world and landscape of a Setup, the values of unused constraint fields are left out so they do not
+    // distinguish landscapes without constraint
+    public static LandscapeSpec landscapeSpec(Setup setup) {
+        final int size = setup.getFitnessFunction().equals(ParamConfig.FITNESS_FUNCTION_SCHWEFEL) ? 512 : 100;
+        LandscapeSpec.LandscapeSpecBuilder spec = LandscapeSpec.builder()
+                .fitnessFunction(setup.getFitnessFunction())
+                .useConstraint(setup.getUseConstraint())
+                .minPxcor(-size)
+                .maxPxcor(size)
+                .minPycor(-size)
+                .maxPycor(size);
+        if (setup.getUseConstraint()) {
+            spec.constraintHandlingMethod(setup.getConstraintHandlingMethod())
+                    .constraint(setup.getConstraint())
+                    .constraintR(setup.getConstraintR());
+        }
+        return spec.build();
+    }
+
+    // runs of consecutive units with the same landscape, in order
+    public static List<List<WorkUnit>> landscapeGroups(List<WorkUnit> workUnits) {
+        List<List<WorkUnit>> groups = new ArrayList<>();
+        LandscapeSpec last = null;
+        for (WorkUnit unit : workUnits) {
+            LandscapeSpec spec = landscapeSpec(unit.getSetup());
+            if (last == null || !last.equals(spec)) {
+                groups.add(new ArrayList<>());
+            }
+            groups.get(groups.size() - 1).add(unit);
+            last = spec;
+        }
+        return groups;
+    }
+
+    // resizes (index 0) and landscape builds (index 1) if the units are run in this order on one backend
+    public static int[] transitions(List<WorkUnit> workUnits) {
+        int[] transitions = new int[2];
+        LandscapeSpec last = null;
+        for (WorkUnit unit : workUnits) {
+            LandscapeSpec spec = landscapeSpec(unit.getSetup());
+            if (last == null || last.getWidth() != spec.getWidth() || last.getHeight() != spec.getHeight()) {
+                transitions[0]++;
+                transitions[1]++;
+            } else if (!last.equals(spec)) {
+                transitions[1]++;
+            }
+            last = spec;
+        }
+        return transitions;
+    }
+
+    public static void printTransitions(List<WorkUnit> planned, List<WorkUnit> scheduled) {
+        int[] before = transitions(planned);
+        int[] after = transitions(scheduled);
+        System.out.printf("Run order: %d instead of %d world resizes and %d instead of %d landscape builds " +
+                        "(%d and %d avoided) for %d work units on one backend%n", after[0], before[0], after[1],
+                before[1], before[0] - after[0], before[1] - after[1], scheduled.size());
+    }
+
+}
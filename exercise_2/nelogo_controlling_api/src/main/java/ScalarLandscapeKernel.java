@@ -0,0 +1,64 @@
+// LandscapeKernel with plain loops, used when VectorLandscapeKernel is not available (Java 11 or
+// jdk.incubator.vector not added); C2 can still unroll and vectorise the loops of BOOTH and normalize
+public final class ScalarLandscapeKernel implements LandscapeKernel {
+
+    private static final double SCHWEFEL_2A = 418.9829 * 2;
+
+    @Override
+    public void evaluateRow(int function, double[] xTerms, double yTerm, double[] values, int offset,
+                            double[] minMax) {
+        evaluate(function, xTerms, 0, xTerms.length, yTerm, values, offset, minMax);
+    }
+
+    // the patches from <= i < to of the row, also the tail of VectorLandscapeKernel
+    public void evaluate(int function, double[] xTerms, int from, int to, double yTerm, double[] values, int offset,
+                         double[] minMax) {
+        double min = minMax[0];
+        double max = minMax[1];
+        switch (function) {
+            case SHUBERT:
+                for (int i = from; i < to; i++) {
+                    double value = xTerms[i] * yTerm;
+                    values[offset + i] = value;
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+                break;
+            case BOOTH:
+                for (int i = from; i < to; i++) {
+                    double a = xTerms[i] + 2 * yTerm - 7;
+                    double b = 2 * xTerms[i] + yTerm - 5;
+                    double value = -1 * (a * a + b * b);
+                    values[offset + i] = value;
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+                break;
+            case SCHWEFEL:
+                for (int i = from; i < to; i++) {
+                    double value = xTerms[i] + yTerm + SCHWEFEL_2A;
+                    values[offset + i] = value;
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unknown function " + function);
+        }
+        minMax[0] = min;
+        minMax[1] = max;
+    }
+
+    @Override
+    public void normalize(double[] values, int from, int to, double min, double range) {
+        for (int i = from; i < to; i++) {
+            values[i] = (values[i] - min) / range;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+}
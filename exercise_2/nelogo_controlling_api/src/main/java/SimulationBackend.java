@@ -0,0 +1,65 @@
+import java.util.List;
+
+// a PSO implementation the experiments can be run on
+// parameters are always addressed by their NetLogo names (see ParamConfig.NETLOGO_MAPPING)
+public interface SimulationBackend {
+
+    // resizes the world, coordinates are patch coordinates like in NetLogo resize-world
+    void resizeWorld(int minPxcor, int maxPxcor, int minPycor, int maxPycor);
+
+    void setParameter(String name, Object value);
+
+    // seeds the random numbers of the next setup or setupAgents and of the runs restored by repeat after it, so the
+    // runs only depend on the seed and their parameters, not on how the landscape was set up; seeds are in the int
+    // range of NetLogo random-seed; only called for seeded runs (see ExperimentRunner)
+    void seed(long seed);
+
+    // builds the landscape and the particles, the resulting state is restored by repeat
+    void setup();
+
+    // builds new particles on the landscape of the last setup (after setParameter of e.g. the population size),
+    // the resulting state is restored by repeat; only called if the world and landscape did not change since then
+    default void setupAgents() {
+        setup();
+    }
+
+    // restores the state directly after the last setup
+    void repeat();
+
+    void run(int iterations);
+
+    // runs at most maxIterations iterations, less if the criterion stops the run; returns the StopCriterion reason
+    String run(int maxIterations, StopCriterion stopCriterion);
+
+    // sets the result values of the last run on the experiment
+    void report(Experiment experiment);
+
+    // runs the experiments one after the other from the state after setup (repeat, run parameters, run, report)
+    // and returns the StopCriterion reason of every run, null entries if the criterion is not enabled;
+    // backends which can run several swarms at once override it
+    default String[] runBatch(List<Experiment> experiments, int maxIterations, StopCriterion stopCriterion) {
+        final String[] reasons = new String[experiments.size()];
+        for (int i = 0; i < experiments.size(); i++) {
+            final Experiment experiment = experiments.get(i);
+            repeat();
+            for (int parameter : ParameterSchema.parameterIndices()) {
+                setParameter(ParameterSchema.netLogoName(parameter), experiment.getParameterValue(parameter));
+            }
+            if (stopCriterion.isEnabled()) {
+                reasons[i] = run(maxIterations, stopCriterion);
+            } else {
+                run(maxIterations);
+            }
+            report(experiment);
+        }
+        return reasons;
+    }
+
+    // backend specific counters printed after every setup, empty if there are none
+    default String getStatistics() {
+        return "";
+    }
+
+    void dispose() throws InterruptedException;
+
+}
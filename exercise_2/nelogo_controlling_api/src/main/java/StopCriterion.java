@@ -0,0 +1,33 @@
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// when a run ends before MAX_ITERATIONS_BY_RUN iterations
+// - stopAtOptimum: as soon as global-best-val is the value of the true best patch
+// - stagnationIterations: after that many iterations without improvement of global-best-val, 0 to disable
+// - swarmRadius: when no particle is further than that (in patches) from the global best, 0 to disable
+// the reason is one of the constants, MAX_ITERATIONS if no criterion stopped the run
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StopCriterion {
+
+    public static final StopCriterion NONE = new StopCriterion(false, 0, 0);
+
+    public static final String MAX_ITERATIONS = "max_iterations";
+    public static final String OPTIMUM = "optimum";
+    public static final String STAGNATION = "stagnation";
+    public static final String SWARM_RADIUS = "swarm_radius";
+
+    private boolean stopAtOptimum;
+    private int stagnationIterations;
+    private double swarmRadius;
+
+    // false if runs always have MAX_ITERATIONS_BY_RUN iterations
+    public boolean isEnabled() {
+        return stopAtOptimum || stagnationIterations > 0 || swarmRadius > 0;
+    }
+
+}
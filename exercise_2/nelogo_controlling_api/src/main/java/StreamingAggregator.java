@@ -0,0 +1,283 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// aggregates the results of every configuration (experiment number) while they are written
+// - Welford mean / variance, min and max of fitness and of iterations_to_opt, optimum_reached counts
+// - P-square estimates of QUANTILES of both
+// statistics are kept in primitive arrays indexed by an int keyed open addressing table, the memory only depends on
+// the number of configurations; the summary file is rewritten every summaryMillis and on close, so it can be read
+// during a sweep; results are passed on to the wrapped ResultSink
+public class StreamingAggregator implements ResultSink {
+
+    public static final double[] QUANTILES = {0.1, 0.5, 0.9};
+    private static final String[] QUANTILE_NAMES = {"p10", "median", "p90"};
+
+    private static final int FITNESS = 0;
+    private static final int ITERATIONS_TO_OPT = 1;
+    private static final int METRICS = 2;
+    private static final int SKETCHES = METRICS * QUANTILES.length * P2Quantiles.SIZE;
+
+    private final ResultSink resultSink;
+    private final Path summaryFile;
+    private final long summaryNanos;
+    private long lastSummary = System.nanoTime();
+
+    // experiment number -> index + 1 of the configuration, 0 for free slots
+    private int[] tableKeys = new int[1024];
+    private int[] tableIndices = new int[1024];
+
+    // by configuration index
+    private int size;
+    private int[] numbers = new int[256];
+    private String[][] parameters = new String[256][];
+    private int[] counts = new int[256];
+    private int[] successes = new int[256];
+    private double[] means = new double[256 * METRICS];
+    private double[] m2s = new double[256 * METRICS];
+    private double[] mins = new double[256 * METRICS];
+    private double[] maxs = new double[256 * METRICS];
+    private double[] sketches = new double[256 * SKETCHES];
+
+    public StreamingAggregator(ResultSink resultSink, Path summaryFile, long summaryMillis) {
+        this.resultSink = resultSink;
+        this.summaryFile = summaryFile;
+        this.summaryNanos = TimeUnit.MILLISECONDS.toNanos(summaryMillis);
+    }
+
+    // adds the results of an existing results csv (e.g. of a resumed sweep) without writing them again
+    public synchronized void addResults(Path csv) throws IOException {
+        ResultCsv.forEachRow(csv, cells -> add(Integer.parseInt(cells[ColumnarResultWriter.NUMBER]),
+                cells, Double.parseDouble(cells[ColumnarResultWriter.FITNESS]),
+                Boolean.parseBoolean(cells[ColumnarResultWriter.OPTIMUM_REACHED]),
+                Integer.parseInt(cells[ColumnarResultWriter.ITERATIONS_TO_OPT])));
+    }
+
+    @Override
+    public void writeExperimentWithResult(Experiment experiment, int iteration) throws IOException {
+        synchronized (this) {
+            int index = add(experiment.getNumber(), null, experiment.getFitness(), experiment.isOptimumReached(),
+                    experiment.getNumberOfIterationsUntilFitness());
+            if (parameters[index] == null) {
+                parameters[index] = ResultCsv.parameters(experiment);
+            }
+            if (System.nanoTime() - lastSummary >= summaryNanos) {
+                writeSummary();
+            }
+        }
+        resultSink.writeExperimentWithResult(experiment, iteration);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            synchronized (this) {
+                writeSummary();
+            }
+        } finally {
+            resultSink.close();
+        }
+    }
+
+    public synchronized int getNumberOfConfigurations() {
+        return size;
+    }
+
+    // current statistics of a configuration, null if it has no results yet
+    public synchronized ConfigurationSummary summary(int experimentNumber) {
+        int index = indexOf(experimentNumber);
+        return index < 0 ? null : summaryOf(index);
+    }
+
+    // current statistics of all configurations, ordered by experiment number
+    public synchronized List<ConfigurationSummary> summaries() {
+        List<ConfigurationSummary> summaries = new ArrayList<>(size);
+        for (int index : sortedIndices()) {
+            summaries.add(summaryOf(index));
+        }
+        return summaries;
+    }
+
+    // one row per configuration, written to a temporary file first so readers never see a partial summary
+    public synchronized void writeSummary() throws IOException {
+        lastSummary = System.nanoTime();
+        Path temporaryFile = summaryFile.resolveSibling(summaryFile.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder("number,");
+            for (int i = 0; i < ParameterSchema.size(); i++) {
+                line.append(ParameterSchema.outputName(i)).append(',');
+            }
+            line.append("replications,optimum_reached_rate");
+            for (String metric : new String[]{"fitness", "iterations_to_opt"}) {
+                line.append(',').append(metric).append("_mean,").append(metric).append("_sd,")
+                        .append(metric).append("_min,").append(metric).append("_max");
+                for (String quantile : QUANTILE_NAMES) {
+                    line.append(',').append(metric).append('_').append(quantile);
+                }
+            }
+            line.append('\n');
+            writer.write(line.toString());
+            for (int index : sortedIndices()) {
+                line.setLength(0);
+                line.append(numbers[index]).append(',');
+                for (String parameter : parameters[index]) {
+                    line.append(parameter).append(',');
+                }
+                line.append(counts[index]).append(',').append((double) successes[index] / counts[index]);
+                for (int metric = 0; metric < METRICS; metric++) {
+                    int m = index * METRICS + metric;
+                    line.append(',').append(means[m]).append(',').append(standardDeviation(index, metric))
+                            .append(',').append(mins[m]).append(',').append(maxs[m]);
+                    for (int q = 0; q < QUANTILES.length; q++) {
+                        line.append(',').append(quantile(index, metric, q));
+                    }
+                }
+                line.append('\n');
+                writer.write(line.toString());
+            }
+        }
+        Files.move(temporaryFile, summaryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // cells of a csv row or null, the parameters are set by the caller then
+    private int add(int number, String[] cells, double fitness, boolean optimumReached, int iterationsToOpt) {
+        int index = indexOf(number);
+        if (index < 0) {
+            index = insert(number);
+            if (cells != null) {
+                parameters[index] = ResultCsv.parameters(cells);
+            }
+        }
+        int count = counts[index];
+        addValue(index, FITNESS, count, fitness);
+        addValue(index, ITERATIONS_TO_OPT, count, iterationsToOpt);
+        counts[index] = count + 1;
+        successes[index] += optimumReached ? 1 : 0;
+        return index;
+    }
+
+    private void addValue(int index, int metric, int count, double value) {
+        int m = index * METRICS + metric;
+        double delta = value - means[m];
+        means[m] += delta / (count + 1);
+        m2s[m] += delta * (value - means[m]);
+        mins[m] = count == 0 ? value : Math.min(mins[m], value);
+        maxs[m] = count == 0 ? value : Math.max(maxs[m], value);
+        for (int q = 0; q < QUANTILES.length; q++) {
+            P2Quantiles.add(sketches, sketchOffset(index, metric, q), QUANTILES[q], count, value);
+        }
+    }
+
+    private double standardDeviation(int index, int metric) {
+        return counts[index] < 2 ? 0 : Math.sqrt(m2s[index * METRICS + metric] / (counts[index] - 1));
+    }
+
+    private double quantile(int index, int metric, int q) {
+        return P2Quantiles.estimate(sketches, sketchOffset(index, metric, q), QUANTILES[q], counts[index]);
+    }
+
+    private static int sketchOffset(int index, int metric, int q) {
+        return index * SKETCHES + (metric * QUANTILES.length + q) * P2Quantiles.SIZE;
+    }
+
+    private ConfigurationSummary summaryOf(int index) {
+        double[][] quantiles = new double[METRICS][QUANTILES.length];
+        for (int metric = 0; metric < METRICS; metric++) {
+            for (int q = 0; q < QUANTILES.length; q++) {
+                quantiles[metric][q] = quantile(index, metric, q);
+            }
+        }
+        return ConfigurationSummary.builder()
+                .number(numbers[index])
+                .parameters(parameters[index].clone())
+                .replications(counts[index])
+                .successes(successes[index])
+                .fitnessMean(means[index * METRICS + FITNESS])
+                .fitnessStandardDeviation(standardDeviation(index, FITNESS))
+                .fitnessMin(mins[index * METRICS + FITNESS])
+                .fitnessMax(maxs[index * METRICS + FITNESS])
+                .fitnessQuantiles(quantiles[FITNESS])
+                .iterationsToOptMean(means[index * METRICS + ITERATIONS_TO_OPT])
+                .iterationsToOptStandardDeviation(standardDeviation(index, ITERATIONS_TO_OPT))
+                .iterationsToOptMin(mins[index * METRICS + ITERATIONS_TO_OPT])
+                .iterationsToOptMax(maxs[index * METRICS + ITERATIONS_TO_OPT])
+                .iterationsToOptQuantiles(quantiles[ITERATIONS_TO_OPT])
+                .build();
+    }
+
+    private int[] sortedIndices() {
+        long[] keyed = new long[size];
+        for (int index = 0; index < size; index++) {
+            keyed[index] = ((long) numbers[index] << 32) | index;
+        }
+        Arrays.sort(keyed);
+        int[] indices = new int[size];
+        for (int i = 0; i < size; i++) {
+            indices[i] = (int) keyed[i];
+        }
+        return indices;
+    }
+
+    private int indexOf(int number) {
+        int mask = tableKeys.length - 1;
+        for (int slot = hash(number) & mask; tableIndices[slot] != 0; slot = (slot + 1) & mask) {
+            if (tableKeys[slot] == number) {
+                return tableIndices[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private int insert(int number) {
+        if (size == numbers.length) {
+            int capacity = size * 2;
+            numbers = Arrays.copyOf(numbers, capacity);
+            parameters = Arrays.copyOf(parameters, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            successes = Arrays.copyOf(successes, capacity);
+            means = Arrays.copyOf(means, capacity * METRICS);
+            m2s = Arrays.copyOf(m2s, capacity * METRICS);
+            mins = Arrays.copyOf(mins, capacity * METRICS);
+            maxs = Arrays.copyOf(maxs, capacity * METRICS);
+            sketches = Arrays.copyOf(sketches, capacity * SKETCHES);
+        }
+        int index = size++;
+        numbers[index] = number;
+        if (size * 2 > tableKeys.length) {
+            rehash(tableKeys.length * 2);
+        } else {
+            put(number, index);
+        }
+        return index;
+    }
+
+    private void rehash(int capacity) {
+        tableKeys = new int[capacity];
+        tableIndices = new int[capacity];
+        for (int index = 0; index < size; index++) {
+            put(numbers[index], index);
+        }
+    }
+
+    private void put(int number, int index) {
+        int mask = tableKeys.length - 1;
+        int slot = hash(number) & mask;
+        while (tableIndices[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        tableKeys[slot] = number;
+        tableIndices[slot] = index + 1;
+    }
+
+    private static int hash(int number) {
+        return (int) PsoRandom.mix64(number);
+    }
+
+}
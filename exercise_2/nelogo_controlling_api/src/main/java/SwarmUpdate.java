@@ -0,0 +1,94 @@
+// one iteration of the particles from <= i < to of a swarm, shared by PsoEngine and BatchPsoEngine so both do the same
+// arithmetic in the same order; the particle state is passed as the arrays of the engine
+// the four random numbers of particle i are uniforms[4 * (i - from)] to uniforms[4 * (i - from) + 3], in the order
+// iterate of PSO_NL_Template.nlogo draws them
+final class SwarmUpdate {
+
+    private SwarmUpdate() {
+    }
+
+    // the arrays are passed as locals and the loop runs over the slice of the swarm, C2 can then hoist the range
+    // checks for every population size
+    static void updateParticlePositions(Landscape landscape, int constraint, ConstraintIndex constraintIndex,
+                                        boolean rejection, double[] x, double[] y, double[] vx, double[] vy,
+                                        double[] personalBestX, double[] personalBestY, int from, int to,
+                                        double[] uniforms, double speedLimit, double inertia, double personal,
+                                        double social, double bestX, double bestY) {
+        for (int i = from, r = 0; i < to; i++, r += 4) {
+            final double vxBak = vx[i];
+            final double vyBak = vy[i];
+
+            double newVx = inertia * vxBak;
+            double newVy = inertia * vyBak;
+
+            // facexy + distancexy: dist * dx is the (wrapped) distance in x direction
+            newVx = newVx + personal * uniforms[r] * landscape.deltaX(x[i], personalBestX[i]);
+            newVy = newVy + personal * uniforms[r + 1] * landscape.deltaY(y[i], personalBestY[i]);
+
+            // change my velocity by being attracted to the "global best" value anyone has found so far
+            newVx = newVx + social * uniforms[r + 2] * landscape.deltaX(x[i], bestX);
+            newVy = newVy + social * uniforms[r + 3] * landscape.deltaY(y[i], bestY);
+
+            if (newVx > speedLimit) {
+                newVx = speedLimit;
+            }
+            if (newVx < -speedLimit) {
+                newVx = -speedLimit;
+            }
+            if (newVy > speedLimit) {
+                newVy = speedLimit;
+            }
+            if (newVy < -speedLimit) {
+                newVy = -speedLimit;
+            }
+
+            final double newX = x[i] + newVx;
+            final double newY = y[i] + newVy;
+
+            // Rejection constraint handling: velocity is reversed and the position kept
+            if (rejection && violates(landscape, constraint, constraintIndex, newX, newY)) {
+                vx[i] = -1 * vxBak;
+                vy[i] = -1 * vyBak;
+            } else {
+                vx[i] = newVx;
+                vy[i] = newVy;
+                x[i] = landscape.wrapX(newX);
+                y[i] = landscape.wrapY(newY);
+            }
+        }
+    }
+
+    static void updatePersonalBest(Landscape landscape, double[] x, double[] y, double[] personalBestVal,
+                                   double[] personalBestX, double[] personalBestY, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double val = landscape.valueAt(x[i], y[i]);
+            if (val > personalBestVal[i]) {
+                personalBestVal[i] = val;
+                personalBestX[i] = x[i];
+                personalBestY[i] = y[i];
+            }
+        }
+    }
+
+    // NetLogo max-one-of picks a random turtle on ties, the first one is used here
+    static int bestParticle(double[] personalBestVal, int from, int to) {
+        int best = from;
+        for (int i = from + 1; i < to; i++) {
+            if (personalBestVal[i] > personalBestVal[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    // constraintIndex null to test directly
+    static boolean violates(Landscape landscape, int constraint, ConstraintIndex constraintIndex, double px,
+                            double py) {
+        if (constraintIndex != null) {
+            return constraintIndex.violates(px, py);
+        }
+        return constraint != Constraints.NONE
+                && Constraints.violates(constraint, px, py, landscape.getMaxPxcor(), landscape.getMaxPycor());
+    }
+
+}
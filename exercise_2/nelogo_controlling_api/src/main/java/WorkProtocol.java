@@ -0,0 +1,138 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+// messages between Coordinator and Worker, every message starts with its type byte
+// after the hello the coordinator sends the StopCriterion and the number of iterations (replications) of the sweep
+// worker -> coordinator: REQUEST, RESULT (iteration, Experiment), DONE (unit id)
+// coordinator -> worker: UNIT (unit id, iteration, Setup number, count and experiment numbers of the runs to run),
+// WAIT (all units are leased), NONE (all units done)
+public final class WorkProtocol {
+
+    public static final int MAGIC = 0x50534f57; // "PSOW"
+    public static final int VERSION = 4;
+
+    public static final byte REQUEST = 1;
+    public static final byte UNIT = 2;
+    public static final byte WAIT = 3;
+    public static final byte NONE = 4;
+    public static final byte RESULT = 5;
+    public static final byte DONE = 6;
+
+    private WorkProtocol() {
+    }
+
+    public static void writeHello(DataOutputStream output) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.flush();
+    }
+
+    public static void readHello(DataInputStream input) throws IOException {
+        if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+            throw new IOException("peer does not speak version " + VERSION + " of the work protocol");
+        }
+    }
+
+    public static void writeStopCriterion(DataOutputStream output, StopCriterion stopCriterion) throws IOException {
+        output.writeBoolean(stopCriterion.isStopAtOptimum());
+        output.writeInt(stopCriterion.getStagnationIterations());
+        output.writeDouble(stopCriterion.getSwarmRadius());
+        output.flush();
+    }
+
+    public static StopCriterion readStopCriterion(DataInputStream input) throws IOException {
+        return new StopCriterion(input.readBoolean(), input.readInt(), input.readDouble());
+    }
+
+    // parameters and results of the experiment, everything ResultSink implementations read
+    public static void writeExperiment(DataOutputStream output, Experiment experiment) throws IOException {
+        output.writeInt(experiment.getNumber());
+        writeString(output, experiment.getFitnessFunction());
+        writeBoolean(output, experiment.getUseConstraint());
+        writeString(output, experiment.getConstraintHandlingMethod());
+        writeString(output, experiment.getConstraint());
+        writeInteger(output, experiment.getParticleSpeedLimit());
+        writeInteger(output, experiment.getPopulationSize());
+        writeDouble(output, experiment.getPersonalConfidence());
+        writeDouble(output, experiment.getSwarmConfidence());
+        writeDouble(output, experiment.getParticleInertia());
+        writeDouble(output, experiment.getConstraintR());
+        output.writeDouble(experiment.getFitness());
+        output.writeDouble(experiment.getOptimum());
+        output.writeInt(experiment.getNumberOfIterations());
+        output.writeBoolean(experiment.isOptimumReached());
+        output.writeInt(experiment.getNumberOfIterationsUntilFitness());
+        writeString(output, experiment.getStopReason());
+        output.writeInt(experiment.getNumberOfIterationsExecuted());
+    }
+
+    public static Experiment readExperiment(DataInputStream input) throws IOException {
+        return Experiment.builder()
+                .number(input.readInt())
+                .fitnessFunction(readString(input))
+                .useConstraint(readBoolean(input))
+                .constraintHandlingMethod(readString(input))
+                .constraint(readString(input))
+                .particleSpeedLimit(readInteger(input))
+                .populationSize(readInteger(input))
+                .personalConfidence(readDouble(input))
+                .swarmConfidence(readDouble(input))
+                .particleInertia(readDouble(input))
+                .constraintR(readDouble(input))
+                .fitness(input.readDouble())
+                .optimum(input.readDouble())
+                .numberOfIterations(input.readInt())
+                .optimumReached(input.readBoolean())
+                .numberOfIterationsUntilFitness(input.readInt())
+                .stopReason(readString(input))
+                .numberOfIterationsExecuted(input.readInt())
+                .build();
+    }
+
+    // nullable values are written with a presence flag
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static void writeBoolean(DataOutputStream output, Boolean value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeBoolean(value);
+        }
+    }
+
+    private static Boolean readBoolean(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readBoolean() : null;
+    }
+
+    private static void writeInteger(DataOutputStream output, Integer value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readInt() : null;
+    }
+
+    private static void writeDouble(DataOutputStream output, Double value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeDouble(value);
+        }
+    }
+
+    private static Double readDouble(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readDouble() : null;
+    }
+
+}
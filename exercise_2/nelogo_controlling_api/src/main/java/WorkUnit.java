@@ -0,0 +1,12 @@
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// a Setup together with the iteration it is run for, all ExperimentDefinitions are run on it
+@Data
+@AllArgsConstructor
+public class WorkUnit {
+
+    private int iteration;
+    private Setup setup;
+
+}
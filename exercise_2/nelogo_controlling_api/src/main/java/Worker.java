@@ -0,0 +1,146 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// runs WorkUnits of a Coordinator with the same ExperimentRunner as a local sweep, results are sent back
+// only the runs the coordinator sends with a unit are run, the others are completed already
+// one connection per backend, a worker process with several threads opens several connections
+public class Worker {
+
+    private static final long WAIT_MILLIS = 1000;
+
+    private final String host;
+    private final int port;
+    private final ExperimentGrid grid;
+    private final List<ExperimentDefinition> experiments;
+    // see ExperimentRunner, runSeed only depends on the unit, so every worker runs a unit with the same seed
+    private final boolean seedRuns;
+
+    public Worker(String host, int port, ExperimentGrid grid) {
+        this(host, port, grid, false);
+    }
+
+    public Worker(String host, int port, ExperimentGrid grid, boolean seedRuns) {
+        this.host = host;
+        this.port = port;
+        this.grid = grid;
+        this.experiments = grid.experiments();
+        this.seedRuns = seedRuns;
+    }
+
+    // runs one connection per backend of the factory in parallel
+    public void run(BackendFactory backendFactory, int numberOfBackends) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfBackends);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < numberOfBackends; i++) {
+            final int workerNumber = i;
+            futures.add(executor.submit(() -> {
+                final SimulationBackend backend = backendFactory.create(workerNumber);
+                try {
+                    run(backend);
+                } finally {
+                    backend.dispose();
+                }
+                return null;
+            }));
+        }
+        executor.shutdown();
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            executor.shutdownNow();
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    // runs units on the backend until the coordinator has no more units or closes the connection
+    public void run(SimulationBackend backend) throws IOException, InterruptedException {
+        try (Socket socket = new Socket(host, port);
+             DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            socket.setTcpNoDelay(true);
+            WorkProtocol.writeHello(output);
+            WorkProtocol.readHello(input);
+            final StopCriterion stopCriterion = WorkProtocol.readStopCriterion(input);
+            final int numberOfIterations = input.readInt();
+
+            // experiment numbers to run of the current unit
+            final Set<Integer> toRun = new HashSet<>();
+            final ExperimentRunner runner = new ExperimentRunner(backend,
+                    (iteration, experimentNumber) -> toRun.contains(experimentNumber), stopCriterion, 1, null,
+                    seedRuns);
+            final ResultSink results = new ResultSink() {
+                @Override
+                public void writeExperimentWithResult(Experiment experiment, int iteration) throws IOException {
+                    output.writeByte(WorkProtocol.RESULT);
+                    output.writeInt(iteration);
+                    WorkProtocol.writeExperiment(output, experiment);
+                    // renews the lease of the unit
+                    output.flush();
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+
+            int units = 0;
+            while (true) {
+                output.writeByte(WorkProtocol.REQUEST);
+                output.flush();
+                byte type = input.readByte();
+                if (type == WorkProtocol.NONE) {
+                    break;
+                }
+                if (type == WorkProtocol.WAIT) {
+                    Thread.sleep(WAIT_MILLIS);
+                    continue;
+                }
+                if (type != WorkProtocol.UNIT) {
+                    throw new IOException("unexpected message type " + type + " from coordinator");
+                }
+                final int unit = input.readInt();
+                final int iteration = input.readInt();
+                final Setup setup = grid.setup(input.readInt());
+                toRun.clear();
+                for (int i = input.readInt(); i > 0; i--) {
+                    toRun.add(input.readInt());
+                }
+                runner.runSetup(setup, experiments, iteration, numberOfIterations, grid.getNumberOfSetups(), results);
+                output.writeByte(WorkProtocol.DONE);
+                output.writeInt(unit);
+                output.flush();
+                units++;
+            }
+            System.out.printf("Worker finished after %d work units%n", units);
+            ExperimentRunner.printWorldReuse(runner.getResizes(), runner.getResizesAvoided(),
+                    runner.getLandscapeBuilds(), runner.getLandscapeBuildsAvoided());
+        } catch (EOFException | SocketException e) {
+            // the coordinator exits after the last unit
+            System.out.printf("Coordinator %s:%d closed the connection%n", host, port);
+        }
+    }
+
+}
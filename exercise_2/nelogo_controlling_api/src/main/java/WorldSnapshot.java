@@ -0,0 +1,46 @@
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// state of a world directly after setup, restored before every run instead of import-world
+// the patches of a NetLogo world are not kept, runs do not change them
+// turtle variables are stored in one array per variable, ordered by who
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WorldSnapshot {
+
+    // landscape of a PsoEngine, it is never changed by a run so only the reference is kept
+    private Landscape landscape;
+
+    // turtles-own
+    private long[] who;
+    private double[] xcor;
+    private double[] ycor;
+    private double[] vx;
+    private double[] vy;
+    private double[] personalBestVal;
+    private double[] personalBestX;
+    private double[] personalBestY;
+
+    // globals
+    private double globalBestX;
+    private double globalBestY;
+    private double globalBestVal;
+    private double maxX;
+    private double maxY;
+    private double iterations;
+    private double iterationsToOpt;
+    private Object trueBestPatch;
+
+    // random state, a PsoRandom for PsoEngine and the seed passed to random-seed for NetLogo
+    private PsoRandom random;
+    private long randomSeed;
+
+    public int getNumberOfTurtles() {
+        return who.length;
+    }
+
+}
@@ -0,0 +1,96 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveReplicationTest {
+
+    // collects the numbers of the written experiments
+    private static final class NumberSink implements ResultSink {
+        private final List<Integer> numbers = new ArrayList<>();
+
+        @Override
+        public void writeExperimentWithResult(Experiment experiment, int iteration) {
+            numbers.add(experiment.getNumber());
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static Experiment experiment(int number, double fitness, boolean optimumReached) {
+        return Experiment.builder()
+                .fitnessFunction(ParamConfig.FITNESS_FUNCTION_BOOTH)
+                .useConstraint(false)
+                .particleSpeedLimit(10)
+                .populationSize(20)
+                .personalConfidence(1.0)
+                .swarmConfidence(1.0)
+                .particleInertia(0.5)
+                .fitness(fitness)
+                .optimumReached(optimumReached)
+                .numberOfIterationsUntilFitness(optimumReached ? 50 : 0)
+                .number(number)
+                .build();
+    }
+
+    @Test
+    void intervalsHaveTheTextbookWidths() {
+        assertEquals(0.263406909487436, AdaptiveReplication.wilsonHalfWidth(5, 10), 1e-12);
+        // the Wilson interval is not empty for a rate of 1
+        assertEquals(0.1387663999314446, AdaptiveReplication.wilsonHalfWidth(10, 10), 1e-12);
+        // 1, 2, 3, 4, 5: sum of squared deviations 10, t of 4 degrees of freedom
+        assertEquals(2.776 * Math.sqrt(10.0 / 4 / 5), AdaptiveReplication.tHalfWidth(10, 5), 1e-12);
+        assertEquals(Double.POSITIVE_INFINITY, AdaptiveReplication.tHalfWidth(0, 1));
+    }
+
+    @Test
+    void tQuantileContinuesTheTable() {
+        assertEquals(12.706, AdaptiveReplication.tQuantile(1));
+        assertEquals(2.042, AdaptiveReplication.tQuantile(30));
+        final double beyond = AdaptiveReplication.tQuantile(31);
+        assertTrue(beyond < 2.042 && beyond > 2.0, "t quantile of 31 degrees of freedom " + beyond);
+        assertTrue(AdaptiveReplication.tQuantile(1000) < beyond);
+    }
+
+    @Test
+    void constantResultsConvergeAtTheMinimum() throws Exception {
+        final NumberSink sink = new NumberSink();
+        final AdaptiveReplication replication = new AdaptiveReplication(sink, 3, 10, 0.3, 0.01, 1);
+        for (int iteration = 0; iteration < 3; iteration++) {
+            assertTrue(replication.shouldRun(iteration, 7));
+            replication.writeExperimentWithResult(experiment(7, 1.0, true), iteration);
+        }
+        assertFalse(replication.shouldRun(3, 7));
+        assertArrayEquals(new int[]{0, 1, 0}, replication.getStopCounts());
+        assertEquals(3, sink.numbers.size());
+    }
+
+    @Test
+    void noisyResultsRunUpToTheMaximum() throws Exception {
+        final AdaptiveReplication replication = new AdaptiveReplication(new NumberSink(), 3, 6, 0.05, 0.01, 1);
+        int iteration = 0;
+        while (replication.shouldRun(iteration, 8)) {
+            replication.writeExperimentWithResult(experiment(8, iteration % 2, iteration % 2 == 0), iteration);
+            iteration++;
+        }
+        assertEquals(6, iteration);
+        assertArrayEquals(new int[]{0, 0, 1}, replication.getStopCounts());
+        // configurations without results are always run
+        assertTrue(replication.shouldRun(0, 9));
+    }
+
+    @Test
+    void invalidReplicationsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveReplication(new NumberSink(), 1, 5, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveReplication(new NumberSink(), 4, 3, 0, 0, 0));
+    }
+
+}
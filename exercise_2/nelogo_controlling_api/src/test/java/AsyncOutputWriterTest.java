@@ -0,0 +1,59 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class AsyncOutputWriterTest {
+
+    @TempDir
+    Path directory;
+
+    // fails on the writer thread for every row
+    private static final class FailingWriter extends AsyncOutputWriter {
+        private FailingWriter(String filePath) throws IOException {
+            super(filePath, 10, 10);
+        }
+
+        @Override
+        protected void appendExperimentWithResult(StringBuilder line, Experiment experiment, int iteration) {
+            throw new IllegalStateException("row can not be formatted");
+        }
+    }
+
+    private static Experiment experiment() {
+        return Experiment.builder()
+                .fitnessFunction(ParamConfig.FITNESS_FUNCTION_BOOTH)
+                .useConstraint(false)
+                .particleSpeedLimit(10)
+                .populationSize(20)
+                .personalConfidence(1.0)
+                .swarmConfidence(1.0)
+                .particleInertia(0.5)
+                .build();
+    }
+
+    @Test
+    void failedWriterThreadFailsTheWriters() throws IOException {
+        final FailingWriter writer = new FailingWriter(directory.resolve("results.csv").toString());
+        // more rows than the queue holds, so a writer that hangs on the full queue is caught by the timeout
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> assertThrows(IOException.class, () -> {
+            for (int row = 0; row < 10_000; row++) {
+                writer.writeExperimentWithResult(experiment(), 0);
+            }
+        }));
+        assertThrows(IOException.class, writer::close);
+    }
+
+    @Test
+    void failedWriterThreadFailsClose() throws IOException {
+        final FailingWriter writer = new FailingWriter(directory.resolve("results.csv").toString());
+        writer.writeExperimentWithResult(experiment(), 0);
+        assertThrows(IOException.class, writer::close);
+    }
+
+}
@@ -0,0 +1,100 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BatchPsoEngineTest {
+
+    private static final long SEED = 11;
+    private static final int POPULATION_SIZE = 15;
+    private static final int MAX_ITERATIONS = 150;
+
+    private static JavaPsoBackend backend(boolean useConstraint) {
+        final JavaPsoBackend backend = new JavaPsoBackend(SEED, null);
+        backend.resizeWorld(-60, 60, -60, 60);
+        backend.setParameter("fitness_function", ParamConfig.FITNESS_FUNCTION_SCHWEFEL);
+        backend.setParameter("constraints", useConstraint);
+        backend.setParameter("constraint_handling_method", ParamConfig.CONSTRAINT_HANDLING_REJECTION);
+        backend.setParameter("Constraint", ParamConfig.CONSTRAINT_5);
+        backend.setParameter("population-size", POPULATION_SIZE);
+        backend.setup();
+        return backend;
+    }
+
+    // parameter variants of one Setup
+    private static List<Experiment> experiments(boolean useConstraint) {
+        final List<Experiment> experiments = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            experiments.add(Experiment.builder()
+                    .fitnessFunction(ParamConfig.FITNESS_FUNCTION_SCHWEFEL)
+                    .useConstraint(useConstraint)
+                    .constraintHandlingMethod(ParamConfig.CONSTRAINT_HANDLING_REJECTION)
+                    .constraint(ParamConfig.CONSTRAINT_5)
+                    .particleSpeedLimit(2 + 3 * i)
+                    .populationSize(POPULATION_SIZE)
+                    .personalConfidence(0.5 + 0.25 * i)
+                    .swarmConfidence(1.5 - 0.2 * i)
+                    .particleInertia(0.1 * i)
+                    .number(i)
+                    .build());
+        }
+        return experiments;
+    }
+
+    // the runs one after the other on PsoEngine, like the default SimulationBackend.runBatch
+    private static String[] runSequentially(JavaPsoBackend backend, List<Experiment> experiments,
+                                            StopCriterion stopCriterion) {
+        final String[] reasons = new String[experiments.size()];
+        for (int i = 0; i < experiments.size(); i++) {
+            final Experiment experiment = experiments.get(i);
+            backend.repeat();
+            for (int parameter : ParameterSchema.parameterIndices()) {
+                backend.setParameter(ParameterSchema.netLogoName(parameter), experiment.getParameterValue(parameter));
+            }
+            if (stopCriterion.isEnabled()) {
+                reasons[i] = backend.run(MAX_ITERATIONS, stopCriterion);
+            } else {
+                backend.run(MAX_ITERATIONS);
+            }
+            backend.report(experiment);
+        }
+        return reasons;
+    }
+
+    private static void assertSameRuns(boolean useConstraint, StopCriterion stopCriterion) {
+        final List<Experiment> sequential = experiments(useConstraint);
+        final String[] sequentialReasons = runSequentially(backend(useConstraint), sequential, stopCriterion);
+        final List<Experiment> batch = experiments(useConstraint);
+        final String[] batchReasons = backend(useConstraint).runBatch(batch, MAX_ITERATIONS, stopCriterion);
+        assertArrayEquals(sequentialReasons, batchReasons);
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(Double.doubleToRawLongBits(sequential.get(i).getFitness()),
+                    Double.doubleToRawLongBits(batch.get(i).getFitness()), "run " + i);
+            assertEquals(sequential.get(i).getOptimum(), batch.get(i).getOptimum());
+            assertEquals(sequential.get(i).getNumberOfIterations(), batch.get(i).getNumberOfIterations());
+            assertEquals(sequential.get(i).getNumberOfIterationsUntilFitness(),
+                    batch.get(i).getNumberOfIterationsUntilFitness());
+            assertEquals(sequential.get(i).isOptimumReached(), batch.get(i).isOptimumReached());
+        }
+    }
+
+    @Test
+    void swarmsAreTheSequentialRuns() {
+        assertSameRuns(false, StopCriterion.NONE);
+    }
+
+    @Test
+    void rejectedParticlesAreTheSequentialRuns() {
+        assertSameRuns(true, StopCriterion.NONE);
+    }
+
+    @Test
+    void stoppedSwarmsAreTheSequentialRuns() {
+        assertSameRuns(true, new StopCriterion(true, 10, 0));
+        assertSameRuns(false, new StopCriterion(false, 0, 5));
+    }
+
+}
@@ -0,0 +1,125 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarResultTest {
+
+    private static final int ROWS = 10;
+    private static final int BLOCK_ROWS = 4;
+
+    @TempDir
+    Path directory;
+
+    // a new speed limit every 3 rows, so later blocks add values to the dictionary
+    private static Experiment experiment(int row) {
+        return Experiment.builder()
+                .fitnessFunction(ParamConfig.FITNESS_FUNCTION_BOOTH)
+                .useConstraint(false)
+                .particleSpeedLimit(row / 3)
+                .populationSize(20)
+                .personalConfidence(1.0)
+                .swarmConfidence(1.0)
+                .particleInertia(0.5)
+                .fitness(row * 0.25)
+                .optimum(1.0)
+                .numberOfIterations(100 + row)
+                .optimumReached(row % 2 == 0)
+                .numberOfIterationsUntilFitness(row)
+                .number(1000 + row)
+                .build();
+    }
+
+    private static String outputName(String fieldName) {
+        for (int i = 0; i < ParameterSchema.size(); i++) {
+            if (ParameterSchema.fieldName(i).equals(fieldName)) {
+                return ParameterSchema.outputName(i);
+            }
+        }
+        throw new IllegalArgumentException(fieldName);
+    }
+
+    private Path write(boolean compress, boolean close) throws IOException {
+        final Path file = directory.resolve("results" + ColumnarResultWriter.FILE_EXTENSION);
+        final ColumnarResultWriter writer = new ColumnarResultWriter(file, BLOCK_ROWS, compress);
+        for (int row = 0; row < ROWS; row++) {
+            writer.writeExperimentWithResult(experiment(row), row % 3);
+        }
+        if (close) {
+            writer.close();
+        }
+        return file;
+    }
+
+    private static void assertRows(ColumnarResultReader reader, int rows) throws IOException {
+        assertEquals(rows, reader.getRowCount());
+        final int[] numbers = reader.readInts("number");
+        final double[] fitness = reader.readDoubles("fitness");
+        final boolean[] reached = reader.readBooleans("optimum_reached");
+        final String[] speedLimits = reader.readStrings(outputName("particleSpeedLimit"));
+        for (int row = 0; row < rows; row++) {
+            final Experiment experiment = experiment(row);
+            assertEquals(experiment.getNumber(), numbers[row]);
+            assertEquals(experiment.getFitness(), fitness[row]);
+            assertEquals(experiment.isOptimumReached(), reached[row]);
+            assertEquals(String.valueOf(experiment.getParticleSpeedLimit()), speedLimits[row]);
+        }
+    }
+
+    @Test
+    void closedFileHasAllRows() throws IOException {
+        for (boolean compress : new boolean[]{false, true}) {
+            try (ColumnarResultReader reader = new ColumnarResultReader(write(compress, true))) {
+                assertTrue(reader.isComplete());
+                assertEquals(3, reader.getBlockCount());
+                assertArrayEquals(ColumnarResultWriter.COLUMN_NAMES, reader.getColumnNames());
+                assertRows(reader, ROWS);
+            }
+        }
+    }
+
+    @Test
+    void unclosedFileHasItsCompleteBlocks() throws IOException {
+        for (boolean compress : new boolean[]{false, true}) {
+            // the last 2 rows are not written without close
+            try (ColumnarResultReader reader = new ColumnarResultReader(write(compress, false))) {
+                assertFalse(reader.isComplete());
+                assertEquals(2, reader.getBlockCount());
+                assertRows(reader, 2 * BLOCK_ROWS);
+            }
+        }
+    }
+
+    @Test
+    void partialBlockIsDropped() throws IOException {
+        final Path file = write(true, false);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        try (ColumnarResultReader reader = new ColumnarResultReader(file)) {
+            assertFalse(reader.isComplete());
+            assertRows(reader, BLOCK_ROWS);
+        }
+    }
+
+    @Test
+    void otherVersionIsRejected() throws IOException {
+        final Path file = write(false, true);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            // the version follows the magic
+            channel.write(ByteBuffer.allocate(4).putInt(0, ColumnarResultWriter.VERSION - 1), 4);
+        }
+        assertThrows(IOException.class, () -> new ColumnarResultReader(file));
+    }
+
+}
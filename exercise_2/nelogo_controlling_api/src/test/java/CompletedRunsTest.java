@@ -0,0 +1,67 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompletedRunsTest {
+
+    @TempDir
+    Path directory;
+
+    private Path csv(String content) throws IOException {
+        final Path file = directory.resolve("results.csv");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    void partialLastLineIsCutOff() throws IOException {
+        final String rows = OutputWriter.headingWithResult() + "0,0,a,b\n10001,0,a,b\n10001,1,a,b\n";
+        final Path file = csv(rows + "10002,1,a");
+        final CompletedRuns completedRuns = CompletedRuns.fromCsv(file);
+        assertEquals(3, completedRuns.size());
+        assertTrue(completedRuns.contains(0, 0));
+        assertTrue(completedRuns.contains(0, 10001));
+        assertTrue(completedRuns.contains(1, 10001));
+        assertFalse(completedRuns.contains(1, 10002));
+        assertFalse(completedRuns.shouldRun(1, 10001));
+        assertTrue(completedRuns.shouldRun(1, 10002));
+        assertEquals(rows, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void partialHeaderEmptiesTheFile() throws IOException {
+        final String heading = OutputWriter.headingWithResult();
+        final Path file = csv(heading.substring(0, heading.length() / 2));
+        assertEquals(0, CompletedRuns.fromCsv(file).size());
+        assertEquals(0, Files.size(file));
+    }
+
+    @Test
+    void manyRunsAreIndexed() throws IOException {
+        final StringBuilder content = new StringBuilder(OutputWriter.headingWithResult());
+        for (int number = 0; number < 5000; number++) {
+            content.append(number + 10000).append(',').append(number % 7).append(",x\n");
+        }
+        final CompletedRuns completedRuns = CompletedRuns.fromCsv(csv(content.toString()));
+        assertEquals(5000, completedRuns.size());
+        for (int number = 0; number < 5000; number++) {
+            assertTrue(completedRuns.contains(number % 7, number + 10000));
+            assertFalse(completedRuns.contains(number % 7 + 1, number + 10000));
+        }
+    }
+
+    @Test
+    void differentHeaderIsRejected() throws IOException {
+        assertThrows(IOException.class, () -> CompletedRuns.fromCsv(csv("number,iteration\n1,0\n")));
+    }
+
+}
@@ -0,0 +1,102 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConstraintIndexTest {
+
+    private static final int[] CONSTRAINTS = new int[]{
+            Constraints.CONSTRAINT_3, Constraints.CONSTRAINT_5, Constraints.CONSTRAINT_10};
+    private static final int MIN_PXCOR = -40;
+    private static final int MAX_PXCOR = 40;
+    private static final int MIN_PYCOR = -30;
+    private static final int MAX_PYCOR = 30;
+
+    @TempDir
+    Path directory;
+
+    private static ConstraintIndex index(int constraint) {
+        return ConstraintIndex.build(constraint, MIN_PXCOR, MAX_PXCOR, MIN_PYCOR, MAX_PYCOR);
+    }
+
+    private static void assertSame(ConstraintIndex index, double x, double y) {
+        assertEquals(Constraints.violates(index.getConstraint(), x, y, MAX_PXCOR, MAX_PYCOR), index.violates(x, y),
+                () -> "constraint " + index.getConstraint() + " at " + x + ", " + y);
+    }
+
+    @Test
+    void randomPointsAreTheExactTest() {
+        // the padded raster and beyond it
+        final double padding = ParamConfig.PARTICLE_SPEED_LIMIT_MAX + 5;
+        final SplittableRandom random = new SplittableRandom(42);
+        for (int constraint : CONSTRAINTS) {
+            final ConstraintIndex index = index(constraint);
+            for (int i = 0; i < 200_000; i++) {
+                assertSame(index, random.nextDouble(MIN_PXCOR - padding, MAX_PXCOR + padding),
+                        random.nextDouble(MIN_PYCOR - padding, MAX_PYCOR + padding));
+            }
+        }
+    }
+
+    @Test
+    void patchCentresCornersAndEdgesAreTheExactTest() {
+        for (int constraint : CONSTRAINTS) {
+            final ConstraintIndex index = index(constraint);
+            for (int x = 2 * MIN_PXCOR - 2; x <= 2 * MAX_PXCOR + 2; x++) {
+                for (int y = 2 * MIN_PYCOR - 2; y <= 2 * MAX_PYCOR + 2; y++) {
+                    // centres and corners of the cells
+                    assertSame(index, x / 2.0, y / 2.0);
+                    // points next to the lines x = y and x = y +- 20 of Constraint 3 and 5
+                    assertSame(index, Math.nextUp(y / 2.0), y / 2.0);
+                    assertSame(index, Math.nextDown(y / 2.0 + 20), y / 2.0);
+                    assertSame(index, Math.nextUp(y / 2.0 - 20), y / 2.0);
+                }
+            }
+            assertSame(index, Double.NaN, 0);
+            assertSame(index, 0, Double.POSITIVE_INFINITY);
+        }
+    }
+
+    @Test
+    void mostCellsAreClassified() {
+        for (int constraint : CONSTRAINTS) {
+            final ConstraintIndex index = index(constraint);
+            assertTrue(index.getViolatingCells() > 0, "constraint " + constraint);
+            assertTrue(index.getEdgeCells() < index.getViolatingCells(), "constraint " + constraint);
+        }
+    }
+
+    @Test
+    void writtenIndexIsReadBack() throws IOException {
+        final SplittableRandom random = new SplittableRandom(7);
+        for (int constraint : CONSTRAINTS) {
+            final ConstraintIndex index = index(constraint);
+            final Path file = directory.resolve("constraint" + constraint);
+            index.write(file);
+            final ConstraintIndex read = ConstraintIndex.read(file);
+            assertEquals(constraint, read.getConstraint());
+            assertEquals(index.getViolatingCells(), read.getViolatingCells());
+            assertEquals(index.getEdgeCells(), read.getEdgeCells());
+            for (int i = 0; i < 10_000; i++) {
+                final double x = random.nextDouble(MIN_PXCOR, MAX_PXCOR);
+                final double y = random.nextDouble(MIN_PYCOR, MAX_PYCOR);
+                assertEquals(index.violates(x, y), read.violates(x, y));
+            }
+        }
+    }
+
+    @Test
+    void unsupportedConstraintsAreRejected() {
+        assertFalse(ConstraintIndex.supports(Constraints.CONSTRAINT_8, MAX_PXCOR, MAX_PYCOR));
+        assertFalse(ConstraintIndex.supports(Constraints.CONSTRAINT_10, 0, MAX_PYCOR));
+        assertThrows(IllegalArgumentException.class, () -> index(Constraints.CONSTRAINT_8));
+    }
+
+}
@@ -0,0 +1,99 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExperimentGridTest {
+
+    private static final ExperimentGrid GRID = ExperimentGrid.DEFAULT;
+
+    // the parameters a Setup is made of, the number is left out
+    private static String dimensions(Setup setup) {
+        return setup.getPopulationSize() + "|" + setup.getFitnessFunction() + "|" + setup.getUseConstraint() + "|" +
+                setup.getConstraintHandlingMethod() + "|" + setup.getConstraint() + "|" + setup.getConstraintR();
+    }
+
+    @Test
+    void countsAreTheProductOfTheDimensions() {
+        final int constraintVariants = 1 + ParamConfig.CONSTRAINT_HANDLING_OPTIONS.size() *
+                ParamConfig.CONSTRAINTS.size() * 3;
+        assertEquals(4 * ParamConfig.FITNESS_FUNCTIONS.size() * constraintVariants, GRID.getNumberOfSetups());
+        assertEquals(27, GRID.getNumberOfExperiments());
+    }
+
+    @Test
+    void setupNumbersAreMixedRadixPositions() {
+        final Setup first = GRID.setup(1);
+        assertEquals(1, first.getNumber());
+        assertEquals(5, first.getPopulationSize());
+        assertEquals(ParamConfig.FITNESS_FUNCTIONS.get(0), first.getFitnessFunction());
+        assertFalse(first.getUseConstraint());
+
+        // the constraint variant changes fastest, then the fitness function, then the population
+        final Setup second = GRID.setup(2);
+        assertTrue(second.getUseConstraint());
+        assertEquals(-1.0, second.getConstraintR());
+        assertEquals(-1.5, GRID.setup(3).getConstraintR());
+        final int constraintVariants = GRID.getNumberOfSetups() / 4 / ParamConfig.FITNESS_FUNCTIONS.size();
+        assertEquals(ParamConfig.FITNESS_FUNCTIONS.get(1), GRID.setup(constraintVariants + 1).getFitnessFunction());
+        assertEquals(10, GRID.setup(GRID.getNumberOfSetups() / 4 + 1).getPopulationSize());
+
+        final Set<String> distinct = new HashSet<>();
+        for (Setup setup : GRID.setups()) {
+            assertTrue(distinct.add(dimensions(setup)), "setup " + setup.getNumber() + " is a duplicate");
+        }
+        assertEquals(GRID.getNumberOfSetups(), distinct.size());
+    }
+
+    @Test
+    void experimentNumbersAreMixedRadixPositions() {
+        final ExperimentDefinition first = GRID.experiment(1);
+        assertEquals(2, first.getParticleSpeedLimit());
+        assertEquals(0.1, first.getParticleInertia());
+        assertEquals(0.5, first.getPersonalConfidence());
+        assertEquals(1.5, first.getSwarmConfidence());
+        assertEquals(1.0, GRID.experiment(2).getPersonalConfidence());
+        assertEquals(0.5, GRID.experiment(4).getParticleInertia());
+        assertEquals(10, GRID.experiment(10).getParticleSpeedLimit());
+        final ExperimentDefinition last = GRID.experiment(27);
+        assertEquals(19, last.getParticleSpeedLimit());
+        assertEquals(0.9, last.getParticleInertia());
+        assertEquals(1.5, last.getPersonalConfidence());
+
+        final List<ExperimentDefinition> experiments = GRID.experiments();
+        for (int i = 0; i < experiments.size(); i++) {
+            assertEquals(i + 1, experiments.get(i).getNumber());
+        }
+    }
+
+    @Test
+    void shardsPartitionTheSetupsAndKeepTheirNumbers() {
+        for (int shardCount : new int[]{1, 7, 40, GRID.getNumberOfSetups() + 3}) {
+            final Set<Integer> numbers = new HashSet<>();
+            for (int shardIndex = 0; shardIndex < shardCount; shardIndex++) {
+                for (Setup setup : GRID.setups(shardIndex, shardCount)) {
+                    assertEquals(shardIndex, (setup.getNumber() - 1) % shardCount);
+                    assertEquals(dimensions(GRID.setup(setup.getNumber())), dimensions(setup));
+                    assertTrue(numbers.add(setup.getNumber()));
+                }
+            }
+            assertEquals(GRID.getNumberOfSetups(), numbers.size(), "shards of " + shardCount);
+        }
+    }
+
+    @Test
+    void invalidNumbersAndShardsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> GRID.setup(0));
+        assertThrows(IllegalArgumentException.class, () -> GRID.setup(GRID.getNumberOfSetups() + 1));
+        assertThrows(IllegalArgumentException.class, () -> GRID.experiment(28));
+        assertThrows(IllegalArgumentException.class, () -> GRID.setups(2, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> GRID.setups(0, 2).get(GRID.getNumberOfSetups()));
+    }
+
+}
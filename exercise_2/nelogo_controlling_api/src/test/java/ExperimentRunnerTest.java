@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExperimentRunnerTest {
+
+    private static final ExperimentGrid GRID = ExperimentGrid.DEFAULT;
+    private static final int MAX_ITERATIONS = 50;
+
+    // copies of the written experiments
+    private static final class RowSink implements ResultSink {
+        private final List<Experiment> rows = new ArrayList<>();
+
+        @Override
+        public void writeExperimentWithResult(Experiment experiment, int iteration) {
+            rows.add(experiment.toBuilder().build());
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // reports a stop reason for every swarm, whether a criterion is enabled or not
+    private static final class AlwaysReasonBackend extends JavaPsoBackend {
+        private AlwaysReasonBackend() {
+            super(1, null);
+        }
+
+        @Override
+        public String[] runBatch(List<Experiment> experiments, int maxIterations, StopCriterion stopCriterion) {
+            super.runBatch(experiments, maxIterations, stopCriterion);
+            final String[] reasons = new String[experiments.size()];
+            Arrays.fill(reasons, StopCriterion.MAX_ITERATIONS);
+            return reasons;
+        }
+    }
+
+    private static List<Experiment> run(JavaPsoBackend backend, int swarmsByBatch, StopCriterion stopCriterion)
+            throws IOException {
+        final ExperimentRunner runner = new ExperimentRunner(backend, RunFilter.ALL, stopCriterion, swarmsByBatch,
+                null, true);
+        final RowSink sink = new RowSink();
+        // constrained, so rejected particles are part of the runs
+        runner.runSetup(GRID.setup(2), GRID.experiments(), 1, 1, 1, sink, MAX_ITERATIONS);
+        return sink.rows;
+    }
+
+    @Test
+    void batchedRunsWriteTheRowsOfSequentialRuns() throws IOException {
+        for (StopCriterion stopCriterion : new StopCriterion[]{StopCriterion.NONE, new StopCriterion(true, 5, 0)}) {
+            final List<Experiment> sequential = run(new JavaPsoBackend(1, null), 1, stopCriterion);
+            assertEquals(GRID.getNumberOfExperiments(), sequential.size());
+            assertEquals(sequential, run(new JavaPsoBackend(1, null), 4, stopCriterion));
+            assertEquals(sequential, run(new JavaPsoBackend(1, null), GRID.getNumberOfExperiments(), stopCriterion));
+        }
+    }
+
+    @Test
+    void batchedRunsHaveNoStopReasonWithoutCriterion() throws IOException {
+        final List<Experiment> rows = run(new AlwaysReasonBackend(), GRID.getNumberOfExperiments(),
+                StopCriterion.NONE);
+        for (Experiment row : rows) {
+            assertNull(row.getStopReason());
+            assertEquals(MAX_ITERATIONS, row.getNumberOfIterations());
+        }
+        assertEquals(run(new JavaPsoBackend(1, null), 1, StopCriterion.NONE), rows);
+    }
+
+}
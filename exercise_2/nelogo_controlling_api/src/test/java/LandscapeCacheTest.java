@@ -0,0 +1,50 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LandscapeCacheTest {
+
+    private static final LandscapeSpec SPEC = LandscapeSpec.builder()
+            .fitnessFunction(ParamConfig.FITNESS_FUNCTION_SUBERT)
+            .useConstraint(true)
+            .constraintHandlingMethod(ParamConfig.CONSTRAINT_HANDLING_PENALTY)
+            .constraint(ParamConfig.CONSTRAINT_5)
+            .constraintR(-1.5)
+            .minPxcor(-60).maxPxcor(60).minPycor(-40).maxPycor(40)
+            .build();
+
+    @TempDir
+    Path directory;
+
+    private static void assertSameValues(Landscape expected, Landscape actual) {
+        assertEquals(expected.getTrueBestIndex(), actual.getTrueBestIndex());
+        for (int i = 0; i < expected.getWidth() * expected.getHeight(); i++) {
+            assertEquals(expected.value(i), actual.value(i), "index " + i);
+        }
+    }
+
+    @Test
+    void readValuesAreTheBuiltOnes() {
+        final Landscape built = LandscapeGenerator.build(SPEC);
+        // the first cache builds and writes the file, the second one reads it
+        new LandscapeCache(directory).get(SPEC);
+        final LandscapeCache cache = new LandscapeCache(directory);
+        assertSameValues(built, cache.get(SPEC));
+        assertEquals(1, cache.getFileHits());
+        assertSameValues(built, cache.get(SPEC));
+        assertEquals(1, cache.getMemoryHits());
+    }
+
+    @Test
+    void mappedStoreHasTheBuiltValues() {
+        final Landscape built = LandscapeGenerator.build(SPEC);
+        new LandscapeCache(directory).get(SPEC);
+        final Landscape mapped = new LandscapeCache(directory, LandscapeStore.Encoding.DOUBLE).get(SPEC);
+        assertEquals(LandscapeStore.Encoding.DOUBLE, mapped.getStore().getEncoding());
+        assertSameValues(built, mapped);
+    }
+
+}
@@ -0,0 +1,77 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LandscapeGeneratorTest {
+
+    // 101 rows, so the rows are split into tiles of different sizes
+    private static LandscapeSpec spec(String fitnessFunction, boolean useConstraint, String constraintHandlingMethod,
+                                      String constraint) {
+        return LandscapeSpec.builder()
+                .fitnessFunction(fitnessFunction)
+                .useConstraint(useConstraint)
+                .constraintHandlingMethod(constraintHandlingMethod)
+                .constraint(constraint)
+                .constraintR(ParamConfig.CONSTRAINT_R_DEFAULT)
+                .minPxcor(-60)
+                .maxPxcor(59)
+                .minPycor(-50)
+                .maxPycor(50)
+                .build();
+    }
+
+    private static void assertSameLandscape(LandscapeSpec spec, ForkJoinPool pool) {
+        final Landscape expected = LandscapeBuilder.build(spec);
+        final Landscape actual = LandscapeGenerator.build(spec,
+                LandscapeGenerator.kernel(LandscapeGenerator.KERNEL_SCALAR), pool);
+        for (int index = 0; index < spec.getWidth() * spec.getHeight(); index++) {
+            assertEquals(Double.doubleToRawLongBits(expected.value(index)),
+                    Double.doubleToRawLongBits(actual.value(index)), spec + " at " + index);
+        }
+        assertEquals(expected.getTrueBestPxcor(), actual.getTrueBestPxcor(), spec::toString);
+        assertEquals(expected.getTrueBestPycor(), actual.getTrueBestPycor(), spec::toString);
+    }
+
+    @Test
+    void unconstrainedLandscapesAreTheReference() {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (String fitnessFunction : ParamConfig.FITNESS_FUNCTIONS) {
+                assertSameLandscape(spec(fitnessFunction, false, ParamConfig.CONSTRAINT_HANDLING_REJECTION,
+                        ParamConfig.CONSTRAINT_3), pool);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void constrainedLandscapesAreTheReference() {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (String fitnessFunction : ParamConfig.FITNESS_FUNCTIONS) {
+                for (String method : ParamConfig.CONSTRAINT_HANDLING_OPTIONS) {
+                    for (String constraint : ParamConfig.CONSTRAINTS) {
+                        assertSameLandscape(spec(fitnessFunction, true, method, constraint), pool);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void singleThreadIsTheReference() {
+        final ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            assertSameLandscape(spec(ParamConfig.FITNESS_FUNCTION_SCHWEFEL, true,
+                    ParamConfig.CONSTRAINT_HANDLING_PENALTY, ParamConfig.CONSTRAINT_5), pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
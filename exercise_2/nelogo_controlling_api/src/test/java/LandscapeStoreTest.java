@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LandscapeStoreTest {
+
+    // one level of the SHORT scale of the values from 0 to 1, see LandscapeStore.BEST
+    private static final double SHORT_STEP = 1.0 / (0x7fff - 1);
+
+    private static LandscapeSpec spec(String fitnessFunction, boolean useConstraint, String constraintHandlingMethod) {
+        return LandscapeSpec.builder()
+                .fitnessFunction(fitnessFunction)
+                .useConstraint(useConstraint)
+                .constraintHandlingMethod(constraintHandlingMethod)
+                .constraint(ParamConfig.CONSTRAINT_3)
+                .constraintR(ParamConfig.CONSTRAINT_R_DEFAULT)
+                .minPxcor(-80)
+                .maxPxcor(80)
+                .minPycor(-70)
+                .maxPycor(70)
+                .build();
+    }
+
+    private static LandscapeSpec[] specs() {
+        final LandscapeSpec[] specs = new LandscapeSpec[3 * ParamConfig.FITNESS_FUNCTIONS.size()];
+        int i = 0;
+        for (String fitnessFunction : ParamConfig.FITNESS_FUNCTIONS) {
+            specs[i++] = spec(fitnessFunction, false, ParamConfig.CONSTRAINT_HANDLING_PENALTY);
+            specs[i++] = spec(fitnessFunction, true, ParamConfig.CONSTRAINT_HANDLING_PENALTY);
+            specs[i++] = spec(fitnessFunction, true, ParamConfig.CONSTRAINT_HANDLING_REJECTION);
+        }
+        return specs;
+    }
+
+    // the exact true best value and only there, the regions of the patches as in the spec
+    private static void assertBestAndRegions(Landscape landscape, LandscapeSpec spec, LandscapeStore store) {
+        assertEquals(landscape.getTrueBestIndex(), store.getTrueBestIndex());
+        assertEquals(landscape.getTrueBestValue(), store.getTrueBestValue());
+        assertEquals(landscape.getTrueBestValue(), store.value(store.getTrueBestIndex()));
+        final int constraint = spec.isUseConstraint() ? Constraints.id(spec.getConstraint()) : Constraints.NONE;
+        for (int i = 0; i < store.getSize(); i++) {
+            if (landscape.value(i) != landscape.getTrueBestValue()) {
+                final int index = i;
+                assertTrue(store.value(i) < landscape.getTrueBestValue(), () -> spec + " at " + index);
+            }
+            final boolean constrained = constraint != Constraints.NONE && Constraints.violates(constraint,
+                    landscape.pxcor(i), landscape.pycor(i), spec.getMaxPxcor(), spec.getMaxPycor());
+            assertEquals(constrained, store.isConstrained(i));
+        }
+    }
+
+    @Test
+    void doublesAreExact() {
+        for (LandscapeSpec spec : specs()) {
+            final Landscape landscape = LandscapeGenerator.build(spec);
+            final LandscapeStore store = LandscapeStore.encode(landscape, spec, LandscapeStore.Encoding.DOUBLE);
+            assertEquals(0, store.maxError(landscape));
+            assertBestAndRegions(landscape, spec, store);
+        }
+    }
+
+    @Test
+    void floatsAreTheNearestFloatBelowTheOptimum() {
+        for (LandscapeSpec spec : specs()) {
+            final Landscape landscape = LandscapeGenerator.build(spec);
+            final LandscapeStore store = LandscapeStore.encode(landscape, spec, LandscapeStore.Encoding.FLOAT);
+            assertEquals(4L * store.getSize(), store.getBytes());
+            for (int i = 0; i < store.getSize(); i++) {
+                final int index = i;
+                final double value = landscape.value(i);
+                assertTrue(Math.abs(store.value(i) - value) <= Math.ulp((float) value), () -> spec + " at " + index);
+            }
+            assertBestAndRegions(landscape, spec, store);
+        }
+    }
+
+    @Test
+    void shortsAreWithinALevelOfTheScale() {
+        for (LandscapeSpec spec : specs()) {
+            final Landscape landscape = LandscapeGenerator.build(spec);
+            final LandscapeStore store = LandscapeStore.encode(landscape, spec, LandscapeStore.Encoding.SHORT);
+            assertEquals(2L * store.getSize(), store.getBytes());
+            // normalised values are in [0, 1], so a level is at most SHORT_STEP
+            assertTrue(store.maxError(landscape) <= SHORT_STEP, spec::toString);
+            assertBestAndRegions(landscape, spec, store);
+            if (spec.isUseConstraint() && !spec.isPenalty()) {
+                // the region of Rejection Method stays exactly 0
+                for (int i = 0; i < store.getSize(); i++) {
+                    if (store.isConstrained(i)) {
+                        assertEquals(0.0, store.value(i));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void landscapeOfAStoreHasTheDecodedValues() {
+        final LandscapeSpec spec = spec(ParamConfig.FITNESS_FUNCTION_SCHWEFEL, true,
+                ParamConfig.CONSTRAINT_HANDLING_PENALTY);
+        final Landscape landscape = LandscapeGenerator.build(spec);
+        for (LandscapeStore.Encoding encoding : LandscapeStore.Encoding.values()) {
+            final LandscapeStore store = LandscapeStore.encode(landscape, spec, encoding);
+            final Landscape stored = new Landscape(spec.getMinPxcor(), spec.getMaxPxcor(), spec.getMinPycor(),
+                    spec.getMaxPycor(), store);
+            assertEquals(landscape.getTrueBestPxcor(), stored.getTrueBestPxcor());
+            assertEquals(landscape.getTrueBestPycor(), stored.getTrueBestPycor());
+            assertEquals(landscape.getTrueBestValue(), stored.getTrueBestValue());
+            for (int i = 0; i < store.getSize(); i++) {
+                assertEquals(store.value(i), stored.value(i));
+                assertEquals(store.value(i), stored.valueAt(stored.pxcor(i), stored.pycor(i)));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class P2QuantilesTest {
+
+    private static double estimate(double p, double[] values) {
+        final double[] sketch = new double[P2Quantiles.SIZE];
+        for (int i = 0; i < values.length; i++) {
+            P2Quantiles.add(sketch, 0, p, i, values[i]);
+        }
+        return P2Quantiles.estimate(sketch, 0, p, values.length);
+    }
+
+    @Test
+    void fewObservationsAreExact() {
+        assertTrue(Double.isNaN(estimate(0.5, new double[0])));
+        assertEquals(3, estimate(0.5, new double[]{3}));
+        assertEquals(2.5, estimate(0.5, new double[]{4, 1, 3, 2}));
+        assertEquals(3, estimate(0.5, new double[]{5, 1, 4, 2, 3}));
+        assertEquals(1.4, estimate(0.1, new double[]{5, 1, 4, 2, 3}), 1e-12);
+    }
+
+    @Test
+    void uniformQuantilesAreClose() {
+        final Random random = new Random(42);
+        final double[] values = new double[20000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble();
+        }
+        for (double p : StreamingAggregator.QUANTILES) {
+            assertEquals(p, estimate(p, values), 0.01, "quantile " + p);
+        }
+    }
+
+    @Test
+    void permutationQuantilesAreClose() {
+        // 0 to 1000 in a scrambled order
+        final double[] values = new double[1001];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i * 7919) % 1001;
+        }
+        for (double p : StreamingAggregator.QUANTILES) {
+            assertEquals(p * 1000, estimate(p, values), 10, "quantile " + p);
+        }
+    }
+
+    @Test
+    void sketchesAtOffsetsAreIndependent() {
+        final double[] sketches = new double[2 * P2Quantiles.SIZE];
+        for (int i = 0; i < 100; i++) {
+            P2Quantiles.add(sketches, 0, 0.5, i, i);
+            P2Quantiles.add(sketches, P2Quantiles.SIZE, 0.5, i, -i);
+        }
+        assertEquals(49.5, P2Quantiles.estimate(sketches, 0, 0.5, 100), 1);
+        assertEquals(-49.5, P2Quantiles.estimate(sketches, P2Quantiles.SIZE, 0.5, 100), 1);
+    }
+
+}
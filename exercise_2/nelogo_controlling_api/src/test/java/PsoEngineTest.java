@@ -0,0 +1,71 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PsoEngineTest {
+
+    private static final Landscape BOOTH = LandscapeGenerator.build(LandscapeSpec.builder()
+            .fitnessFunction(ParamConfig.FITNESS_FUNCTION_BOOTH)
+            .useConstraint(false)
+            .minPxcor(-100).maxPxcor(100).minPycor(-100).maxPycor(100)
+            .build());
+
+    private static PsoEngine engine(long seed) {
+        final PsoEngine engine = new PsoEngine(BOOTH, new PsoRandom(seed), 20, null,
+                ParamConfig.CONSTRAINT_HANDLING_PENALTY);
+        engine.setParameters(10, 0.5, 1.0, 1.0);
+        engine.initialize();
+        return engine;
+    }
+
+    private static void run(PsoEngine engine, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            engine.iterate();
+        }
+    }
+
+    @Test
+    void sameSeedGivesSameRun() {
+        final PsoEngine first = engine(42);
+        final PsoEngine second = engine(42);
+        run(first, 100);
+        run(second, 100);
+        assertArrayEquals(first.getX(), second.getX());
+        assertArrayEquals(first.getY(), second.getY());
+        assertEquals(first.getGlobalBestVal(), second.getGlobalBestVal());
+        assertEquals(first.getIterationsToOpt(), second.getIterationsToOpt());
+    }
+
+    @Test
+    void restoreReplaysTheRunAfterTheSnapshot() {
+        final PsoEngine engine = engine(7);
+        final WorldSnapshot snapshot = engine.snapshot();
+        run(engine, 50);
+        final double[] x = engine.getX().clone();
+        final double globalBestVal = engine.getGlobalBestVal();
+        engine.restore(snapshot);
+        assertEquals(0, engine.getIterations());
+        run(engine, 50);
+        assertArrayEquals(x, engine.getX());
+        assertEquals(globalBestVal, engine.getGlobalBestVal());
+    }
+
+    @Test
+    void globalBestNeverDecreasesAndVelocitiesKeepTheLimit() {
+        final PsoEngine engine = engine(3);
+        double globalBestVal = engine.getGlobalBestVal();
+        for (int i = 0; i < 200; i++) {
+            engine.iterate();
+            assertTrue(engine.getGlobalBestVal() >= globalBestVal);
+            globalBestVal = engine.getGlobalBestVal();
+            for (int p = 0; p < engine.getPopulationSize(); p++) {
+                assertTrue(Math.abs(engine.getVx()[p]) <= 10 && Math.abs(engine.getVy()[p]) <= 10);
+            }
+        }
+        assertTrue(engine.getIterationsToOpt() <= engine.getIterations());
+        assertTrue(globalBestVal <= BOOTH.getTrueBestValue());
+    }
+
+}
@@ -0,0 +1,164 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultCacheTest {
+
+    private static final String MODEL = "java-pso-v" + PsoEngine.VERSION;
+    private static final LandscapeSpec LANDSCAPE = LandscapeSpec.builder()
+            .fitnessFunction(ParamConfig.FITNESS_FUNCTION_BOOTH)
+            .minPxcor(-100).maxPxcor(100).minPycor(-100).maxPycor(100)
+            .build();
+    private static final StopCriterion STOP_AT_OPTIMUM = new StopCriterion(true, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private static Experiment experiment(int speedLimit) {
+        return Experiment.builder()
+                .fitnessFunction(ParamConfig.FITNESS_FUNCTION_BOOTH)
+                .useConstraint(false)
+                .particleSpeedLimit(speedLimit)
+                .populationSize(20)
+                .personalConfidence(1.0)
+                .swarmConfidence(1.0)
+                .particleInertia(0.5)
+                .build();
+    }
+
+    // results as set by SimulationBackend.report
+    private static Experiment result(int speedLimit) {
+        final Experiment experiment = experiment(speedLimit);
+        experiment.setFitness(1.0 / (speedLimit + 1));
+        experiment.setOptimum(1.0);
+        experiment.setNumberOfIterations(100 + speedLimit);
+        experiment.setOptimumReached(speedLimit == 0);
+        experiment.setNumberOfIterationsUntilFitness(speedLimit);
+        return experiment;
+    }
+
+    private static String key(ResultCache cache, int speedLimit) {
+        return cache.key(experiment(speedLimit), LANDSCAPE, 42, 1000, STOP_AT_OPTIMUM);
+    }
+
+    private static void put(ResultCache cache, int speedLimit) throws IOException {
+        cache.put(key(cache, speedLimit), result(speedLimit), speedLimit == 0 ? StopCriterion.OPTIMUM : null);
+    }
+
+    private static void assertCached(ResultCache cache, int speedLimit) throws IOException {
+        final Experiment expected = result(speedLimit);
+        final Experiment experiment = experiment(speedLimit);
+        assertTrue(cache.get(key(cache, speedLimit), experiment), "speed limit " + speedLimit);
+        assertEquals(expected.getFitness(), experiment.getFitness());
+        assertEquals(expected.getOptimum(), experiment.getOptimum());
+        assertEquals(expected.getNumberOfIterations(), experiment.getNumberOfIterations());
+        assertEquals(expected.isOptimumReached(), experiment.isOptimumReached());
+        assertEquals(expected.getNumberOfIterationsUntilFitness(), experiment.getNumberOfIterationsUntilFitness());
+        if (speedLimit == 0) {
+            assertEquals(StopCriterion.OPTIMUM, experiment.getStopReason());
+        } else {
+            assertNull(experiment.getStopReason());
+        }
+    }
+
+    @Test
+    void reopenedCacheHasTheResults() throws IOException {
+        final Path file = directory.resolve("cache").resolve("results.tsv");
+        try (ResultCache cache = ResultCache.open(file, MODEL)) {
+            for (int speedLimit = 0; speedLimit < 5; speedLimit++) {
+                put(cache, speedLimit);
+            }
+            assertCached(cache, 3);
+        }
+        try (ResultCache cache = ResultCache.open(file, MODEL)) {
+            assertEquals(5, cache.getEntries());
+            for (int speedLimit = 0; speedLimit < 5; speedLimit++) {
+                assertCached(cache, speedLimit);
+            }
+            assertFalse(cache.get(key(cache, 5), experiment(5)));
+            put(cache, 5);
+        }
+        try (ResultCache cache = ResultCache.open(file, MODEL)) {
+            assertEquals(6, cache.getEntries());
+            assertCached(cache, 5);
+        }
+        // the model is part of the key
+        try (ResultCache cache = ResultCache.open(file, "netlogo-")) {
+            assertFalse(cache.get(key(cache, 0), experiment(0)));
+        }
+    }
+
+    @Test
+    void partialLastLineIsCutOff() throws IOException {
+        final Path file = directory.resolve("results.tsv");
+        final String partialLine;
+        try (ResultCache cache = ResultCache.open(file, MODEL)) {
+            put(cache, 1);
+            put(cache, 2);
+            partialLine = key(cache, 3) + "\t0.25";
+        }
+        final long size = Files.size(file);
+        Files.write(file, partialLine.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        try (ResultCache cache = ResultCache.open(file, MODEL)) {
+            assertEquals(size, Files.size(file));
+            assertEquals(2, cache.getEntries());
+            assertFalse(cache.get(key(cache, 3), experiment(3)));
+            put(cache, 3);
+        }
+        try (ResultCache cache = ResultCache.open(file, MODEL)) {
+            for (int speedLimit = 1; speedLimit <= 3; speedLimit++) {
+                assertCached(cache, speedLimit);
+            }
+        }
+    }
+
+    @Test
+    void collidingKeysAreToldApart() throws IOException {
+        final Path file = directory.resolve("results.tsv");
+        // every key has the hash 0
+        try (ResultCache cache = ResultCache.open(file, MODEL, 0)) {
+            for (int speedLimit = 0; speedLimit < 40; speedLimit++) {
+                put(cache, speedLimit);
+            }
+            for (int speedLimit = 0; speedLimit < 40; speedLimit++) {
+                assertCached(cache, speedLimit);
+            }
+            assertFalse(cache.get(key(cache, 40), experiment(40)));
+        }
+        try (ResultCache cache = ResultCache.open(file, MODEL, 0)) {
+            assertEquals(40, cache.getEntries());
+            for (int speedLimit = 39; speedLimit >= 0; speedLimit--) {
+                assertCached(cache, speedLimit);
+            }
+        }
+    }
+
+    @Test
+    void keyHasEverythingARunDependsOn() throws IOException {
+        try (ResultCache cache = ResultCache.open(directory.resolve("results.tsv"), MODEL)) {
+            final String key = key(cache, 1);
+            assertEquals(key, key(cache, 1));
+            assertNotEquals(key, key(cache, 2));
+            assertNotEquals(key, cache.key(experiment(1), LANDSCAPE, 43, 1000, STOP_AT_OPTIMUM));
+            assertNotEquals(key, cache.key(experiment(1), LANDSCAPE, 42, 999, STOP_AT_OPTIMUM));
+            assertNotEquals(key, cache.key(experiment(1), LANDSCAPE, 42, 1000, StopCriterion.NONE));
+            final LandscapeSpec larger = LandscapeSpec.builder()
+                    .fitnessFunction(ParamConfig.FITNESS_FUNCTION_BOOTH)
+                    .minPxcor(-101).maxPxcor(100).minPycor(-100).maxPycor(100)
+                    .build();
+            assertNotEquals(key, cache.key(experiment(1), larger, 42, 1000, STOP_AT_OPTIMUM));
+        }
+    }
+
+}
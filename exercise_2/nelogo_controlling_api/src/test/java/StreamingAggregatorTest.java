@@ -0,0 +1,74 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StreamingAggregatorTest {
+
+    @TempDir
+    Path directory;
+
+    private static final ResultSink NO_SINK = new ResultSink() {
+        @Override
+        public void writeExperimentWithResult(Experiment experiment, int iteration) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private static Experiment experiment(int number, double fitness, int iterationsToOpt) {
+        return Experiment.builder()
+                .fitnessFunction(ParamConfig.FITNESS_FUNCTION_BOOTH)
+                .useConstraint(false)
+                .particleSpeedLimit(10)
+                .populationSize(20)
+                .personalConfidence(1.0)
+                .swarmConfidence(1.0)
+                .particleInertia(0.5)
+                .fitness(fitness)
+                .optimumReached(iterationsToOpt > 0)
+                .numberOfIterationsUntilFitness(iterationsToOpt)
+                .number(number)
+                .build();
+    }
+
+    @Test
+    void summaryHasTheStatisticsOfEveryConfiguration() throws IOException {
+        final Path summaryFile = directory.resolve("summary.csv");
+        final StreamingAggregator aggregator = new StreamingAggregator(NO_SINK, summaryFile, Long.MAX_VALUE);
+        final int[] iterationsToOpt = {40, 0, 10, 30};
+        for (int i = 0; i < iterationsToOpt.length; i++) {
+            aggregator.writeExperimentWithResult(experiment(20002, 0.5 + i, iterationsToOpt[i]), i);
+        }
+        aggregator.writeExperimentWithResult(experiment(10001, 1, 5), 0);
+        aggregator.close();
+
+        assertNull(aggregator.summary(3));
+        final List<ConfigurationSummary> summaries = aggregator.summaries();
+        assertEquals(2, summaries.size());
+        assertEquals(10001, summaries.get(0).getNumber());
+        final ConfigurationSummary summary = summaries.get(1);
+        assertEquals(4, summary.getReplications());
+        assertEquals(0.75, summary.getSuccessRate());
+        assertEquals(2, summary.getFitnessMean(), 1e-12);
+        assertEquals(0.5, summary.getFitnessMin());
+        assertEquals(3.5, summary.getFitnessMax());
+        assertEquals(20, summary.getIterationsToOptMean(), 1e-12);
+        assertEquals(0, summary.getIterationsToOptMin());
+        assertEquals(40, summary.getIterationsToOptMax());
+        assertEquals(20, summary.getIterationsToOptQuantiles()[1], 1e-12);
+
+        // header and one line per configuration
+        assertEquals(3, Files.readAllLines(summaryFile, StandardCharsets.UTF_8).size());
+    }
+
+}
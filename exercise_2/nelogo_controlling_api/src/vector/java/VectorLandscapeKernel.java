@@ -0,0 +1,73 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// LandscapeKernel on the Java Vector API (jdk.incubator.vector, Java 17), compiled by the vector profile and used
+// by LandscapeGenerator if the JVM runs with --add-modules jdk.incubator.vector
+// the lanes are consecutive patches of a row, the tail of a row is done by ScalarLandscapeKernel
+public final class VectorLandscapeKernel implements LandscapeKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double SCHWEFEL_2A = 418.9829 * 2;
+
+    private final ScalarLandscapeKernel tail = new ScalarLandscapeKernel();
+
+    @Override
+    public void evaluateRow(int function, double[] xTerms, double yTerm, double[] values, int offset,
+                            double[] minMax) {
+        final int bound = SPECIES.loopBound(xTerms.length);
+        DoubleVector min = DoubleVector.broadcast(SPECIES, minMax[0]);
+        DoubleVector max = DoubleVector.broadcast(SPECIES, minMax[1]);
+        switch (function) {
+            case SHUBERT:
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    DoubleVector value = DoubleVector.fromArray(SPECIES, xTerms, i).mul(yTerm);
+                    value.intoArray(values, offset + i);
+                    min = min.min(value);
+                    max = max.max(value);
+                }
+                break;
+            case BOOTH:
+                // same order as x + 2 * y - 7 and 2 * x + y - 5
+                final double twoY = 2 * yTerm;
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    DoubleVector x = DoubleVector.fromArray(SPECIES, xTerms, i);
+                    DoubleVector a = x.add(twoY).sub(7);
+                    DoubleVector b = x.mul(2).add(yTerm).sub(5);
+                    DoubleVector value = a.mul(a).add(b.mul(b)).neg();
+                    value.intoArray(values, offset + i);
+                    min = min.min(value);
+                    max = max.max(value);
+                }
+                break;
+            case SCHWEFEL:
+                for (int i = 0; i < bound; i += SPECIES.length()) {
+                    DoubleVector value = DoubleVector.fromArray(SPECIES, xTerms, i).add(yTerm).add(SCHWEFEL_2A);
+                    value.intoArray(values, offset + i);
+                    min = min.min(value);
+                    max = max.max(value);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unknown function " + function);
+        }
+        minMax[0] = min.reduceLanes(VectorOperators.MIN);
+        minMax[1] = max.reduceLanes(VectorOperators.MAX);
+        tail.evaluate(function, xTerms, bound, xTerms.length, yTerm, values, offset, minMax);
+    }
+
+    @Override
+    public void normalize(double[] values, int from, int to, double min, double range) {
+        final int bound = from + SPECIES.loopBound(to - from);
+        for (int i = from; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, values, i).sub(min).div(range).intoArray(values, i);
+        }
+        tail.normalize(values, bound, to, min, range);
+    }
+
+    @Override
+    public String getName() {
+        return "vector " + SPECIES.length() + "x" + SPECIES.elementSize();
+    }
+
+}